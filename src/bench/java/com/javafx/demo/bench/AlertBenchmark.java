@@ -0,0 +1,42 @@
+package com.javafx.demo.bench;
+
+import com.javafx.demo.service.AlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The periodic overdue check-out scan. The first call creates alerts for the seeded overdue
+ * check-outs during setup, so the measured calls are the steady state the dashboard sees: every
+ * overdue check-out already has an alert and nothing new is inserted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AlertBenchmark {
+    private final AlertService alertService = new AlertService();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchDataset.get();
+        alertService.checkForOverdueCheckouts();
+    }
+
+    @Benchmark
+    public int checkForOverdueCheckouts() {
+        return alertService.checkForOverdueCheckouts();
+    }
+}
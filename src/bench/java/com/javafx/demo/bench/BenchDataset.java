@@ -0,0 +1,160 @@
+package com.javafx.demo.bench;
+
+import com.javafx.demo.dao.LocationDao;
+import com.javafx.demo.dao.UserDao;
+import com.javafx.demo.db.Database;
+import com.javafx.demo.security.PasswordHasher;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+/**
+ * Seeds the benchmark database with {@code bench.products} products (default 1000) and
+ * {@code bench.logs} log rows (default 200000) spread over the last year.
+ *
+ * Seeding is idempotent: only the shortfall against the requested sizes is inserted, so repeated
+ * runs against the same schema start quickly. Every product gets a large stock at every location,
+ * so check-outs and transfers in the suites never run dry.
+ */
+public final class BenchDataset {
+    private static final Logger LOG = Logger.getLogger(BenchDataset.class.getName());
+    private static final String PRODUCT_PREFIX = "Bench product ";
+    private static final String USER_NAME = "bench";
+    private static final int BATCH_ROWS = 1_000;
+    private static final int STOCK_PER_LOCATION = 1_000_000;
+    private static final long SEED = 42;
+
+    private static BenchDataset instance;
+
+    private final int[] productIds;
+    private final int[] locationIds;
+    private final int userId;
+
+    private BenchDataset(int[] productIds, int[] locationIds, int userId) {
+        this.productIds = productIds;
+        this.locationIds = locationIds;
+        this.userId = userId;
+    }
+
+    public static synchronized BenchDataset get() {
+        if (instance == null) {
+            instance = seed(Integer.getInteger("bench.products", 1_000), Integer.getInteger("bench.logs", 200_000));
+        }
+        return instance;
+    }
+
+    public int[] productIds() {
+        return productIds;
+    }
+
+    public int[] locationIds() {
+        return locationIds;
+    }
+
+    public int userId() {
+        return userId;
+    }
+
+    private static BenchDataset seed(int products, int logs) {
+        long t0 = System.nanoTime();
+        Database.migrateIfNeeded();
+        new LocationDao().ensureDefaults();
+        int userId = ensureUser();
+        int[] locationIds = new LocationDao().findAll().stream().mapToInt(LocationDao.Location::id).toArray();
+        try (Connection c = Database.getConnection()) {
+            int[] productIds = seedProducts(c, products, locationIds);
+            seedLogs(c, logs, productIds, userId);
+            LOG.info(String.format("Benchmark dataset ready: %d products, %d logs in %d ms",
+                productIds.length, logs, (System.nanoTime() - t0) / 1_000_000));
+            return new BenchDataset(productIds, locationIds, userId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Seeding benchmark data failed", e);
+        }
+    }
+
+    private static int ensureUser() {
+        UserDao users = new UserDao();
+        users.seedRoles();
+        var existing = users.findByUsername(USER_NAME);
+        if (existing != null) return existing.id();
+        return users.createUser(USER_NAME, PasswordHasher.hash(USER_NAME), "STAFF").id();
+    }
+
+    private static int[] seedProducts(Connection c, int wanted, int[] locationIds) throws SQLException {
+        int have = count(c, "SELECT COUNT(*) FROM products WHERE name LIKE '" + PRODUCT_PREFIX + "%'");
+        for (int from = have; from < wanted; from += BATCH_ROWS) {
+            int n = Math.min(BATCH_ROWS, wanted - from);
+            StringBuilder sql = new StringBuilder("INSERT INTO products(name, description, quantity, location, unit) VALUES ");
+            for (int i = 0; i < n; i++) {
+                if (i > 0) sql.append(',');
+                sql.append("(?, 'Seeded for benchmarks', ?, 'Warehouse A', 'pcs')");
+            }
+            try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                int p = 1;
+                for (int i = 0; i < n; i++) {
+                    ps.setString(p++, String.format("%s%07d", PRODUCT_PREFIX, from + i));
+                    ps.setInt(p++, STOCK_PER_LOCATION * locationIds.length);
+                }
+                ps.executeUpdate();
+            }
+        }
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT id FROM products WHERE name LIKE ? ORDER BY id")) {
+            ps.setString(1, PRODUCT_PREFIX + "%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        try (Statement st = c.createStatement()) {
+            // Top every product up at every location, including ones added by an earlier run
+            st.executeUpdate("""
+                INSERT INTO product_stock(product_id, location_id, quantity)
+                SELECT p.id, l.id, %d FROM products p CROSS JOIN locations l
+                WHERE p.name LIKE '%s%%'
+                ON DUPLICATE KEY UPDATE quantity = GREATEST(quantity, VALUES(quantity))
+                """.formatted(STOCK_PER_LOCATION, PRODUCT_PREFIX));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void seedLogs(Connection c, int wanted, int[] productIds, int userId) throws SQLException {
+        int have = count(c, "SELECT COUNT(*) FROM logs WHERE user_id = " + userId);
+        SplittableRandom random = new SplittableRandom(SEED + have);
+        LocalDateTime now = LocalDateTime.now();
+        String[] actions = {"CHECK_IN", "CHECK_OUT", "TRANSFER"};
+        for (int from = have; from < wanted; from += BATCH_ROWS) {
+            int n = Math.min(BATCH_ROWS, wanted - from);
+            StringBuilder sql = new StringBuilder("INSERT INTO logs(product_id, user_id, action_type, quantity, timestamp, notes) VALUES ");
+            for (int i = 0; i < n; i++) {
+                if (i > 0) sql.append(',');
+                sql.append("(?, ?, ?, ?, ?, NULL)");
+            }
+            try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                int p = 1;
+                for (int i = 0; i < n; i++) {
+                    ps.setInt(p++, productIds[random.nextInt(productIds.length)]);
+                    ps.setInt(p++, userId);
+                    ps.setString(p++, actions[random.nextInt(actions.length)]);
+                    ps.setInt(p++, 1 + random.nextInt(20));
+                    ps.setTimestamp(p++, Timestamp.valueOf(now.minusSeconds(random.nextLong(365L * 24 * 3600))));
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static int count(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
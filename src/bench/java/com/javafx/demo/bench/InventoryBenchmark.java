@@ -0,0 +1,69 @@
+package com.javafx.demo.bench;
+
+import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stock movement per invocation, each its own transaction plus log insert, on a random
+ * seeded product. Quantities are single units against a large seeded stock, so the suites can
+ * run for any length of time without check-outs failing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InventoryBenchmark {
+    private final InventoryService inventoryService = new InventoryService();
+    private BenchDataset data;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchDataset.get();
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public ProductLog checkIn() {
+        return inventoryService.checkIn(product(), location(), data.userId(), 1, null);
+    }
+
+    @Benchmark
+    public ProductLog checkOut() {
+        return inventoryService.checkOut(product(), location(), data.userId(), 1, null);
+    }
+
+    @Benchmark
+    public ProductLog transfer() {
+        int[] locations = data.locationIds();
+        int from = random.nextInt(locations.length);
+        int to = (from + 1 + random.nextInt(locations.length - 1)) % locations.length;
+        return inventoryService.transfer(product(), locations[from], locations[to], data.userId(), 1, null);
+    }
+
+    private int product() {
+        int[] ids = data.productIds();
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private int location() {
+        int[] ids = data.locationIds();
+        return ids[random.nextInt(ids.length)];
+    }
+}
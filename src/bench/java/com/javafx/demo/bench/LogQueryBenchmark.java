@@ -0,0 +1,69 @@
+package com.javafx.demo.bench;
+
+import com.javafx.demo.dao.LogDao;
+import com.javafx.demo.model.ProductLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The product log screen's page query ({@link LogDao#findFiltered}) at increasing offsets,
+ * unfiltered and for one product over the last 90 days, and the total
+ * ({@link LogDao#countFiltered}) it runs once per set of filters. Offsets past the seeded row
+ * count return an empty page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogQueryBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "1000", "10000", "100000"})
+    public int offset;
+
+    private final LogDao logDao = new LogDao();
+    private int productId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productId = BenchDataset.get().productIds()[0];
+    }
+
+    @Benchmark
+    public List<ProductLog> findFilteredAll() {
+        return logDao.findFiltered(null, null, "ALL", null, null, PAGE_SIZE, offset, null);
+    }
+
+    @Benchmark
+    public List<ProductLog> findFilteredProductRange() {
+        LocalDate today = LocalDate.now();
+        return logDao.findFiltered(productId, null, "ALL", today.minusDays(90), today, PAGE_SIZE, offset, null);
+    }
+
+    @Benchmark
+    public int countFilteredAll() {
+        return logDao.countFiltered(null, null, "ALL", null, null);
+    }
+
+    @Benchmark
+    public int countFilteredProductRange() {
+        LocalDate today = LocalDate.now();
+        return logDao.countFiltered(productId, null, "ALL", today.minusDays(90), today);
+    }
+}
@@ -0,0 +1,47 @@
+package com.javafx.demo.bench;
+
+import com.javafx.demo.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The daily CSV report for today (partly filled by the other suites) and for a day in the
+ * seeded history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"0", "30"})
+    public int daysAgo;
+
+    private final ReportService reportService = new ReportService();
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchDataset.get();
+        date = LocalDate.now().minusDays(daysAgo);
+    }
+
+    @Benchmark
+    public String buildCsvForDate() {
+        return reportService.buildCsvForDate(date);
+    }
+}
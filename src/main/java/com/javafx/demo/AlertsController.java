@@ -1,12 +1,18 @@
 package com.javafx.demo;
 
 import com.javafx.demo.app.Session;
+import com.javafx.demo.dao.AlertDao;
+import com.javafx.demo.db.CancelToken;
+import com.javafx.demo.metrics.QueryScope;
 import com.javafx.demo.model.Alert;
-import com.javafx.demo.model.Product;
+import com.javafx.demo.model.ProductSummary;
 import com.javafx.demo.model.User;
 import com.javafx.demo.service.AlertService;
 import com.javafx.demo.service.ProductService;
 import com.javafx.demo.security.AuthGuard;
+import com.javafx.demo.ui.ProductTypeahead;
+import com.javafx.demo.ui.ReloadCoordinator;
+import com.javafx.demo.ui.ScreenLoads;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -20,6 +26,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.time.LocalDate;
 
@@ -59,7 +66,7 @@ public class AlertsController {
     private Button productsButton;
     // Filters
     @FXML
-    private javafx.scene.control.ComboBox<com.javafx.demo.model.Product> filterProductCombo;
+    private javafx.scene.control.ComboBox<ProductSummary> filterProductCombo;
     @FXML
     private javafx.scene.control.DatePicker filterFromDate;
     @FXML
@@ -71,9 +78,14 @@ public class AlertsController {
     private final ProductService productService = new ProductService();
     // Avoid explicit DateTimeFormatter to prevent runtime resolution issues
     private static final int PAGE_SIZE = 20;
+    private final ReloadCoordinator<AlertQuery, AlertsView> reloads =
+        new ReloadCoordinator<>(this::fetchAlerts, this::showAlerts, this::showLoadError)
+            .prefetching(this::adjacentPages);
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("Alerts", userLabel);
+        reloads.shutdownWhenRemoved(userLabel);
         // Require Admin or Security
         if (!AuthGuard.isLoggedIn()) {
             navigateToLoginInternal();
@@ -121,71 +133,110 @@ public class AlertsController {
         checkForOverdueItems();
     }
 
+    /** Filters and page shown in the table; the reload coordinator's cache key. */
+    private record AlertQuery(Integer productId, String status, LocalDate from, LocalDate to, int page) {
+        AlertQuery withPage(int p) {
+            return new AlertQuery(productId, status, from, to, p);
+        }
+    }
+
+    private record AlertsView(AlertQuery query, List<AlertTableRow> rows, int total, int unresolved) {}
+
+    private AlertQuery currentQuery(int pageIndex) {
+        Integer productId = null;
+        var fp = filterProductCombo != null ? filterProductCombo.getSelectionModel().getSelectedItem() : null;
+        if (fp != null) productId = fp.id();
+        String status = unresolvedRadio.isSelected() ? "UNRESOLVED" : "ALL";
+        var from = filterFromDate != null ? filterFromDate.getValue() : null;
+        var to = filterToDate != null ? filterToDate.getValue() : null;
+
+        // Validate date range
+        if (to != null && to.isAfter(LocalDate.now())) {
+            to = LocalDate.now();
+            filterToDate.setValue(to);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            messageLabel.setTextFill(javafx.scene.paint.Color.RED);
+            messageLabel.setText("From date must be before To date");
+            alertsTable.getItems().clear();
+            return null;
+        }
+        return new AlertQuery(productId, status, from, to, pageIndex);
+    }
+
     private void loadAlerts(int pageIndex) {
-        try {
-            List<Alert> alerts;
-            int offset = pageIndex * PAGE_SIZE;
-            Integer productId = null;
-            var fp = filterProductCombo != null ? filterProductCombo.getSelectionModel().getSelectedItem() : null;
-            if (fp != null) productId = fp.id();
-            String status = unresolvedRadio.isSelected() ? "UNRESOLVED" : "ALL";
-            var from = filterFromDate != null ? filterFromDate.getValue() : null;
-            var to = filterToDate != null ? filterToDate.getValue() : null;
-
-            // Validate date range
-            if (to != null && to.isAfter(LocalDate.now())) {
-                to = LocalDate.now();
-                filterToDate.setValue(to);
-            }
-            if (from != null && to != null && from.isAfter(to)) {
-                messageLabel.setTextFill(javafx.scene.paint.Color.RED);
-                messageLabel.setText("From date must be before To date");
-                alertsTable.getItems().clear();
-                return;
-            }
+        AlertQuery query = currentQuery(pageIndex);
+        if (query != null) reloads.request(query);
+    }
 
-            alerts = alertService.getAlertsFiltered(productId, status, from, to, PAGE_SIZE, offset);
-            int total = alertService.countAlertsFiltered(productId, status, from, to);
-            int unresolvedCount = alertService.countAlertsFiltered(productId, "UNRESOLVED", from, to);
-            if (pagination != null) pagination.setPageCount(Math.max(1, (int) Math.ceil(total / (double) PAGE_SIZE)));
-            if ("UNRESOLVED".equals(status)) {
-                alertsCountLabel.setText(total + " Unresolved Alerts");
-            } else {
-                alertsCountLabel.setText(unresolvedCount + " Unresolved / " + total + " Total Alerts");
-            }
+    /**
+     * Runs on a background thread: one query for the page and one for its product names, plus both
+     * counts for the first page loaded with these filters; later pages reuse them.
+     */
+    private AlertsView fetchAlerts(AlertQuery q, CancelToken token) {
+        return QueryScope.call("Alerts.page", 3, () -> fetchAlertsPage(q, token));
+    }
 
-            ObservableList<AlertTableRow> alertRows = FXCollections.observableArrayList();
-
-            for (Alert alert : alerts) {
-                String productName = productService.getProductById(alert.productId())
-                    .map(Product::name)
-                    .orElse("Product ID: " + alert.productId());
-
-                alertRows.add(new AlertTableRow(
-                    alert.id(),
-                    String.valueOf(alert.createdAt()),
-                    productName,
-                    alert.alertType(),
-                    alert.message(),
-                    alert.status()
-                ));
-            }
+    private AlertsView fetchAlertsPage(AlertQuery q, CancelToken token) {
+        AlertDao.AlertCounts counts = reloads.memo(q.withPage(0),
+            () -> alertService.getAlertCounts(q.productId(), q.status(), q.from(), q.to()));
+        if (token.isCancelled()) return new AlertsView(q, List.of(), counts.total(), counts.unresolved());
+        List<Alert> alerts = alertService.getAlertsFiltered(
+            q.productId(), q.status(), q.from(), q.to(), PAGE_SIZE, q.page() * PAGE_SIZE, token);
+        if (token.isCancelled()) return new AlertsView(q, List.of(), counts.total(), counts.unresolved());
+        Map<Integer, String> productNames = productService.getProductNames(
+            alerts.stream().map(Alert::productId).toList());
+        List<AlertTableRow> rows = new java.util.ArrayList<>();
+        for (Alert alert : alerts) {
+            String productName = productNames.getOrDefault(alert.productId(), "Product ID: " + alert.productId());
+
+            rows.add(new AlertTableRow(
+                alert.id(),
+                String.valueOf(alert.createdAt()),
+                productName,
+                alert.alertType(),
+                alert.message(),
+                alert.status()
+            ));
+        }
+        return new AlertsView(q, rows, counts.total(), counts.unresolved());
+    }
 
-            alertsTable.getSelectionModel().clearSelection();
-            alertsTable.setItems(alertRows);
-            if (alertRows.isEmpty()) {
-                messageLabel.setTextFill(javafx.scene.paint.Color.GRAY);
-                messageLabel.setText("No results for the selected filters");
-            } else {
-                messageLabel.setText("");
-            }
+    private void showAlerts(AlertsView view) {
+        int total = view.total();
+        if (pagination != null) {
+            pagination.setPageCount(Math.max(1, (int) Math.ceil(total / (double) PAGE_SIZE)));
+        }
+        if ("UNRESOLVED".equals(view.query().status())) {
+            alertsCountLabel.setText(total + " Unresolved Alerts");
+        } else {
+            alertsCountLabel.setText(view.unresolved() + " Unresolved / " + total + " Total Alerts");
+        }
+
+        alertsTable.getSelectionModel().clearSelection();
+        alertsTable.setItems(FXCollections.observableArrayList(view.rows()));
+        if (view.rows().isEmpty()) {
+            messageLabel.setTextFill(javafx.scene.paint.Color.GRAY);
+            messageLabel.setText("No results for the selected filters");
+        } else {
             messageLabel.setText("");
-        } catch (Exception e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading alerts: " + e.getMessage());
         }
     }
 
+    private void showLoadError(Throwable e) {
+        e.printStackTrace();
+        messageLabel.setText("Error loading alerts: " + e.getMessage());
+    }
+
+    // Neighbouring pages are loaded ahead so paging through them needs no query
+    private List<AlertQuery> adjacentPages(AlertQuery q, AlertsView view) {
+        int pageCount = Math.max(1, (int) Math.ceil(view.total() / (double) PAGE_SIZE));
+        List<AlertQuery> pages = new java.util.ArrayList<>(2);
+        if (q.page() + 1 < pageCount) pages.add(q.withPage(q.page() + 1));
+        if (q.page() > 0) pages.add(q.withPage(q.page() - 1));
+        return pages;
+    }
+
     @FXML
     private void onFilterChange(ActionEvent event) {
         if (pagination != null) pagination.setCurrentPageIndex(0);
@@ -204,6 +255,7 @@ public class AlertsController {
                 messageLabel.setTextFill(javafx.scene.paint.Color.GRAY);
                 messageLabel.setText("No new overdue items found");
             }
+            reloads.invalidate();
             onFilterChange(null);
         } catch (Exception e) {
             e.printStackTrace();
@@ -328,32 +380,23 @@ public class AlertsController {
     }
 
     private void reloadCurrentPage() {
-        if (pagination != null) {
-            loadAlerts(pagination.getCurrentPageIndex());
-        } else {
-            loadAlerts(0);
-        }
+        // Data changed: skip the debounce and drop prefetched pages
+        AlertQuery query = currentQuery(pagination != null ? pagination.getCurrentPageIndex() : 0);
+        if (query != null) reloads.reloadNow(query);
     }
 
     private void loadFilterProducts() {
         try {
-            var products = productService.getAllProducts();
-            ObservableList<Product> productList = FXCollections.observableArrayList(products);
-            filterProductCombo.setItems(productList);
-            filterProductCombo.setCellFactory(listView -> new ListCell<Product>() {
+            // Editable with typeahead; the drop-down pages through the catalog when the text is empty
+            ProductTypeahead.install(filterProductCombo);
+            filterProductCombo.setPromptText("All products");
+            filterProductCombo.setCellFactory(listView -> new ListCell<ProductSummary>() {
                 @Override
-                protected void updateItem(Product product, boolean empty) {
+                protected void updateItem(ProductSummary product, boolean empty) {
                     super.updateItem(product, empty);
                     setText(empty || product == null ? null : product.name());
                 }
             });
-            filterProductCombo.setButtonCell(new ListCell<Product>() {
-                @Override
-                protected void updateItem(Product product, boolean empty) {
-                    super.updateItem(product, empty);
-                    setText(empty || product == null ? "All products" : product.name());
-                }
-            });
         } catch (Exception e) {
             e.printStackTrace();
         }
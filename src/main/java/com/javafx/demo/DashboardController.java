@@ -1,17 +1,21 @@
 package com.javafx.demo;
 
 import com.javafx.demo.app.Session;
+import com.javafx.demo.app.SettingsStore;
 import com.javafx.demo.dao.LogDao;
 import com.javafx.demo.dao.ProductDao;
 import com.javafx.demo.dao.UserDao;
-import com.javafx.demo.model.Product;
+import com.javafx.demo.db.DbExecutor;
 import com.javafx.demo.model.ProductLog;
 import com.javafx.demo.model.User;
 import com.javafx.demo.service.AlertService;
 import com.javafx.demo.service.ReportService;
 import com.javafx.demo.service.ProductService;
-import com.javafx.demo.dao.SettingsDao;
+import com.javafx.demo.metrics.QueryScope;
 import com.javafx.demo.security.AuthGuard;
+import com.javafx.demo.ui.DiagnosticsWindow;
+import com.javafx.demo.ui.ReportPrinter;
+import com.javafx.demo.ui.ScreenLoads;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -22,18 +26,13 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
-import javafx.scene.web.WebEngine;
-import javafx.scene.web.WebView;
-import javafx.concurrent.Worker;
-import javafx.print.PrinterJob;
-import javafx.print.Printer;
-import javafx.print.PageLayout;
-import javafx.print.PageOrientation;
-import javafx.print.Paper;
 
 // removed explicit DateTimeFormatter usage to avoid runtime resolution issues
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class DashboardController {
@@ -74,19 +73,26 @@ public class DashboardController {
     private Button generateReportButton;
     @FXML
     private Button printReportButton;
+    @FXML
+    private Button diagnosticsButton;
 
     private final ProductService productService = new ProductService();
     private final AlertService alertService = new AlertService();
     private final ReportService reportService = new ReportService();
-    private final SettingsDao settingsDao = new SettingsDao();
+    private final SettingsStore settings = SettingsStore.getInstance();
     private final LogDao logDao = new LogDao();
     private final ProductDao productDao = new ProductDao();
     private final UserDao userDao = new UserDao();
 
-    private ScheduledExecutorService refreshScheduler;
+    private final DbExecutor db = DbExecutor.getInstance();
+
+    private ScheduledFuture<?> refreshTask;
+    private boolean loading;
+    private Runnable refreshSettingSubscription;
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("Dashboard", userLabel);
         // Require login for all dashboard views
         if (!AuthGuard.isLoggedIn()) {
             navigateToLoginInternal();
@@ -116,8 +122,15 @@ public class DashboardController {
             if (generateReportButton != null) {
                 generateReportButton.setVisible(isAdmin);
             }
+            // Query statistics only for Admin
+            if (diagnosticsButton != null) {
+                diagnosticsButton.setVisible(isAdmin);
+            }
         }
 
+        // Create the print WebView once the dashboard is up so the first print is quick
+        javafx.application.Platform.runLater(() -> ReportPrinter.getInstance().warmUp());
+
         // Setup table columns
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("date"));
         actionColumn.setCellValueFactory(new PropertyValueFactory<>("action"));
@@ -129,62 +142,89 @@ public class DashboardController {
         loadDashboardData();
 
         // Check for overdue checkouts and create alerts
-        alertService.checkForOverdueCheckouts();
+        db.run(alertService::checkForOverdueCheckouts);
 
         // Start auto-refresh if enabled
-        int refreshSeconds = settingsDao.getInt("dashboard_refresh_seconds", 15);
+        int refreshSeconds = settings.getInt("dashboard_refresh_seconds", 15);
         if (refreshSeconds > 0) {
             startAutoRefresh(refreshSeconds);
         }
+        // Follow refresh interval changes while the dashboard is open
+        refreshSettingSubscription = settings.addListener("dashboard_refresh_seconds", value ->
+            javafx.application.Platform.runLater(() -> {
+                if (refreshSettingSubscription == null) return;
+                stopRefreshTimer();
+                int seconds = settings.getInt("dashboard_refresh_seconds", 15);
+                if (seconds > 0) {
+                    startAutoRefresh(seconds);
+                }
+            }));
     }
 
     private void loadDashboardData() {
-        try {
-            // Load statistics
-            int totalProducts = productDao.findAll().size();
-            totalProductsLabel.setText(String.valueOf(totalProducts));
-
-            int todayCheckIns = logDao.countTodayCheckIns();
-            incomingProductsLabel.setText(String.valueOf(todayCheckIns));
-
-            int todayCheckOuts = logDao.countTodayCheckOuts();
-            outgoingProductsLabel.setText(String.valueOf(todayCheckOuts));
-
-            int unresolvedAlerts = alertService.getUnresolvedAlertCount();
-            alertsLabel.setText(String.valueOf(unresolvedAlerts));
-
-            // Load recent logs
-            ObservableList<LogTableRow> logRows = FXCollections.observableArrayList();
-            var recentLogs = productService.getRecentLogs(50);
-            
-            for (ProductLog log : recentLogs) {
-                // Get product name
-                String productName = productDao.findById(log.productId())
-                    .map(Product::name)
-                    .orElse("Product ID: " + log.productId());
-
-                // Get user name
-                String userName = getUsernameById(log.userId());
-
-                logRows.add(new LogTableRow(
-                    String.valueOf(log.timestamp()),
-                    log.actionType(),
-                    productName,
-                    log.quantity(),
-                    userName
-                ));
-            }
+        // The counts and recent logs don't depend on each other; fetch them side by side, then the
+        // product and user names for the logs
+        if (loading) return;
+        loading = true;
+        QueryScope scope = QueryScope.openDetached("Dashboard.refresh", 7);
+        CompletableFuture<Integer> totalProducts = db.supply(scope, productDao::count);
+        CompletableFuture<Integer> todayCheckIns = db.supply(scope, logDao::countTodayCheckIns);
+        CompletableFuture<Integer> todayCheckOuts = db.supply(scope, logDao::countTodayCheckOuts);
+        CompletableFuture<Integer> unresolvedAlerts = db.supply(scope, alertService::getUnresolvedAlertCount);
+        CompletableFuture<List<ProductLog>> recentLogs = db.supply(scope, () -> productService.getRecentLogs(50));
+        // Names for all rows in one query each rather than two per row
+        CompletableFuture<Map<Integer, String>> productNames = recentLogs.thenCompose(logs -> db.supply(scope,
+            () -> productService.getProductNames(logs.stream().map(ProductLog::productId).toList())));
+        CompletableFuture<Map<Integer, String>> userNames = recentLogs.thenCompose(logs -> db.supply(scope,
+            () -> userDao.findUsernamesByIds(logs.stream().map(ProductLog::userId).toList())));
+
+        CompletableFuture.allOf(totalProducts, todayCheckIns, todayCheckOuts, unresolvedAlerts, productNames, userNames)
+            .whenComplete((v, error) -> javafx.application.Platform.runLater(() -> {
+                loading = false;
+                Throwable failure = error;
+                try {
+                    scope.close();
+                } catch (IllegalStateException e) {
+                    if (failure == null) failure = e;
+                }
+                if (failure != null) {
+                    showLoadError(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+                    return;
+                }
 
-            logsTable.setItems(logRows);
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Show error message
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Failed to load dashboard data");
-            alert.setContentText(e.getMessage());
-            alert.showAndWait();
-        }
+                totalProductsLabel.setText(String.valueOf(totalProducts.join()));
+                incomingProductsLabel.setText(String.valueOf(todayCheckIns.join()));
+                outgoingProductsLabel.setText(String.valueOf(todayCheckOuts.join()));
+                alertsLabel.setText(String.valueOf(unresolvedAlerts.join()));
+
+                ObservableList<LogTableRow> logRows = FXCollections.observableArrayList();
+                Map<Integer, String> products = productNames.join();
+                Map<Integer, String> users = userNames.join();
+                for (ProductLog log : recentLogs.join()) {
+                    String productName = products.getOrDefault(log.productId(), "Product ID: " + log.productId());
+                    String userName = users.getOrDefault(log.userId(), "User ID: " + log.userId());
+
+                    logRows.add(new LogTableRow(
+                        String.valueOf(log.timestamp()),
+                        log.actionType(),
+                        productName,
+                        log.quantity(),
+                        userName
+                    ));
+                }
+                logsTable.setItems(logRows);
+            }));
+    }
+
+    private void showLoadError(Throwable e) {
+        e.printStackTrace();
+        // Show error message
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText("Failed to load dashboard data");
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
     }
 
     private void navigateToLoginInternal() {
@@ -223,56 +263,28 @@ public class DashboardController {
 
     @FXML
     private void onPrintReportClick(ActionEvent event) {
-        try {
-            String html = reportService.buildHtmlForDate(java.time.LocalDate.now());
-            WebView webView = new WebView();
-            webView.setContextMenuEnabled(false);
-            WebEngine engine = webView.getEngine();
-            engine.loadContent(html, "text/html");
-            engine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
-                if (newState == Worker.State.SUCCEEDED) {
-                    try {
-                        Object h = engine.executeScript("document.body.scrollHeight");
-                        double height = 800;
-                        if (h instanceof Number n) {
-                            height = n.doubleValue();
-                        }
-                        webView.setPrefWidth(800);
-                        webView.setPrefHeight(height + 20);
-                        PrinterJob job = PrinterJob.createPrinterJob();
-                        if (job != null) {
-                            try {
-                                Printer printer = job.getPrinter() != null ? job.getPrinter() : Printer.getDefaultPrinter();
-                                if (printer != null) {
-                                    PageLayout layout = printer.createPageLayout(Paper.A4, PageOrientation.LANDSCAPE, 10, 10, 10, 10);
-                                    job.getJobSettings().setPageLayout(layout);
-                                }
-                            } catch (Exception ignored) {}
-                            boolean accepted = job.showPrintDialog(printReportButton.getScene().getWindow());
-                            if (accepted) {
-                                boolean printed = job.printPage(webView);
-                                if (printed) job.endJob();
-                            }
-                        }
-                    } catch (Exception ex) {
-                        ex.printStackTrace();
-                    }
-                }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert error = new Alert(Alert.AlertType.ERROR);
-            error.setTitle("Print Error");
-            error.setHeaderText("Failed to print report");
-            error.setContentText(e.getMessage());
-            error.showAndWait();
-        }
+        ReportPrinter printer = ReportPrinter.getInstance();
+        if (printer.isBusy()) return;
+        printReportButton.setDisable(true);
+        printer.print(
+            java.time.LocalDate.now(),
+            printReportButton.getScene().getWindow(),
+            () -> printReportButton.setDisable(false),
+            e -> {
+                e.printStackTrace();
+                Alert error = new Alert(Alert.AlertType.ERROR);
+                error.setTitle("Print Error");
+                error.setHeaderText("Failed to print report");
+                error.setContentText(e.getMessage());
+                error.showAndWait();
+            }
+        );
     }
 
-    private String getUsernameById(int userId) {
-        return userDao.findById(userId)
-            .map(User::username)
-            .orElse("User ID: " + userId);
+    @FXML
+    private void onDiagnosticsClick(ActionEvent event) {
+        if (!AuthGuard.hasRole("ADMIN")) return;
+        DiagnosticsWindow.getInstance().show(diagnosticsButton.getScene().getWindow());
     }
 
     @FXML
@@ -407,22 +419,23 @@ public class DashboardController {
     }
 
     private void startAutoRefresh(int intervalSeconds) {
-        refreshScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "dashboard-refresh");
-            t.setDaemon(true);
-            return t;
-        });
-        refreshScheduler.scheduleAtFixedRate(() -> {
-            try {
-                javafx.application.Platform.runLater(this::loadDashboardData);
-            } catch (Exception ignored) {}
-        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        refreshTask = db.scheduleAtFixedRate("dashboard-refresh",
+            () -> javafx.application.Platform.runLater(this::loadDashboardData),
+            intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
     }
 
     private void shutdownAutoRefresh() {
-        if (refreshScheduler != null) {
-            refreshScheduler.shutdownNow();
-            refreshScheduler = null;
+        if (refreshSettingSubscription != null) {
+            refreshSettingSubscription.run();
+            refreshSettingSubscription = null;
+        }
+        stopRefreshTimer();
+    }
+
+    private void stopRefreshTimer() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
         }
     }
 }
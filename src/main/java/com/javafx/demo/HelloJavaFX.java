@@ -1,11 +1,22 @@
 package com.javafx.demo;
 
+import com.javafx.demo.app.Bootstrap;
+import com.javafx.demo.app.ProductSearchIndex;
+import com.javafx.demo.app.SettingsStore;
 import com.javafx.demo.db.Database;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.export.LogCsvExportService;
+import com.javafx.demo.jobs.JobEngine;
+import com.javafx.demo.jobs.ScheduledJob;
+import com.javafx.demo.metrics.FxStallDetector;
+import com.javafx.demo.metrics.MetricsServer;
+import com.javafx.demo.metrics.SchedulerStats;
+import com.javafx.demo.metrics.jfr.FlightRecording;
 import com.javafx.demo.security.AuthService;
 import com.javafx.demo.service.ProductService;
 import com.javafx.demo.service.AlertService;
+import com.javafx.demo.service.ReportArchiveService;
 import com.javafx.demo.service.ReportService;
-import com.javafx.demo.dao.SettingsDao;
 import com.javafx.demo.dao.LocationDao;
 import com.javafx.demo.dao.ProductStockDao;
 import javafx.application.Application;
@@ -13,49 +24,40 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.time.Duration;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.logging.Logger;
 
 public class HelloJavaFX extends Application {
-    
-    private ScheduledExecutorService scheduler;
-    private int schedulerIntervalMinutes = 1;
-    private final SettingsDao settingsDao = new SettingsDao();
-    private ScheduledExecutorService reportScheduler;
+    private static final Logger LOG = Logger.getLogger(HelloJavaFX.class.getName());
+
+    private ScheduledFuture<?> alertTask;
+    private boolean alertsStopped;
+    private final SettingsStore settings = SettingsStore.getInstance();
+    private volatile JobEngine jobEngine;
 
     @Override
     public void start(Stage stage) throws Exception {
-        // Bootstrap database and seed admin account
-        Database.migrateIfNeeded();
-        new AuthService().seedAdminIfMissing();
-        new ProductService().seedSampleProductsIfEmpty();
-        // Ensure locations and initial stock
-        new LocationDao().ensureDefaults();
-        boolean backfillEnabled = !"0".equals(settingsDao.get("stock_backfill_enabled"));
-        if (backfillEnabled) {
-            new ProductStockDao().backfillFromProductsIfEmpty();
-        }
-        // One-time repair: reset and backfill from products.location if requested (default: once)
-        String force = settingsDao.get("stock_backfill_force");
-        if (force == null || "1".equals(force)) {
-            new ProductStockDao().resetAndBackfillFromProducts();
-            settingsDao.set("stock_backfill_force", "0");
-        }
-        // Repair: ensure any newly created products without stock rows are populated once per start
-        new ProductStockDao().ensureMissingFromProducts();
-
-        // Read settings
-        schedulerIntervalMinutes = settingsDao.getInt("scheduler_interval_minutes", 1);
-
-        // Start background scheduler for overdue checks
-        startAlertScheduler();
-        // Start daily report scheduler
-        startReportScheduler();
+        // Independent steps run concurrently; the login window waits only for what it needs
+        Bootstrap.getInstance()
+            .step("migrate", Database::migrateIfNeeded)
+            .step("seed_admin", () -> new AuthService().seedAdminIfMissing(), "migrate")
+            // Ensure locations and initial stock
+            .once("location_defaults", () -> new LocationDao().ensureDefaults(), "migrate")
+            .once("seed_sample_products", () -> new ProductService().seedSampleProductsIfEmpty(), "location_defaults")
+            .step("stock_backfill", this::backfillStock, "seed_sample_products")
+            // Repair: ensure any newly created products without stock rows are populated once per start
+            .step("stock_repair", () -> new ProductStockDao().ensureMissingFromProducts(progress("stock repair")),
+                "stock_backfill")
+            // Build the product search index before the first picker opens
+            .step("search_index", () -> ProductSearchIndex.getInstance().reload(), "seed_sample_products")
+            .step("schedulers", this::startSchedulers, "migrate")
+            // Continuous flight recording that admins can save from the Diagnostics window
+            .step("flight_recorder", this::startFlightRecording)
+            // Prometheus endpoint for fleet monitoring, only with -Dmetrics.port
+            .step("metrics_server", () -> MetricsServer.getInstance().startIfConfigured())
+            .start();
+        FxStallDetector.getInstance().start();
 
         FXMLLoader loader = new FXMLLoader(
             getClass().getResource("/com/javafx/demo/login-view.fxml")
@@ -75,56 +77,97 @@ public class HelloJavaFX extends Application {
         launch(args);
     }
 
+    private void startFlightRecording() {
+        if (!"false".equals(System.getProperty("factory.jfr"))) {
+            FlightRecording.getInstance().start();
+        }
+    }
+
+    private void backfillStock() {
+        boolean backfillEnabled = !"0".equals(settings.get("stock_backfill_enabled"));
+        if (backfillEnabled) {
+            new ProductStockDao().backfillFromProductsIfEmpty(progress("stock backfill"));
+        }
+        // One-time repair: reset and backfill from products.location if requested (default: once)
+        String force = settings.get("stock_backfill_force");
+        if (force == null || "1".equals(force)) {
+            new ProductStockDao().resetAndBackfillFromProducts(progress("stock reset"));
+            settings.set("stock_backfill_force", "0");
+        }
+    }
+
+    private static ProductStockDao.ProgressListener progress(String task) {
+        return (done, total) -> LOG.fine(() -> String.format("%s: %d/%d product ids", task, done, total));
+    }
+
+    private void startSchedulers() {
+        // Pick up settings changed on other terminals
+        settings.startPolling();
+        // Start background scheduler for overdue checks
+        startAlertScheduler();
+        // Start the job engine for daily reports and compaction
+        startJobEngine();
+    }
+
     private void startAlertScheduler() {
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "alert-scheduler");
-            t.setDaemon(true);
-            return t;
-        });
-        scheduler.scheduleAtFixedRate(() -> {
+        scheduleAlertCheck(settings.getInt("scheduler_interval_minutes", 1), 0);
+        // Apply a new interval from the next check on, without a restart
+        settings.addListener("scheduler_interval_minutes", value ->
+            scheduleAlertCheck(settings.getInt("scheduler_interval_minutes", 1), -1));
+    }
+
+    /**
+     * @param initialDelayMinutes delay before the first check, or -1 to use the interval
+     */
+    private synchronized void scheduleAlertCheck(int intervalMinutes, long initialDelayMinutes) {
+        if (alertsStopped) return;
+        int interval = Math.max(1, intervalMinutes);
+        if (alertTask != null) {
+            alertTask.cancel(false);
+        }
+        long initialDelay = initialDelayMinutes < 0 ? interval : initialDelayMinutes;
+        Runnable check = () -> {
             try {
                 // Read overdue hours dynamically each run; default from PRD is 2
-                int overdueHours = settingsDao.getInt("overdue_hours", 2);
+                int overdueHours = settings.getInt("overdue_hours", 2);
                 new AlertService().checkForOverdueCheckouts(overdueHours);
             } catch (Exception ignored) {
                 // Best-effort background task
             }
-        }, 0, schedulerIntervalMinutes, TimeUnit.MINUTES);
+        };
+        // The check runs on a virtual thread; a tick is skipped while the previous check still runs
+        alertTask = DbExecutor.getInstance().scheduleAtFixedRate("alert-scheduler",
+            SchedulerStats.getInstance().fixedRate("alert-scheduler", initialDelay, interval, TimeUnit.MINUTES, check),
+            initialDelay, interval, TimeUnit.MINUTES);
     }
 
     private void shutdownScheduler() {
-        if (scheduler != null) {
-            scheduler.shutdownNow();
+        synchronized (this) {
+            alertsStopped = true;
+            if (alertTask != null) alertTask.cancel(true);
         }
-        if (reportScheduler != null) {
-            reportScheduler.shutdownNow();
+        if (jobEngine != null) {
+            jobEngine.shutdown();
         }
+        settings.stopPolling();
+        FxStallDetector.getInstance().stop();
+        MetricsServer.getInstance().stop();
     }
 
-    private void startReportScheduler() {
-        reportScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "report-scheduler");
-            t.setDaemon(true);
-            return t;
-        });
-        String timeStr = settingsDao.get("report_time");
-        if (timeStr == null || !timeStr.matches("^\\d{2}:\\d{2}$")) {
-            timeStr = "23:55";
-        }
-        String[] parts = timeStr.split(":");
-        LocalTime reportTime = LocalTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
-        Runnable task = () -> {
-            try {
-                new ReportService().generateCsvReportForDate(LocalDate.now());
-            } catch (Exception ignored) {}
-        };
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextRun = LocalDateTime.of(now.toLocalDate(), reportTime);
-        if (now.isAfter(nextRun)) {
-            nextRun = nextRun.plusDays(1);
+    private void startJobEngine() {
+        String reportTime = settings.get("report_time");
+        if (reportTime == null || !reportTime.matches("^\\d{2}:\\d{2}$")) {
+            reportTime = "23:55";
         }
-        long initialDelaySeconds = Duration.between(now, nextRun).getSeconds();
-        long periodSeconds = TimeUnit.DAYS.toSeconds(1);
-        reportScheduler.scheduleAtFixedRate(task, initialDelaySeconds, periodSeconds, TimeUnit.SECONDS);
+        jobEngine = new JobEngine()
+            .register(new ScheduledJob("daily_report", reportTime,
+                slot -> new ReportService().generateCsvReportForDate(slot.toLocalDate())))
+            // Roll older daily reports into monthly bundles and prune expired ones
+            .register(new ScheduledJob("report_archive", "00:30",
+                slot -> new ReportArchiveService().archiveAndApplyRetention()))
+            // Append the previous day's logs to the CSV history export
+            .register(new ScheduledJob("log_export", "01:00",
+                slot -> new LogCsvExportService().exportNewRows()));
+        jobEngine.start();
     }
 }
@@ -1,8 +1,10 @@
 package com.javafx.demo;
 
+import com.javafx.demo.app.Bootstrap;
 import com.javafx.demo.app.Session;
 import com.javafx.demo.model.User;
 import com.javafx.demo.security.AuthService;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -23,10 +25,32 @@ public class LoginController {
     @FXML
     private Label errorLabel;
 
+    private static final String LOGIN_READY_STEP = "seed_admin";
+
     private final AuthService authService = new AuthService();
 
     @FXML
     private void onLogin(ActionEvent event) {
+        // The window is shown while startup continues; logging in needs the schema and roles
+        Bootstrap bootstrap = Bootstrap.getInstance();
+        if (!bootstrap.isDone(LOGIN_READY_STEP)) {
+            Node source = (Node) event.getSource();
+            source.setDisable(true);
+            errorLabel.setText("Starting up, please wait...");
+            bootstrap.whenDone(LOGIN_READY_STEP).whenComplete((v, e) -> Platform.runLater(() -> {
+                source.setDisable(false);
+                if (e != null) {
+                    Throwable root = e;
+                    while (root.getCause() != null) root = root.getCause();
+                    errorLabel.setText("Startup failed: " + root.getMessage());
+                    return;
+                }
+                errorLabel.setText("");
+                onLogin(event);
+            }));
+            return;
+        }
+
         String username = usernameField.getText();
         String password = passwordField.getText();
         User user = authService.login(username, password);
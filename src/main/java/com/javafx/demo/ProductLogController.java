@@ -1,14 +1,23 @@
 package com.javafx.demo;
 
+import com.javafx.demo.app.LocationDictionary;
 import com.javafx.demo.app.Session;
-import com.javafx.demo.model.Product;
+import com.javafx.demo.app.StockMatrix;
+import com.javafx.demo.db.CancelToken;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.QueryScope;
 import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.model.ProductSummary;
 import com.javafx.demo.model.User;
 import com.javafx.demo.service.ProductService;
 import com.javafx.demo.service.InventoryService;
 import com.javafx.demo.dao.LocationDao;
-import com.javafx.demo.dao.ProductStockDao;
 import com.javafx.demo.security.AuthGuard;
+import com.javafx.demo.ui.ProductPages;
+import com.javafx.demo.ui.ProductTypeahead;
+import com.javafx.demo.ui.ReloadCoordinator;
+import com.javafx.demo.ui.ScreenLoads;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -21,13 +30,15 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 public class ProductLogController {
 
     @FXML
     private Label userLabel;
     @FXML
-    private ComboBox<Product> productComboBox;
+    private ComboBox<ProductSummary> productComboBox;
     @FXML
     private RadioButton checkOutRadio;
     @FXML
@@ -73,7 +84,7 @@ public class ProductLogController {
     private Button productsButton;
     // Filters
     @FXML
-    private ComboBox<Product> filterProductCombo;
+    private ComboBox<ProductSummary> filterProductCombo;
     @FXML
     private ComboBox<String> filterActionCombo;
     @FXML
@@ -85,13 +96,24 @@ public class ProductLogController {
 
     private final ProductService productService = new ProductService();
     private final InventoryService inventoryService = new InventoryService();
-    private final LocationDao locationDao = new LocationDao();
-    private final ProductStockDao productStockDao = new ProductStockDao();
+    private final LocationDictionary locations = LocationDictionary.getInstance();
+    private static final long STOCK_MAX_AGE_MILLIS = 30_000;
+    private final StockMatrix stockMatrix = StockMatrix.getInstance();
+    private final DbExecutor db = DbExecutor.getInstance();
+    // Product the per-location table is showing, so a late refresh does not overwrite another one
+    private int perLocationProductId;
+    private boolean stockRefreshing;
     // Avoid explicit DateTimeFormatter to prevent runtime resolution issues
     private static final int PAGE_SIZE = 20;
+    private final ReloadCoordinator<LogQuery, LogsView> reloads =
+        new ReloadCoordinator<>(this::fetchLogs, this::showLogs, this::showLoadError)
+            .prefetching(this::adjacentPages);
+    private ProductTypeahead productTypeahead;
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("Product Log", userLabel);
+        reloads.shutdownWhenRemoved(userLabel);
         // Require Admin or Staff
         if (!AuthGuard.isLoggedIn()) {
             navigateToLoginInternal();
@@ -158,7 +180,7 @@ public class ProductLogController {
 
         // Load locations for check-in/out
         if (locationComboBox != null) {
-            var locs = FXCollections.observableArrayList(locationDao.findAll());
+            var locs = FXCollections.observableArrayList(locations.all());
             locationComboBox.setItems(locs);
             if (!locs.isEmpty()) {
                 locationComboBox.getSelectionModel().select(0);
@@ -181,37 +203,34 @@ public class ProductLogController {
         // Update per-location table when product changes
         if (productComboBox != null) {
             productComboBox.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> {
-                if (n != null) loadPerLocationStock(n.id());
+                boolean picked = n != null && n != ProductPages.LOADING_SUMMARY;
+                if (picked) loadPerLocationStock(n.id());
+                // The editable combo shows its editor, not a button cell, so the picked product's
+                // quantity moved to a tooltip
+                productComboBox.setTooltip(picked ? new Tooltip(quantityText(n)) : null);
             });
         }
     }
 
     private void loadProducts() {
         try {
-            var products = productService.getAllProducts();
-            ObservableList<Product> productList = FXCollections.observableArrayList(products);
-            
-            // Create a custom string converter for ComboBox
-            productComboBox.setItems(productList);
-            productComboBox.setCellFactory(listView -> new ListCell<Product>() {
+            if (productTypeahead != null) {
+                productTypeahead.refresh();
+                return;
+            }
+            // Editable with typeahead; the drop-down pages through the catalog when the text is empty
+            productTypeahead = ProductTypeahead.install(productComboBox);
+            productComboBox.setPromptText("Select a product");
+            productComboBox.setCellFactory(listView -> new ListCell<ProductSummary>() {
                 @Override
-                protected void updateItem(Product product, boolean empty) {
+                protected void updateItem(ProductSummary product, boolean empty) {
                     super.updateItem(product, empty);
                     if (empty || product == null) {
                         setText(null);
+                    } else if (product == ProductPages.LOADING_SUMMARY) {
+                        setText(product.name());
                     } else {
-                        setText(product.name() + " (Qty: " + product.quantity() + " " + product.unit() + ")");
-                    }
-                }
-            });
-            productComboBox.setButtonCell(new ListCell<Product>() {
-                @Override
-                protected void updateItem(Product product, boolean empty) {
-                    super.updateItem(product, empty);
-                    if (empty || product == null) {
-                        setText("Select a product");
-                    } else {
-                        setText(product.name() + " (Qty: " + product.quantity() + " " + product.unit() + ")");
+                        setText(product.name() + " (" + quantityText(product) + ")");
                     }
                 }
             });
@@ -221,70 +240,115 @@ public class ProductLogController {
         }
     }
 
+    private static String quantityText(ProductSummary product) {
+        return "Qty: " + product.quantity() + " " + product.unit();
+    }
+
+    /** Filters and page shown in the table; the reload coordinator's cache key. */
+    private record LogQuery(Integer productId, String action, LocalDate from, LocalDate to, int page) {
+        LogQuery withPage(int p) {
+            return new LogQuery(productId, action, from, to, p);
+        }
+    }
+
+    private record LogsView(List<LogTableRow> rows, int total) {}
+
+    private LogQuery currentQuery(int pageIndex) {
+        Integer productId = null;
+        ProductSummary fp = filterProductCombo != null ? filterProductCombo.getSelectionModel().getSelectedItem() : null;
+        if (fp != null) productId = fp.id();
+        String action = filterActionCombo != null ? filterActionCombo.getSelectionModel().getSelectedItem() : "ALL";
+        var from = filterFromDate != null ? filterFromDate.getValue() : null;
+        var to = filterToDate != null ? filterToDate.getValue() : null;
+
+        // Validate date range
+        if (to != null && to.isAfter(LocalDate.now())) {
+            to = LocalDate.now();
+            filterToDate.setValue(to);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            messageLabel.setTextFill(javafx.scene.paint.Color.RED);
+            messageLabel.setText("From date must be before To date");
+            logsTable.getItems().clear();
+            return null;
+        }
+        return new LogQuery(productId, action, from, to, pageIndex);
+    }
+
     private void loadRecentLogs(int pageIndex) {
-        try {
-            ObservableList<LogTableRow> logRows = FXCollections.observableArrayList();
-            int offset = pageIndex * PAGE_SIZE;
-            Integer productId = null;
-            Product fp = filterProductCombo != null ? filterProductCombo.getSelectionModel().getSelectedItem() : null;
-            if (fp != null) productId = fp.id();
-            String action = filterActionCombo != null ? filterActionCombo.getSelectionModel().getSelectedItem() : "ALL";
-            var from = filterFromDate != null ? filterFromDate.getValue() : null;
-            var to = filterToDate != null ? filterToDate.getValue() : null;
-
-            // Validate date range
-            if (to != null && to.isAfter(LocalDate.now())) {
-                to = LocalDate.now();
-                filterToDate.setValue(to);
-            }
-            if (from != null && to != null && from.isAfter(to)) {
-                messageLabel.setTextFill(javafx.scene.paint.Color.RED);
-                messageLabel.setText("From date must be before To date");
-                logsTable.getItems().clear();
-                return;
-            }
+        LogQuery query = currentQuery(pageIndex);
+        if (query != null) reloads.request(query);
+    }
 
-            var filteredLogs = productService.getLogsFiltered(productId, null, action, from, to, PAGE_SIZE, offset);
-            int total = productService.countLogsFiltered(productId, null, action, from, to);
-            int pageCount = Math.max(1, (int) Math.ceil(total / (double) PAGE_SIZE));
-            if (pagination != null) pagination.setPageCount(pageCount);
+    /**
+     * Runs on a background thread: one query for the page and one for its product names, plus the
+     * total for the first page loaded with these filters; later pages reuse it.
+     */
+    private LogsView fetchLogs(LogQuery q, CancelToken token) {
+        return QueryScope.call("ProductLog.page", 3, () -> fetchLogsPage(q, token));
+    }
 
-            User currentUser = Session.getInstance().getCurrentUser();
-            int currentUserId = currentUser != null ? currentUser.id() : 0;
-
-            for (ProductLog log : filteredLogs) {
-                String productName = productService.getProductById(log.productId())
-                    .map(Product::name)
-                    .orElse("Product ID: " + log.productId());
-
-                String userName = currentUserId == log.userId() 
-                    ? (currentUser != null ? currentUser.username() : "User " + log.userId())
-                    : "User " + log.userId();
-
-                logRows.add(new LogTableRow(
-                    String.valueOf(log.timestamp()),
-                    log.actionType(),
-                    productName,
-                    log.quantity(),
-                    userName,
-                    log.notes() != null ? log.notes() : ""
-                ));
-            }
+    private LogsView fetchLogsPage(LogQuery q, CancelToken token) {
+        int total = reloads.memo(q.withPage(0),
+            () -> productService.countLogsFiltered(q.productId(), null, q.action(), q.from(), q.to()));
+        if (token.isCancelled()) return new LogsView(List.of(), total);
+        List<ProductLog> logs = productService.getLogsFiltered(
+            q.productId(), null, q.action(), q.from(), q.to(), PAGE_SIZE, q.page() * PAGE_SIZE, token);
+        if (token.isCancelled()) return new LogsView(List.of(), total);
+        Map<Integer, String> productNames = productService.getProductNames(
+            logs.stream().map(ProductLog::productId).toList());
+
+        User currentUser = Session.getInstance().getCurrentUser();
+        int currentUserId = currentUser != null ? currentUser.id() : 0;
+
+        List<LogTableRow> logRows = new java.util.ArrayList<>();
+        for (ProductLog log : logs) {
+            String productName = productNames.getOrDefault(log.productId(), "Product ID: " + log.productId());
+
+            String userName = currentUserId == log.userId() 
+                ? (currentUser != null ? currentUser.username() : "User " + log.userId())
+                : "User " + log.userId();
+
+            logRows.add(new LogTableRow(
+                String.valueOf(log.timestamp()),
+                log.actionType(),
+                productName,
+                log.quantity(),
+                userName,
+                log.notes() != null ? log.notes() : ""
+            ));
+        }
+        return new LogsView(logRows, total);
+    }
 
-            logsTable.getSelectionModel().clearSelection();
-            logsTable.setItems(logRows);
-            if (logRows.isEmpty()) {
-                messageLabel.setTextFill(javafx.scene.paint.Color.GRAY);
-                messageLabel.setText("No results for the selected filters");
-            } else {
-                messageLabel.setText("");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading logs: " + e.getMessage());
+    private void showLogs(LogsView view) {
+        int pageCount = Math.max(1, (int) Math.ceil(view.total() / (double) PAGE_SIZE));
+        if (pagination != null) pagination.setPageCount(pageCount);
+
+        logsTable.getSelectionModel().clearSelection();
+        logsTable.setItems(FXCollections.observableArrayList(view.rows()));
+        if (view.rows().isEmpty()) {
+            messageLabel.setTextFill(javafx.scene.paint.Color.GRAY);
+            messageLabel.setText("No results for the selected filters");
+        } else {
+            messageLabel.setText("");
         }
     }
 
+    private void showLoadError(Throwable e) {
+        e.printStackTrace();
+        messageLabel.setText("Error loading logs: " + e.getMessage());
+    }
+
+    // Neighbouring pages are loaded ahead so paging through them needs no query
+    private List<LogQuery> adjacentPages(LogQuery q, LogsView view) {
+        int pageCount = Math.max(1, (int) Math.ceil(view.total() / (double) PAGE_SIZE));
+        List<LogQuery> pages = new java.util.ArrayList<>(2);
+        if (q.page() + 1 < pageCount) pages.add(q.withPage(q.page() + 1));
+        if (q.page() > 0) pages.add(q.withPage(q.page() - 1));
+        return pages;
+    }
+
     private void setupPagination() {
         if (pagination != null) {
             pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) -> {
@@ -299,23 +363,16 @@ public class ProductLogController {
 
     private void loadFilterProducts() {
         try {
-            var products = productService.getAllProducts();
-            ObservableList<Product> productList = FXCollections.observableArrayList(products);
-            filterProductCombo.setItems(productList);
-            filterProductCombo.setCellFactory(listView -> new ListCell<Product>() {
+            // Editable with typeahead; the drop-down pages through the catalog when the text is empty
+            ProductTypeahead.install(filterProductCombo);
+            filterProductCombo.setPromptText("All products");
+            filterProductCombo.setCellFactory(listView -> new ListCell<ProductSummary>() {
                 @Override
-                protected void updateItem(Product product, boolean empty) {
+                protected void updateItem(ProductSummary product, boolean empty) {
                     super.updateItem(product, empty);
                     setText(empty || product == null ? null : product.name());
                 }
             });
-            filterProductCombo.setButtonCell(new ListCell<Product>() {
-                @Override
-                protected void updateItem(Product product, boolean empty) {
-                    super.updateItem(product, empty);
-                    setText(empty || product == null ? "All products" : product.name());
-                }
-            });
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -353,7 +410,7 @@ public class ProductLogController {
     private void onSubmitClick(ActionEvent event) {
         try {
             // Validate inputs
-            Product selectedProduct = productComboBox.getSelectionModel().getSelectedItem();
+            ProductSummary selectedProduct = productComboBox.getSelectionModel().getSelectedItem();
             if (selectedProduct == null) {
                 messageLabel.setText("Please select a product");
                 return;
@@ -405,8 +462,9 @@ public class ProductLogController {
             // Clear form
             onClearClick(null);
 
-            // Reload products and logs
+            // Reload products and logs; cached log pages no longer include this entry
             loadProducts();
+            reloads.invalidate();
             onApplyFilters(null);
             loadPerLocationStock(selectedProduct.id());
 
@@ -571,13 +629,37 @@ public class ProductLogController {
 
     private void loadPerLocationStock(int productId) {
         if (perLocationTable == null) return;
+        perLocationProductId = productId;
+        // Show what the matrix has now; a stale matrix is refreshed off the FX thread and shown again
+        if (stockMatrix.isLoaded()) {
+            showPerLocationStock(productId);
+        } else {
+            perLocationTable.setItems(FXCollections.observableArrayList());
+        }
+        if (stockRefreshing || !stockMatrix.isOlderThan(STOCK_MAX_AGE_MILLIS)) return;
+        stockRefreshing = true;
+        // Pick up stock changes made on other terminals
+        db.run(() -> stockMatrix.refreshIfOlderThan(STOCK_MAX_AGE_MILLIS))
+            .whenComplete((v, error) -> Platform.runLater(() -> {
+                stockRefreshing = false;
+                if (error != null) {
+                    error.printStackTrace();
+                    return;
+                }
+                // Whichever product was picked last while the refresh ran
+                showPerLocationStock(perLocationProductId);
+            }));
+    }
+
+    private void showPerLocationStock(int productId) {
         var rows = FXCollections.<PerLocRow>observableArrayList();
-        for (var ls : productStockDao.findByProduct(productId)) {
-            rows.add(new PerLocRow(ls.locationName(), ls.quantity()));
+        for (var cell : stockMatrix.forProduct(productId)) {
+            String name = locations.findById(cell.locationId()).map(LocationDao.Location::name).orElse("");
+            rows.add(new PerLocRow(name, cell.quantity()));
         }
+        rows.sort(java.util.Comparator.comparing(PerLocRow::getLocationName, String.CASE_INSENSITIVE_ORDER));
         perLocationTable.getSelectionModel().clearSelection();
         perLocationTable.setItems(rows);
-        // rows already exclude zero-qty via DAO filter
+        // the matrix only reports non-zero quantities
     }
 }
-
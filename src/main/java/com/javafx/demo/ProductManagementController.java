@@ -1,13 +1,15 @@
 package com.javafx.demo;
 
 import com.javafx.demo.app.Session;
-import com.javafx.demo.dao.ProductDao;
-import com.javafx.demo.dao.ProductStockDao;
+import com.javafx.demo.dao.ProductStockDao.StockQuery;
+import com.javafx.demo.dao.ProductStockDao.StockRow;
+import com.javafx.demo.dao.ProductStockDao.StockSort;
 import com.javafx.demo.model.Product;
 import com.javafx.demo.model.User;
 import com.javafx.demo.service.ProductService;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.javafx.demo.ui.LazyPagedList;
+import com.javafx.demo.ui.ProductPages;
+import com.javafx.demo.ui.ScreenLoads;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -59,11 +61,11 @@ public class ProductManagementController {
     private Label messageLabel;
 
     private final ProductService productService = new ProductService();
-    private final ProductDao productDao = new ProductDao();
-    private final ProductStockDao productStockDao = new ProductStockDao();
+    private LazyPagedList<ProductRow> rows;
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("Products", userLabel);
         User current = Session.getInstance().getCurrentUser();
         if (current != null) {
             userLabel.setText("Logged in as: " + current.username() + " (" + current.roleName() + ")");
@@ -89,13 +91,18 @@ public class ProductManagementController {
         locationColumn.setCellValueFactory(new PropertyValueFactory<>("location"));
         unitColumn.setCellValueFactory(new PropertyValueFactory<>("unit"));
 
-        loadProducts();
+        // Rows are read a page at a time as the table scrolls, sorted by the database
+        ProductPages.serverSort(productsTable,
+            java.util.Map.of(nameColumn, StockSort.PRODUCT, locationColumn, StockSort.LOCATION, quantityColumn, StockSort.QUANTITY),
+            StockSort.PRODUCT, this::showProducts);
+        showProducts(StockSort.PRODUCT, false);
 
         // Populate form on selection
         productsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldRow, newRow) -> {
-            if (newRow != null) {
+            if (newRow != null && !rows.isPlaceholder(newRow)) {
                 nameField.setText(newRow.getName());
-                descriptionArea.setText(newRow.getDescription());
+                // Descriptions are not part of the list query; load the selected one on demand
+                descriptionArea.setText(productService.getProductDescription(newRow.getId()));
                 quantityField.setText(String.valueOf(newRow.getQuantity()));
                 locationField.setText(newRow.getLocation());
                 unitField.setText(newRow.getUnit());
@@ -106,22 +113,26 @@ public class ProductManagementController {
         });
     }
 
-    private void loadProducts() {
-        ObservableList<ProductRow> rows = FXCollections.observableArrayList();
-        for (var row : productStockDao.findAllPerLocation()) {
-            rows.add(new ProductRow(
-                row.productId(),
-                row.name(),
-                row.description(),
-                row.quantity(),           // Quantity at this location
-                row.locationName(),       // One location per row
-                row.unit()
-            ));
-        }
+    /**
+     * Pages rows from a product_stock join rather than {@link com.javafx.demo.app.StockMatrix}: the
+     * matrix cannot sort by name or location or seek to a page, so it would mean building the
+     * whole table in memory again. The database is the source of truth, so rows are current
+     * without a matrix refresh.
+     */
+    private void showProducts(StockSort sort, boolean descending) {
+        var source = ProductPages.stock(new StockQuery(null, null, sort, descending))
+            .map(ProductRow::new, ProductRow::stockRow, ProductRow.LOADING);
+        rows = new LazyPagedList<>(source);
         productsTable.setItems(rows);
         messageLabel.setText("");
     }
 
+    private void loadProducts() {
+        productsTable.getSelectionModel().clearSelection();
+        rows.refresh();
+        messageLabel.setText("");
+    }
+
     @FXML
     private void onCreateProduct(ActionEvent event) {
         try {
@@ -213,7 +224,7 @@ public class ProductManagementController {
         var res = confirm.showAndWait();
         if (res.isPresent() && res.get() == ButtonType.OK) {
             try {
-                productDao.delete(selected.getId());
+                productService.deleteProduct(selected.getId());
                 messageLabel.setTextFill(javafx.scene.paint.Color.GREEN);
                 messageLabel.setText("Product deleted");
                 loadProducts();
@@ -285,30 +296,30 @@ public class ProductManagementController {
     }
 
     public static class ProductRow {
-        private final Integer id;
-        private final String name;
-        private final String description;
-        private final Integer quantity;
-        private final String location;
-        private final String unit;
+        // A row still loading; its cells are blank
+        static final ProductRow LOADING = new ProductRow(null);
 
-        public ProductRow(Integer id, String name, String description, Integer quantity, String location, String unit) {
-            this.id = id;
-            this.name = name;
-            this.description = description;
-            this.quantity = quantity;
-            this.location = location;
-            this.unit = unit;
-        }
+        private final StockRow row;
 
-        public Integer getId() { return id; }
-        public String getName() { return name; }
-        public String getDescription() { return description; }
-        public Integer getQuantity() { return quantity; }
-        public String getLocation() { return location; }
-        public String getUnit() { return unit; }
-    }
-}
+        public ProductRow(StockRow row) {
+            this.row = row;
+        }
 
+        StockRow stockRow() { return row; }
+        public Integer getId() { return row == null ? null : row.productId(); }
+        public String getName() { return row == null ? null : row.productName(); }
+        public Integer getQuantity() { return row == null ? null : row.quantity(); }
+        public String getLocation() { return row == null ? null : row.locationName(); }
+        public String getUnit() { return row == null ? null : row.unit(); }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ProductRow other && java.util.Objects.equals(row, other.row);
+        }
 
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hashCode(row);
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.javafx.demo;
 
+import com.javafx.demo.app.LocationDictionary;
+import com.javafx.demo.app.ProductSearchIndex;
 import com.javafx.demo.app.Session;
 import com.javafx.demo.dao.LocationDao;
-import com.javafx.demo.dao.ProductDao;
-import com.javafx.demo.dao.ProductStockDao;
+import com.javafx.demo.dao.ProductStockDao.StockQuery;
+import com.javafx.demo.dao.ProductStockDao.StockRow;
+import com.javafx.demo.dao.ProductStockDao.StockSort;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.model.ProductSummary;
 import com.javafx.demo.service.InventoryService;
+import com.javafx.demo.ui.Debouncer;
+import com.javafx.demo.ui.LazyPagedList;
+import com.javafx.demo.ui.ProductPages;
+import com.javafx.demo.ui.ProductTypeahead;
+import com.javafx.demo.ui.ScreenLoads;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -27,19 +36,37 @@ public class TransfersController {
     @FXML private TableColumn<LocationProductRow, Integer> toQtyColumn;
     @FXML private Label messageLabel;
 
-    private final LocationDao locationDao = new LocationDao();
-    private final ProductStockDao stockDao = new ProductStockDao();
-    private final ProductDao productDao = new ProductDao();
+    private static final int MAX_SEARCH_PRODUCTS = 500;
+
+    private final LocationDictionary locations = LocationDictionary.getInstance();
+    private final ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
     private final InventoryService inventoryService = new InventoryService();
+    private StockSort fromSort = StockSort.PRODUCT;
+    private boolean fromDescending;
+    private StockSort toSort = StockSort.PRODUCT;
+    private boolean toDescending;
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("Transfers", toLocationCombo);
         fromProductColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
         fromQtyColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
         toProductColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
         toQtyColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
 
-        var locs = FXCollections.observableArrayList(locationDao.findAll());
+        // Until the index has loaded, searches fall back to matching names in the database
+        if (searchIndex.isOlderThan(ProductTypeahead.INDEX_MAX_AGE_MILLIS)) {
+            DbExecutor.getInstance().run(() -> searchIndex.refreshIfOlderThan(ProductTypeahead.INDEX_MAX_AGE_MILLIS));
+        }
+        // Both tables page their rows in from the database and sort there
+        ProductPages.serverSort(fromTable,
+            java.util.Map.of(fromProductColumn, StockSort.PRODUCT, fromQtyColumn, StockSort.QUANTITY),
+            StockSort.PRODUCT, (sort, desc) -> { fromSort = sort; fromDescending = desc; loadFromTable(); });
+        ProductPages.serverSort(toTable,
+            java.util.Map.of(toProductColumn, StockSort.PRODUCT, toQtyColumn, StockSort.QUANTITY),
+            StockSort.PRODUCT, (sort, desc) -> { toSort = sort; toDescending = desc; loadToTable(); });
+
+        var locs = FXCollections.observableArrayList(locations.all());
         fromLocationCombo.setItems(locs);
         toLocationCombo.setItems(FXCollections.observableArrayList(locs));
         // renderers for name only
@@ -68,7 +95,9 @@ public class TransfersController {
 
         fromLocationCombo.setOnAction(e -> loadFromTable());
         toLocationCombo.setOnAction(e -> loadToTable());
-        fromSearchField.textProperty().addListener((obs, o, n) -> loadFromTable());
+        // Search once typing pauses, not on every keystroke
+        var searchDebouncer = new Debouncer(ProductTypeahead.DEBOUNCE, this::loadFromTable);
+        fromSearchField.textProperty().addListener((obs, o, n) -> searchDebouncer.trigger());
 
         // Enable multi-select
         fromTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
@@ -77,34 +106,50 @@ public class TransfersController {
     private void loadFromTable() {
         var loc = fromLocationCombo.getSelectionModel().getSelectedItem();
         if (loc == null) return;
-        ObservableList<LocationProductRow> list = FXCollections.observableArrayList();
-        var rows = stockDao.findByLocation(loc.id());
-        String q = fromSearchField != null && fromSearchField.getText() != null ? fromSearchField.getText().trim().toLowerCase() : "";
-        for (var r : rows) {
-            if (!q.isBlank() && !r.name().toLowerCase().contains(q)) continue;
-            list.add(new LocationProductRow(r.productId(), r.name(), r.quantity()));
+        String q = fromSearchField != null && fromSearchField.getText() != null ? fromSearchField.getText().trim() : "";
+        StockQuery query;
+        if (q.isEmpty()) {
+            query = new StockQuery(loc.id(), null, fromSort, fromDescending);
+        } else if (!searchIndex.isLoaded()) {
+            query = new StockQuery(loc.id(), q, fromSort, fromDescending);
+        } else {
+            // Match names in the search index; too many matches to list as ids falls back to LIKE
+            var hits = searchIndex.search(q, MAX_SEARCH_PRODUCTS + 1);
+            query = hits.size() <= MAX_SEARCH_PRODUCTS
+                ? new StockQuery(loc.id(), null, hits.stream().map(ProductSearchIndex.Hit::id).toList(), fromSort, fromDescending)
+                : new StockQuery(loc.id(), q, fromSort, fromDescending);
         }
         fromTable.getSelectionModel().clearSelection();
-        fromTable.setItems(list);
+        fromTable.setItems(productsAt(query));
     }
 
     private void loadToTable() {
         var loc = toLocationCombo.getSelectionModel().getSelectedItem();
         if (loc == null) return;
-        ObservableList<LocationProductRow> list = FXCollections.observableArrayList();
-        for (var r : stockDao.findByLocation(loc.id())) {
-            list.add(new LocationProductRow(r.productId(), r.name(), r.quantity()));
-        }
         toTable.getSelectionModel().clearSelection();
-        toTable.setItems(list);
+        toTable.setItems(productsAt(new StockQuery(loc.id(), null, toSort, toDescending)));
+    }
+
+    /**
+     * Products held at a location, loaded a page at a time as the table scrolls. They come from a
+     * product_stock join rather than {@link com.javafx.demo.app.StockMatrix}, which holds no names
+     * to search or sort by and cannot seek to a page.
+     */
+    private LazyPagedList<LocationProductRow> productsAt(StockQuery query) {
+        var source = ProductPages.stock(query)
+            .map(LocationProductRow::new, LocationProductRow::stockRow, LocationProductRow.LOADING);
+        return new LazyPagedList<>(source);
     }
 
     @FXML
     private void onTransferClick(ActionEvent event) {
         var fromLoc = fromLocationCombo.getSelectionModel().getSelectedItem();
         var toLoc = toLocationCombo.getSelectionModel().getSelectedItem();
-        var selected = fromTable.getSelectionModel().getSelectedItems();
-        if (fromLoc == null || toLoc == null || selected == null || selected.isEmpty()) {
+        // A range selected by shift-click can include rows that are still loading
+        var selected = fromTable.getSelectionModel().getSelectedItems().stream()
+            .filter(r -> r != null && r != LocationProductRow.LOADING)
+            .toList();
+        if (fromLoc == null || toLoc == null || selected.isEmpty()) {
             showError("Select from/to locations and at least one product to transfer");
             return;
         }
@@ -163,22 +208,17 @@ public class TransfersController {
         var dialog = new Dialog<Void>();
         dialog.setTitle("Quick Transfer");
 
-        var productCombo = new ComboBox<com.javafx.demo.model.Product>();
-        productCombo.setItems(FXCollections.observableArrayList(productDao.findAll()));
+        var productCombo = new ComboBox<ProductSummary>();
+        ProductTypeahead.install(productCombo);
+        productCombo.setPromptText("Select product");
         productCombo.setCellFactory(list -> new ListCell<>() {
-            @Override protected void updateItem(com.javafx.demo.model.Product p, boolean empty) {
+            @Override protected void updateItem(ProductSummary p, boolean empty) {
                 super.updateItem(p, empty);
                 setText(empty || p == null ? null : p.name());
             }
         });
-        productCombo.setButtonCell(new ListCell<>() {
-            @Override protected void updateItem(com.javafx.demo.model.Product p, boolean empty) {
-                super.updateItem(p, empty);
-                setText(empty || p == null ? "Select product" : p.name());
-            }
-        });
 
-        var locs = FXCollections.observableArrayList(locationDao.findAll());
+        var locs = FXCollections.observableArrayList(locations.all());
         var fromLocCombo = new ComboBox<LocationDao.Location>(locs);
         var toLocCombo = new ComboBox<LocationDao.Location>(FXCollections.observableArrayList(locs));
         // apply renderers for dialog combos
@@ -266,18 +306,26 @@ public class TransfersController {
     }
 
     public static class LocationProductRow {
-        private final int productId;
-        private final String productName;
-        private final Integer quantity;
-        public LocationProductRow(int productId, String productName, Integer quantity) {
-            this.productId = productId;
-            this.productName = productName;
-            this.quantity = quantity;
+        // A row still loading; its cells are blank
+        static final LocationProductRow LOADING = new LocationProductRow(null);
+
+        private final StockRow row;
+        public LocationProductRow(StockRow row) {
+            this.row = row;
         }
-        public int productId(){ return productId; }
-        public String getProductName(){ return productName; }
-        public Integer getQuantity(){ return quantity; }
-    }
-}
+        StockRow stockRow(){ return row; }
+        public int productId(){ return row.productId(); }
+        public String getProductName(){ return row == null ? null : row.productName(); }
+        public Integer getQuantity(){ return row == null ? null : row.quantity(); }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LocationProductRow other && java.util.Objects.equals(row, other.row);
+        }
 
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hashCode(row);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.javafx.demo;
 
 import com.javafx.demo.app.Session;
+import com.javafx.demo.app.SettingsStore;
 import com.javafx.demo.dao.UserDao;
-import com.javafx.demo.dao.SettingsDao;
+import com.javafx.demo.dao.JobDao;
 import com.javafx.demo.model.User;
 import com.javafx.demo.security.PasswordHasher;
+import com.javafx.demo.ui.ScreenLoads;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -16,6 +18,8 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
+import java.util.Map;
+
 public class UserManagementController {
 
     @FXML
@@ -63,10 +67,12 @@ public class UserManagementController {
     private ComboBox<String> editRoleCombo;
 
     private final UserDao userDao = new UserDao();
-    private final SettingsDao settingsDao = new SettingsDao();
+    private final SettingsStore settings = SettingsStore.getInstance();
+    private final JobDao jobDao = new JobDao();
 
     @FXML
     private void initialize() {
+        ScreenLoads.begin("User Management", userLabel);
         User current = Session.getInstance().getCurrentUser();
         if (current != null) {
             userLabel.setText("Logged in as: " + current.username() + " (" + current.roleName() + ")");
@@ -107,12 +113,12 @@ public class UserManagementController {
         });
 
         // Load settings defaults
-        overdueHoursField.setText(String.valueOf(settingsDao.getInt("overdue_hours", 2)));
-        schedulerIntervalField.setText(String.valueOf(settingsDao.getInt("scheduler_interval_minutes", 1)));
-        String reportTime = settingsDao.get("report_time");
+        overdueHoursField.setText(String.valueOf(settings.getInt("overdue_hours", 2)));
+        schedulerIntervalField.setText(String.valueOf(settings.getInt("scheduler_interval_minutes", 1)));
+        String reportTime = settings.get("report_time");
         if (reportTime == null || reportTime.isBlank()) reportTime = "23:55";
         reportTimeField.setText(reportTime);
-        dashboardRefreshSecondsField.setText(String.valueOf(settingsDao.getInt("dashboard_refresh_seconds", 15)));
+        dashboardRefreshSecondsField.setText(String.valueOf(settings.getInt("dashboard_refresh_seconds", 15)));
     }
 
     private void loadUsers() {
@@ -248,12 +254,15 @@ public class UserManagementController {
                 settingsMessageLabel.setText("Report time must be HH:mm");
                 return;
             }
-            settingsDao.set("overdue_hours", String.valueOf(overdue));
-            settingsDao.set("scheduler_interval_minutes", String.valueOf(interval));
-            settingsDao.set("report_time", time);
-            settingsDao.set("dashboard_refresh_seconds", String.valueOf(dashRefresh));
+            settings.setAll(Map.of(
+                "overdue_hours", String.valueOf(overdue),
+                "scheduler_interval_minutes", String.valueOf(interval),
+                "report_time", time,
+                "dashboard_refresh_seconds", String.valueOf(dashRefresh)
+            ));
+            jobDao.updateRunAt("daily_report", time);
             settingsMessageLabel.setTextFill(javafx.scene.paint.Color.GREEN);
-            settingsMessageLabel.setText("Settings saved. Scheduler interval applies on next app start.");
+            settingsMessageLabel.setText("Settings saved.");
         } catch (NumberFormatException e) {
             settingsMessageLabel.setTextFill(javafx.scene.paint.Color.RED);
             settingsMessageLabel.setText("Overdue, interval and refresh must be numbers");
@@ -0,0 +1,570 @@
+package com.javafx.demo.api;
+
+import com.javafx.demo.app.LocationDictionary;
+import com.javafx.demo.app.ProductSearchIndex;
+import com.javafx.demo.app.StockMatrix;
+import com.javafx.demo.db.Database;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.model.Alert;
+import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.model.ProductSummary;
+import com.javafx.demo.model.User;
+import com.javafx.demo.security.AuthService;
+import com.javafx.demo.service.AlertService;
+import com.javafx.demo.service.InventoryService;
+import com.javafx.demo.service.ProductService;
+import com.javafx.demo.service.ReportService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Headless HTTP/JSON server over the service layer, for barcode scanners and the ERP. Runs
+ * without JavaFX:
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.javafx.demo.api.ApiServer -Dexec.args="--port=8080"
+ * </pre>
+ *
+ * Options ({@code --name=value}): {@code port} (8080), {@code bind} address (127.0.0.1),
+ * {@code token-hours} (12) and {@code max-batch} movements per batch request (500).
+ *
+ * {@code POST /api/login} with {@code {"username", "password"}} returns a token; every other
+ * call sends it as {@code Authorization: Bearer <token>} and is limited to the roles the desktop
+ * screens allow. Each request runs on its own virtual thread and its database work takes a
+ * {@code DbExecutor} permit, so at most {@code db.pool.size} requests use the database at once.
+ * The product endpoints refresh the stock matrix and search index once they are older than
+ * the desktop screens allow, so movements and products from other terminals show up.
+ *
+ * <pre>
+ * POST /api/login                 POST /api/logout
+ * GET  /api/locations             GET  /api/products?q=&amp;limit=&amp;offset=    GET /api/products/{id}
+ * POST /api/movements             POST /api/movements/batch   (ADMIN, STAFF)
+ * GET  /api/alerts?status=&amp;productId=&amp;limit=&amp;offset=   POST /api/alerts/{id}/resolve   (ADMIN, SECURITY)
+ * GET  /api/reports/{yyyy-MM-dd}?format=csv|html
+ * </pre>
+ *
+ * A movement is {@code {"type": "CHECK_IN"|"CHECK_OUT"|"TRANSFER", "productId", "quantity",
+ * "locationId"}} for check-ins and check-outs, with {@code "fromLocationId"} and
+ * {@code "toLocationId"} instead for transfers, and optional {@code "notes"}. A batch is
+ * {@code {"movements": [...]}} and is refused with 400 if any movement is malformed; otherwise
+ * it runs in one transaction in which a movement refused for insufficient stock is rolled back
+ * alone, and the response lists the outcome of each. With {@code q}, {@code offset} pages through
+ * the search results in ranking order. Errors are {@code {"error": message}} with 400 for
+ * invalid input or insufficient stock, 401, 403, 404, and 409 for a deadlock or lock timeout,
+ * which the client may retry.
+ */
+public final class ApiServer {
+    private static final Logger LOG = Logger.getLogger(ApiServer.class.getName());
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+    private static final int DEFAULT_PAGE = 50;
+    private static final int MAX_PAGE = 1000;
+    private static final long STOCK_MAX_AGE_MILLIS = 30_000;
+    private static final long INDEX_MAX_AGE_MILLIS = 60_000;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final Set<String> MOVERS = Set.of("ADMIN", "STAFF");
+    private static final Set<String> ALERT_HANDLERS = Set.of("ADMIN", "SECURITY");
+    private static final Set<String> ANY_ROLE = Set.of();
+
+    record Options(int port, String bind, int tokenHours, int maxBatch) {
+
+        static Options parse(String[] args) {
+            Map<String, String> m = new HashMap<>();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --name=value: " + a);
+                m.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+            Options o = new Options(
+                Integer.parseInt(m.getOrDefault("port", "8080")),
+                m.getOrDefault("bind", "127.0.0.1"),
+                Integer.parseInt(m.getOrDefault("token-hours", "12")),
+                Integer.parseInt(m.getOrDefault("max-batch", "500")));
+            if (o.tokenHours < 1 || o.maxBatch < 1) {
+                throw new IllegalArgumentException("Need token-hours and max-batch >= 1");
+            }
+            return o;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Request request) throws Exception;
+    }
+
+    private record Route(String method, Pattern path, Set<String> roles, boolean authenticated, Handler handler) {}
+
+    /** A non-JSON response body, e.g. a report. */
+    private record Text(String contentType, String body) {}
+
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static final class Request {
+        final HttpExchange exchange;
+        final Matcher path;
+        final Map<String, String> query;
+        User user;
+        String token;
+
+        Request(HttpExchange exchange, Matcher path) {
+            this.exchange = exchange;
+            this.path = path;
+            this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+
+        int pathInt(int group) {
+            return Integer.parseInt(path.group(group));
+        }
+
+        Map<String, Object> body() throws IOException {
+            if (!(readJson() instanceof Map<?, ?> m)) throw new ApiException(400, "Expected a JSON object");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = (Map<String, Object>) m;
+            return body;
+        }
+
+        private Object readJson() throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (bytes.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+                return Json.parse(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        int queryInt(String name, int defaultValue, int max) {
+            String v = query.get(name);
+            if (v == null || v.isBlank()) return defaultValue;
+            try {
+                return Math.max(0, Math.min(max, Integer.parseInt(v.trim())));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, name + " must be a number");
+            }
+        }
+    }
+
+    private final Options options;
+    private final ApiTokens tokens;
+    private final List<Route> routes = new ArrayList<>();
+    private final AuthService authService = new AuthService();
+    private final InventoryService inventoryService = new InventoryService();
+    private final ProductService productService = new ProductService();
+    private final AlertService alertService = new AlertService();
+    private final ReportService reportService = new ReportService();
+    private final DbExecutor db = DbExecutor.getInstance();
+    // One request reloads a stale cache; the others serve the current snapshot meanwhile
+    private final ReentrantLock cacheRefresh = new ReentrantLock();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    ApiServer(Options options) {
+        this.options = options;
+        this.tokens = new ApiTokens(Duration.ofHours(options.tokenHours()));
+        publicRoute("POST", "/api/login", this::login);
+        route("POST", "/api/logout", ANY_ROLE, this::logout);
+        route("GET", "/api/locations", ANY_ROLE, r -> locations());
+        route("GET", "/api/products", ANY_ROLE, this::products);
+        route("GET", "/api/products/(\\d+)", ANY_ROLE, this::product);
+        route("POST", "/api/movements", MOVERS, r -> movementResult(inventoryService.move(movement(r.body()), r.user.id())));
+        route("POST", "/api/movements/batch", MOVERS, this::batch);
+        route("GET", "/api/alerts", ALERT_HANDLERS, this::alerts);
+        route("POST", "/api/alerts/(\\d+)/resolve", ALERT_HANDLERS, this::resolveAlert);
+        route("GET", "/api/reports/(\\d{4}-\\d{2}-\\d{2})", ANY_ROLE, this::report);
+    }
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        Database.migrateIfNeeded();
+        StockMatrix.getInstance().reload();
+        ProductSearchIndex.getInstance().reload();
+        ApiServer server = new ApiServer(options);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "api-shutdown"));
+    }
+
+    void start() {
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(options.bind()), options.port());
+            server = HttpServer.create(address, 1024);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start API server on " + options.bind() + ":" + options.port(), e);
+        }
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-", 0).factory());
+        server.createContext("/api/", this::dispatch);
+        server.setExecutor(executor);
+        server.start();
+        LOG.info(String.format("API listening on http://%s:%d/api/", options.bind(), options.port()));
+    }
+
+    void stop() {
+        if (server != null) server.stop(1);
+        if (executor != null) executor.shutdown();
+    }
+
+    private void publicRoute(String method, String path, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), ANY_ROLE, false, handler));
+    }
+
+    private void route(String method, String path, Set<String> roles, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), roles, true, handler));
+    }
+
+    private void dispatch(HttpExchange exchange) {
+        try (exchange) {
+            int status = 200;
+            Object result;
+            try {
+                result = handle(exchange);
+            } catch (ApiException e) {
+                status = e.status;
+                result = error(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                result = error(e.getMessage());
+            } catch (Exception e) {
+                if (isLockConflict(e)) {
+                    status = 409;
+                    result = error("Conflicting update, retry");
+                } else {
+                    LOG.log(Level.WARNING, "API " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed", e);
+                    status = 500;
+                    result = error("Internal error");
+                }
+            }
+            respond(exchange, status, result);
+        } catch (IOException e) {
+            LOG.fine("Could not send API response: " + e.getMessage());
+        }
+    }
+
+    private Object handle(HttpExchange exchange) throws Exception {
+        String path = exchange.getRequestURI().getPath();
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Matcher m = route.path().matcher(path);
+            if (!m.matches()) continue;
+            pathMatched = true;
+            if (!route.method().equals(exchange.getRequestMethod())) continue;
+            Request request = new Request(exchange, m);
+            if (route.authenticated()) authenticate(request, route.roles());
+            return db.call(() -> route.handler().handle(request));
+        }
+        throw new ApiException(pathMatched ? 405 : 404, pathMatched ? "Method not allowed" : "Not found");
+    }
+
+    private void authenticate(Request request, Set<String> roles) {
+        String header = request.exchange.getRequestHeaders().getFirst("Authorization");
+        String token = header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+        User user = tokens.user(token).orElseThrow(() -> new ApiException(401, "Missing or expired token"));
+        if (!roles.isEmpty() && !roles.contains(user.roleName())) {
+            throw new ApiException(403, "Role " + user.roleName() + " may not do this");
+        }
+        request.user = user;
+        request.token = token;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object result) throws IOException {
+        String contentType = "application/json; charset=utf-8";
+        String body;
+        if (result instanceof Text t) {
+            contentType = t.contentType();
+            body = t.body();
+        } else {
+            body = Json.write(result);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (status == 401) exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // ---- Handlers ----
+
+    private Object login(Request r) throws IOException {
+        Map<String, Object> body = r.body();
+        User user = authService.login(string(body, "username"), string(body, "password"));
+        if (user == null) throw new ApiException(401, "Invalid username or password");
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", tokens.issue(user));
+        out.put("expiresInSeconds", tokens.ttl().toSeconds());
+        out.put("user", userJson(user));
+        return out;
+    }
+
+    private Object logout(Request r) {
+        tokens.revoke(r.token);
+        return Map.of("ok", true);
+    }
+
+    private static Object locations() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (var l : LocationDictionary.getInstance().all()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", l.id());
+            m.put("name", l.name());
+            out.add(m);
+        }
+        return out;
+    }
+
+    private Object products(Request r) {
+        int limit = r.queryInt("limit", DEFAULT_PAGE, MAX_PAGE);
+        int offset = r.queryInt("offset", 0, Integer.MAX_VALUE);
+        String q = r.query.get("q");
+        refreshCaches();
+        List<ProductSummary> products = q != null && !q.isBlank()
+            ? productService.searchProducts(q, offset, limit)
+            : productService.getProductSummaries(offset, limit);
+        return products.stream().map(ApiServer::productJson).toList();
+    }
+
+    private Object product(Request r) {
+        int id = r.pathInt(1);
+        ProductSummary p = productService.getProductSummary(id)
+            .orElseThrow(() -> new ApiException(404, "No product " + id));
+        refreshCaches();
+        Map<String, Object> out = productJson(p);
+        List<Map<String, Object>> stock = new ArrayList<>();
+        for (StockMatrix.Cell c : StockMatrix.getInstance().forProduct(id)) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("locationId", c.locationId());
+            m.put("quantity", c.quantity());
+            stock.add(m);
+        }
+        out.put("stock", stock);
+        return out;
+    }
+
+    private void refreshCaches() {
+        if (!cacheRefresh.tryLock()) return;
+        try {
+            StockMatrix.getInstance().refreshIfOlderThan(STOCK_MAX_AGE_MILLIS);
+            ProductSearchIndex.getInstance().refreshIfOlderThan(INDEX_MAX_AGE_MILLIS);
+        } finally {
+            cacheRefresh.unlock();
+        }
+    }
+
+    private static InventoryService.Movement movement(Map<String, Object> m) {
+        String type = string(m, "type");
+        int productId = integer(m, "productId");
+        int quantity = integer(m, "quantity");
+        String notes = m.get("notes") instanceof String s ? s : null;
+        return switch (type) {
+            case "CHECK_IN" -> InventoryService.Movement.checkIn(productId, integer(m, "locationId"), quantity, notes);
+            case "CHECK_OUT" -> InventoryService.Movement.checkOut(productId, integer(m, "locationId"), quantity, notes);
+            case "TRANSFER" -> InventoryService.Movement.transfer(productId, integer(m, "fromLocationId"),
+                integer(m, "toLocationId"), quantity, notes);
+            default -> throw new IllegalArgumentException("type must be CHECK_IN, CHECK_OUT or TRANSFER");
+        };
+    }
+
+    /**
+     * Validates every movement up front, rejecting the whole request if one is malformed, then
+     * runs them in one transaction; a movement refused by the stock checks is rolled back on its
+     * own and the client gets the outcome of each.
+     */
+    private Object batch(Request r) throws IOException {
+        if (!(r.body().get("movements") instanceof List<?> raw)) {
+            throw new ApiException(400, "Expected {\"movements\": [...]}");
+        }
+        if (raw.size() > options.maxBatch()) {
+            throw new ApiException(413, "At most " + options.maxBatch() + " movements per batch");
+        }
+        List<InventoryService.Movement> movements = new ArrayList<>(raw.size());
+        for (int i = 0; i < raw.size(); i++) {
+            try {
+                if (!(raw.get(i) instanceof Map<?, ?> m)) throw new IllegalArgumentException("Expected a movement object");
+                @SuppressWarnings("unchecked")
+                Map<String, Object> movement = (Map<String, Object>) m;
+                movements.add(movement(movement));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "movements[" + i + "]: " + e.getMessage());
+            }
+        }
+        List<InventoryService.MovementResult> outcomes = inventoryService.moveAll(movements, r.user.id());
+        List<Map<String, Object>> results = new ArrayList<>(outcomes.size());
+        int succeeded = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            InventoryService.MovementResult outcome = outcomes.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", i);
+            if (outcome.error() == null) {
+                result.put("ok", true);
+                result.put("logId", outcome.log().id());
+                succeeded++;
+            } else if (outcome.error() instanceof IllegalArgumentException e) {
+                result.put("ok", false);
+                result.put("status", 400);
+                result.put("error", e.getMessage());
+            } else {
+                boolean conflict = isLockConflict(outcome.error());
+                if (!conflict) LOG.log(Level.WARNING, "Batch movement " + i + " failed", outcome.error());
+                result.put("ok", false);
+                result.put("status", conflict ? 409 : 500);
+                result.put("error", conflict ? "Conflicting update, retry" : "Internal error");
+            }
+            results.add(result);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("succeeded", succeeded);
+        out.put("failed", outcomes.size() - succeeded);
+        out.put("results", results);
+        return out;
+    }
+
+    private Object alerts(Request r) {
+        String status = r.query.get("status");
+        if (status != null && !status.equals("UNRESOLVED") && !status.equals("RESOLVED")) {
+            throw new ApiException(400, "status must be UNRESOLVED or RESOLVED");
+        }
+        Integer productId = r.query.containsKey("productId") ? r.queryInt("productId", 0, Integer.MAX_VALUE) : null;
+        var alerts = alertService.getAlertsFiltered(productId, status, null, null,
+            r.queryInt("limit", DEFAULT_PAGE, MAX_PAGE), r.queryInt("offset", 0, Integer.MAX_VALUE), null);
+        var counts = alertService.getAlertCounts(productId, status, null, null);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("total", counts.total());
+        out.put("unresolved", counts.unresolved());
+        out.put("alerts", alerts.stream().map(ApiServer::alertJson).toList());
+        return out;
+    }
+
+    private Object resolveAlert(Request r) {
+        alertService.resolveAlert(r.pathInt(1), r.user.id());
+        return Map.of("ok", true);
+    }
+
+    private Object report(Request r) {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(r.path.group(1));
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid date " + r.path.group(1));
+        }
+        String format = r.query.getOrDefault("format", "csv");
+        return switch (format) {
+            case "csv" -> new Text("text/csv; charset=utf-8", reportService.buildCsvForDate(date));
+            case "html" -> new Text("text/html; charset=utf-8", reportService.buildHtmlForDate(date));
+            default -> throw new ApiException(400, "format must be csv or html");
+        };
+    }
+
+    // ---- JSON helpers ----
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message == null ? "Error" : message);
+    }
+
+    private static Map<String, Object> userJson(User u) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", u.id());
+        m.put("username", u.username());
+        m.put("role", u.roleName());
+        return m;
+    }
+
+    private static Map<String, Object> productJson(ProductSummary p) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", p.id());
+        m.put("name", p.name());
+        m.put("unit", p.unit());
+        m.put("quantity", p.quantity());
+        return m;
+    }
+
+    private static Map<String, Object> movementResult(ProductLog log) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("logId", log.id());
+        m.put("type", log.actionType());
+        m.put("productId", log.productId());
+        m.put("quantity", log.quantity());
+        m.put("timestamp", log.timestamp());
+        return m;
+    }
+
+    private static Map<String, Object> alertJson(Alert a) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", a.id());
+        m.put("productId", a.productId());
+        m.put("logId", a.logId());
+        m.put("type", a.alertType());
+        m.put("message", a.message());
+        m.put("status", a.status());
+        m.put("createdAt", a.createdAt());
+        m.put("resolvedAt", a.resolvedAt());
+        m.put("resolvedBy", a.resolvedBy());
+        return m;
+    }
+
+    private static String string(Map<String, Object> m, String key) {
+        if (m.get(key) instanceof String s) return s;
+        throw new IllegalArgumentException(key + " must be a string");
+    }
+
+    private static int integer(Map<String, Object> m, String key) {
+        if (m.get(key) instanceof Long n && n >= Integer.MIN_VALUE && n <= Integer.MAX_VALUE) return n.intValue();
+        throw new IllegalArgumentException(key + " must be an integer");
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq);
+            String v = eq < 0 ? "" : pair.substring(eq + 1);
+            out.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    /**
+     * Whether {@code e} was caused by a deadlock or lock wait timeout, which a retry can resolve.
+     */
+    private static boolean isLockConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransactionRollbackException) return true;
+            if (t instanceof SQLException s && (s.getErrorCode() == ER_LOCK_DEADLOCK || s.getErrorCode() == ER_LOCK_WAIT_TIMEOUT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package com.javafx.demo.api;
+
+import com.javafx.demo.model.User;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bearer tokens issued by {@code POST /api/login}, held in memory: restarting the server logs
+ * every client out. A token expires a fixed time after it was issued.
+ */
+final class ApiTokens {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private record Grant(User user, long expiresAtNanos) {}
+
+    private final Map<String, Grant> grants = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    ApiTokens(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    String issue(User user) {
+        long now = System.nanoTime();
+        grants.values().removeIf(g -> g.expiresAtNanos() - now < 0);
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        grants.put(token, new Grant(user, now + ttlNanos));
+        return token;
+    }
+
+    Optional<User> user(String token) {
+        if (token == null) return Optional.empty();
+        Grant g = grants.get(token);
+        if (g == null) return Optional.empty();
+        if (g.expiresAtNanos() - System.nanoTime() < 0) {
+            grants.remove(token, g);
+            return Optional.empty();
+        }
+        return Optional.of(g.user());
+    }
+
+    void revoke(String token) {
+        if (token != null) grants.remove(token);
+    }
+
+    Duration ttl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+}
@@ -0,0 +1,141 @@
+package com.javafx.demo.app;
+
+import com.javafx.demo.db.DbExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Startup work as a graph of named steps. Each step starts as soon as the steps it depends on
+ * have finished, so independent steps run concurrently on {@link DbExecutor} while the login
+ * window is already showing.
+ *
+ * A step registered with {@link #once} is a one-time setup: after it succeeds a
+ * {@code bootstrap_<name>} marker is written to the settings table and later launches skip it.
+ *
+ * The time each step took is logged once the graph has finished and is available from
+ * {@link #timings()}.
+ */
+public final class Bootstrap {
+    private static final Logger LOG = Logger.getLogger(Bootstrap.class.getName());
+    private static final Bootstrap INSTANCE = new Bootstrap();
+
+    /** Outcome of one step; {@code skipped} steps were already marked as done. */
+    public record StepTiming(String name, long millis, boolean skipped, boolean failed) {}
+
+    private record Step(String name, boolean once, Runnable action, List<String> dependsOn) {}
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+    private final Map<String, StepTiming> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private CompletableFuture<Void> all;
+
+    private Bootstrap() {}
+
+    public static Bootstrap getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register a step that runs on every launch.
+     */
+    public synchronized Bootstrap step(String name, Runnable action, String... dependsOn) {
+        return add(new Step(name, false, action, List.of(dependsOn)));
+    }
+
+    /**
+     * Register a one-time step, skipped once its marker setting is present.
+     */
+    public synchronized Bootstrap once(String name, Runnable action, String... dependsOn) {
+        return add(new Step(name, true, action, List.of(dependsOn)));
+    }
+
+    private Bootstrap add(Step step) {
+        if (all != null) throw new IllegalStateException("Bootstrap already started");
+        for (String dep : step.dependsOn()) {
+            // Registering in dependency order keeps the graph acyclic
+            if (!steps.containsKey(dep)) {
+                throw new IllegalArgumentException("Step " + step.name() + " depends on unknown step " + dep);
+            }
+        }
+        steps.put(step.name(), step);
+        return this;
+    }
+
+    /**
+     * Start all steps. Returns a future that completes when every step has finished.
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (all != null) return all;
+        DbExecutor db = DbExecutor.getInstance();
+        long start = System.nanoTime();
+        for (Step step : steps.values()) {
+            CompletableFuture<?>[] deps = step.dependsOn().stream()
+                .map(futures::get)
+                .toArray(CompletableFuture[]::new);
+            futures.put(step.name(), CompletableFuture.allOf(deps).thenCompose(v -> db.run(() -> run(step))));
+        }
+        all = CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new));
+        all.whenComplete((v, e) -> logTimings((System.nanoTime() - start) / 1_000_000, e));
+        return all;
+    }
+
+    /**
+     * Future for one step; it fails if the step or any step it depends on failed.
+     */
+    public synchronized CompletableFuture<Void> whenDone(String name) {
+        CompletableFuture<Void> f = futures.get(name);
+        if (f == null) throw new IllegalArgumentException("Unknown or unstarted step " + name);
+        return f;
+    }
+
+    public boolean isDone(String name) {
+        CompletableFuture<Void> f;
+        synchronized (this) {
+            f = futures.get(name);
+        }
+        return f != null && f.isDone() && !f.isCompletedExceptionally();
+    }
+
+    public List<StepTiming> timings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings.values());
+        }
+    }
+
+    private void run(Step step) {
+        String marker = "bootstrap_" + step.name();
+        long t0 = System.nanoTime();
+        if (step.once() && "1".equals(SettingsStore.getInstance().get(marker))) {
+            timings.put(step.name(), new StepTiming(step.name(), 0, true, false));
+            return;
+        }
+        try {
+            step.action().run();
+            if (step.once()) {
+                SettingsStore.getInstance().set(marker, "1");
+            }
+        } catch (RuntimeException e) {
+            timings.put(step.name(), new StepTiming(step.name(), (System.nanoTime() - t0) / 1_000_000, false, true));
+            LOG.log(Level.SEVERE, "Startup step " + step.name() + " failed", e);
+            throw e;
+        }
+        timings.put(step.name(), new StepTiming(step.name(), (System.nanoTime() - t0) / 1_000_000, false, false));
+    }
+
+    private void logTimings(long totalMillis, Throwable error) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Startup %s in %d ms:", error == null ? "finished" : "failed", totalMillis));
+        for (StepTiming t : timings()) {
+            sb.append(String.format("%n  %-24s %s", t.name(),
+                t.skipped() ? "skipped" : t.millis() + " ms" + (t.failed() ? " (failed)" : "")));
+        }
+        LOG.info(sb.toString());
+    }
+}
@@ -0,0 +1,155 @@
+package com.javafx.demo.app;
+
+import com.javafx.demo.dao.LocationDao;
+import com.javafx.demo.dao.LocationDao.Location;
+import com.javafx.demo.metrics.CacheStats;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory id/name dictionary of the {@code locations} table.
+ *
+ * Lookups read an immutable snapshot without locking. {@link #create}, {@link #delete} and
+ * {@link #findOrCreate} write to the database and then publish a new snapshot (copy-on-write).
+ * A lookup that misses reloads, which picks up locations created on other terminals; misses
+ * within {@link #MISS_RELOAD_INTERVAL_MILLIS} of the last load are answered from the snapshot, so
+ * a stale id looked up for every row of a table costs one query, not one per row.
+ *
+ * Location names from the dictionary are shared instances; {@link #intern(String)} lets DAOs
+ * map row values onto them so large result sets do not hold one copy per row.
+ */
+public final class LocationDictionary {
+    private static final LocationDictionary INSTANCE = new LocationDictionary();
+    public static final long MISS_RELOAD_INTERVAL_MILLIS = 5_000;
+    private static final String CACHE_NAME = "locations";
+
+    private final LocationDao locationDao = new LocationDao();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(List<Location> sorted, Map<Integer, Location> byId, Map<String, Location> byName,
+                            long loadedAtNanos) {
+
+        static Snapshot of(List<Location> locations) {
+            Map<Integer, Location> byId = new HashMap<>();
+            Map<String, Location> byName = new HashMap<>();
+            for (Location l : locations) {
+                Location shared = new Location(l.id(), l.name().intern());
+                byId.put(shared.id(), shared);
+                byName.put(key(shared.name()), shared);
+            }
+            List<Location> sorted = byId.values().stream()
+                .sorted(Comparator.comparing(Location::name, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+            return new Snapshot(sorted, Map.copyOf(byId), Map.copyOf(byName), System.nanoTime());
+        }
+
+        // Location names compare case-insensitively in MySQL's default collation
+        static String key(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private LocationDictionary() {}
+
+    public static LocationDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * All locations ordered by name; the list is immutable.
+     */
+    public List<Location> all() {
+        return snapshot().sorted();
+    }
+
+    public Optional<Location> findById(int id) {
+        Location l = snapshot().byId().get(id);
+        if (l == null) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            l = reloadAfterMiss().byId().get(id);
+        } else {
+            CacheStats.getInstance().hit(CACHE_NAME);
+        }
+        return Optional.ofNullable(l);
+    }
+
+    public Optional<Location> findByName(String name) {
+        if (name == null) return Optional.empty();
+        Location l = snapshot().byName().get(Snapshot.key(name));
+        if (l == null) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            l = reloadAfterMiss().byName().get(Snapshot.key(name));
+        } else {
+            CacheStats.getInstance().hit(CACHE_NAME);
+        }
+        return Optional.ofNullable(l);
+    }
+
+    /**
+     * Location for a product's location text; blank means Warehouse A. Creates it if missing.
+     */
+    public Location findOrCreate(String name) {
+        String target = (name == null || name.isBlank()) ? "Warehouse A" : name;
+        Location l = snapshot().byName().get(Snapshot.key(target));
+        if (l != null) return l;
+        Location created = locationDao.findOrCreateByName(target);
+        return reload().byId().getOrDefault(created.id(), created);
+    }
+
+    public Location create(String name) {
+        Location created = locationDao.create(name);
+        return reload().byId().getOrDefault(created.id(), created);
+    }
+
+    public void delete(int id) {
+        locationDao.delete(id);
+        reload();
+    }
+
+    /**
+     * The dictionary's instance of {@code name} if it is a known location, otherwise {@code name}.
+     */
+    public String intern(String name) {
+        if (name == null) return null;
+        Location l = snapshot().byName().get(Snapshot.key(name));
+        return l != null && l.name().equals(name) ? l.name() : name;
+    }
+
+    /**
+     * Reload from the database, e.g. before showing a screen where stale names would matter.
+     */
+    public void refresh() {
+        reload();
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot s = Snapshot.of(locationDao.findAll());
+        snapshot = s;
+        return s;
+    }
+
+    private Snapshot reloadAfterMiss() {
+        Snapshot s = snapshot();
+        if (!dueAfterMiss(s)) return s;
+        synchronized (this) {
+            // Another miss may have reloaded while this one waited
+            s = snapshot;
+            return dueAfterMiss(s) ? reload() : s;
+        }
+    }
+
+    private static boolean dueAfterMiss(Snapshot s) {
+        return System.nanoTime() - s.loadedAtNanos() >= TimeUnit.MILLISECONDS.toNanos(MISS_RELOAD_INTERVAL_MILLIS);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        return s != null ? s : reload();
+    }
+}
@@ -0,0 +1,423 @@
+package com.javafx.demo.app;
+
+import com.javafx.demo.dao.ProductDao;
+import com.javafx.demo.metrics.CacheStats;
+import com.javafx.demo.model.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * In-memory search over product names for typeahead pickers.
+ *
+ * The lower-cased names and every later word start within them are kept in sorted maps, so
+ * "wid" finds both "Widget A" and "Large Widget" with a range lookup. Each trigram of a name
+ * also has a sorted id list, so a query of three or more characters matches inside words too;
+ * a shorter one has no trigram to narrow by and scans the names instead. Matches on the start of
+ * the name rank first, then on the start of a later word, then anywhere; ties are ordered by
+ * name. Units are kept too, so a typeahead list can be shown without a query.
+ *
+ * {@code ProductService} keeps the index in step with products it creates, renames and deletes.
+ * Changes made on other terminals are picked up by {@link #refreshIfOlderThan}, which screens
+ * run in the background when they open and the API server calls on its product endpoints.
+ *
+ * A reload builds a new index without holding the lock and swaps it in. {@link #put} and
+ * {@link #remove} calls made while it read the table are logged and replayed onto the new index
+ * before the swap, so a product created or deleted meanwhile is not lost or brought back.
+ */
+public final class ProductSearchIndex {
+    private static final Logger LOG = Logger.getLogger(ProductSearchIndex.class.getName());
+    private static final ProductSearchIndex INSTANCE = new ProductSearchIndex();
+    // Later-word entries examined per query before giving up on finding more
+    private static final int MAX_WORD_SCAN = 2_000;
+    private static final String CACHE_NAME = "product_index";
+
+    public record Hit(int id, String name, String unit) {}
+
+    /** A logged {@link #put}, or a {@link #remove} when {@code name} is null. */
+    private record Change(long seq, int id, String name, String unit) {}
+
+    private final ProductDao productDao = new ProductDao();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+    private long loadedAtNanos;
+    private boolean loaded;
+    /** Sequence number of the last put or remove. */
+    private long changes;
+    private int reloadsReading;
+    // Puts and removes since the oldest running reload started reading, in order
+    private final List<Change> changeLog = new ArrayList<>();
+
+    private ProductSearchIndex() {}
+
+    public static ProductSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Rebuild from the products table, keeping the puts and removes made while it was read.
+     */
+    public void reload() {
+        long t0 = System.nanoTime();
+        long since;
+        lock.writeLock().lock();
+        try {
+            reloadsReading++;
+            since = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index built;
+        int count;
+        try {
+            List<ProductSummary> products = productDao.findAllSummaries();
+            count = products.size();
+            built = Index.build(products);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                finishReadingLocked();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Change ch : changeLog) {
+                if (ch.seq() <= since) continue;
+                built.remove(ch.id());
+                if (ch.name() != null) built.add(ch.id(), ch.name(), ch.unit());
+            }
+            index = built;
+            loadedAtNanos = System.nanoTime();
+            loaded = true;
+        } finally {
+            finishReadingLocked();
+            lock.writeLock().unlock();
+        }
+        LOG.info(String.format("Product search index built for %d products in %d ms",
+            count, (System.nanoTime() - t0) / 1_000_000));
+    }
+
+    public void refreshIfOlderThan(long maxAgeMillis) {
+        if (isOlderThan(maxAgeMillis)) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            reload();
+        }
+    }
+
+    /**
+     * Whether {@link #refreshIfOlderThan} would reload, e.g. to decide on the FX thread whether
+     * to hand the refresh to a background thread.
+     */
+    public boolean isOlderThan(long maxAgeMillis) {
+        lock.readLock().lock();
+        try {
+            return !loaded || (System.nanoTime() - loadedAtNanos) / 1_000_000 > maxAgeMillis;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether searches can be answered without a first load.
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a product or update its name and unit.
+     */
+    public void put(int id, String name, String unit) {
+        lock.writeLock().lock();
+        try {
+            record(id, name, unit);
+            // Not loaded yet: the first load reads the committed state anyway
+            if (!loaded) return;
+            index.remove(id);
+            index.add(id, name, unit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            record(id, null, null);
+            if (!loaded) return;
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} products whose name matches {@code query}, best first. A blank query
+     * returns the first products by name.
+     */
+    public List<Hit> search(String query, int limit) {
+        ensureLoaded();
+        String q = normalize(query == null ? "" : query);
+        lock.readLock().lock();
+        try {
+            Index ix = index;
+            Set<Integer> ranked = new LinkedHashSet<>();
+            for (Integer id : prefixRange(ix.byName, q).values()) {
+                if (ranked.size() >= limit) break;
+                ranked.add(id);
+            }
+            int scanned = 0;
+            for (Integer id : prefixRange(ix.laterWords, q).values()) {
+                if (ranked.size() >= limit || ++scanned > MAX_WORD_SCAN) break;
+                ranked.add(id);
+            }
+            if (ranked.size() < limit && !q.isEmpty()) {
+                List<Integer> inside = new ArrayList<>();
+                if (q.length() >= 3) {
+                    for (int id : ix.trigramCandidates(q)) {
+                        if (!ranked.contains(id) && ix.normalized.get(id).contains(q)) inside.add(id);
+                    }
+                } else {
+                    // "10" should still find "Bolt M10"
+                    for (Map.Entry<Integer, String> e : ix.normalized.entrySet()) {
+                        if (!ranked.contains(e.getKey()) && e.getValue().contains(q)) inside.add(e.getKey());
+                    }
+                }
+                inside.sort(Comparator.comparing(ix.normalized::get));
+                ranked.addAll(inside);
+            }
+            List<Hit> hits = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (Integer id : ranked) {
+                if (hits.size() == limit) break;
+                hits.add(new Hit(id, ix.names.get(id), ix.units.get(id)));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static NavigableMap<String, Integer> prefixRange(NavigableMap<String, Integer> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded()) {
+            CacheStats.getInstance().hit(CACHE_NAME);
+        } else {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            reload();
+        }
+    }
+
+    private void record(int id, String name, String unit) {
+        changes++;
+        if (reloadsReading > 0) changeLog.add(new Change(changes, id, name, unit));
+    }
+
+    private void finishReadingLocked() {
+        if (--reloadsReading == 0) changeLog.clear();
+    }
+
+    /**
+     * The searchable structures. A reload builds a fresh one; puts and removes patch the current one
+     * under the write lock.
+     */
+    private static final class Index {
+        final Map<Integer, String> names = new HashMap<>();
+        final Map<Integer, String> units = new HashMap<>();
+        final Map<Integer, String> normalized = new HashMap<>();
+        // "<name>\0<id>" -> id
+        final NavigableMap<String, Integer> byName = new TreeMap<>();
+        // "<name from the start of its second, third, ... word>\0<id>" -> id
+        final NavigableMap<String, Integer> laterWords = new TreeMap<>();
+        final Map<Long, int[]> trigrams = new HashMap<>();
+
+        /**
+         * Index all {@code products} in one pass: trigram postings are appended to growable lists
+         * and each is sorted once, rather than copying a posting array for every product.
+         */
+        static Index build(List<ProductSummary> products) {
+            Index ix = new Index();
+            Map<Long, IdList> postings = new HashMap<>();
+            for (ProductSummary p : products) {
+                String norm = ix.addNames(p.id(), p.name(), p.unit());
+                for (long g : trigramsOf(norm)) {
+                    postings.computeIfAbsent(g, k -> new IdList()).add(p.id());
+                }
+            }
+            for (Map.Entry<Long, IdList> e : postings.entrySet()) {
+                ix.trigrams.put(e.getKey(), e.getValue().toSortedArray());
+            }
+            return ix;
+        }
+
+        /**
+         * Add one product; each of its trigram postings is copied, so use {@link #build} for many.
+         */
+        void add(int id, String name, String unit) {
+            String norm = addNames(id, name, unit);
+            for (long g : trigramsOf(norm)) {
+                int[] ids = trigrams.get(g);
+                trigrams.put(g, ids == null ? new int[] {id} : insertSorted(ids, id));
+            }
+        }
+
+        void remove(int id) {
+            String norm = normalized.remove(id);
+            names.remove(id);
+            units.remove(id);
+            if (norm == null) return;
+            byName.remove(norm + '\0' + id);
+            for (int i = 1; i < norm.length(); i++) {
+                if (norm.charAt(i - 1) == ' ') {
+                    laterWords.remove(norm.substring(i) + '\0' + id);
+                }
+            }
+            for (long g : trigramsOf(norm)) {
+                int[] ids = trigrams.get(g);
+                if (ids == null) continue;
+                int[] rest = removeSorted(ids, id);
+                if (rest.length == 0) {
+                    trigrams.remove(g);
+                } else {
+                    trigrams.put(g, rest);
+                }
+            }
+        }
+
+        /**
+         * Ids whose names contain every trigram of {@code q}; the caller still checks the substring.
+         */
+        int[] trigramCandidates(String q) {
+            long[] grams = trigramsOf(q);
+            int[][] lists = new int[grams.length][];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = trigrams.get(grams[i]);
+                if (lists[i] == null) return new int[0];
+            }
+            // Intersect starting from the shortest list
+            Arrays.sort(lists, Comparator.comparingInt(a -> a.length));
+            int[] result = lists[0];
+            for (int i = 1; i < lists.length && result.length > 0; i++) {
+                result = intersect(result, lists[i]);
+            }
+            return result;
+        }
+
+        private String addNames(int id, String name, String unit) {
+            String norm = normalize(name);
+            names.put(id, name);
+            units.put(id, unit);
+            normalized.put(id, norm);
+            byName.put(norm + '\0' + id, id);
+            for (int i = 1; i < norm.length(); i++) {
+                if (norm.charAt(i - 1) == ' ') {
+                    laterWords.put(norm.substring(i) + '\0' + id, id);
+                }
+            }
+            return norm;
+        }
+    }
+
+    /** Growable posting list used while building. */
+    private static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        int[] toSortedArray() {
+            // Products arrive ordered by name, not id
+            int[] out = Arrays.copyOf(ids, size);
+            Arrays.sort(out);
+            return out;
+        }
+    }
+
+    static String normalize(String s) {
+        return s.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] trigramsOf(String s) {
+        if (s.length() < 3) return new long[0];
+        long[] out = new long[s.length() - 2];
+        int n = 0;
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            long g = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+            out[n++] = g;
+        }
+        return Arrays.stream(out, 0, n).distinct().toArray();
+    }
+
+    private static int[] insertSorted(int[] a, int v) {
+        int pos = Arrays.binarySearch(a, v);
+        if (pos >= 0) return a;
+        pos = -pos - 1;
+        int[] out = new int[a.length + 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        out[pos] = v;
+        System.arraycopy(a, pos, out, pos + 1, a.length - pos);
+        return out;
+    }
+
+    private static int[] removeSorted(int[] a, int v) {
+        int pos = Arrays.binarySearch(a, v);
+        if (pos < 0) return a;
+        int[] out = new int[a.length - 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        System.arraycopy(a, pos + 1, out, pos, a.length - pos - 1);
+        return out;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,171 @@
+package com.javafx.demo.app;
+
+import com.javafx.demo.dao.SettingsDao;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.CacheStats;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory view of the {@code settings} table.
+ *
+ * The table is loaded once into an immutable snapshot and reads are served from memory. Writes go
+ * to the database first and then replace the snapshot. A background poll compares the table's
+ * version sum with the snapshot's and reloads when another terminal has changed something.
+ *
+ * Listeners are called with the new value (null if removed) on the thread that noticed the change:
+ * the writer's thread for local writes, a {@link DbExecutor} thread for remote ones. UI code
+ * must hop to the FX thread itself.
+ */
+public final class SettingsStore {
+    private static final Logger LOG = Logger.getLogger(SettingsStore.class.getName());
+    private static final SettingsStore INSTANCE = new SettingsStore();
+    private static final String CACHE_NAME = "settings";
+    private static final int POLL_SECONDS = 10;
+
+    private final SettingsDao settingsDao = new SettingsDao();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile SettingsDao.Snapshot snapshot;
+    private ScheduledFuture<?> poller;
+
+    private record Listener(String key, Consumer<String> callback) {}
+
+    private SettingsStore() {}
+
+    public static SettingsStore getInstance() {
+        return INSTANCE;
+    }
+
+    public String get(String key) {
+        return snapshot().values().get(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        return snapshot().values().getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String v = get(key);
+        if (v == null) return defaultValue;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public void set(String key, String value) {
+        setAll(Map.of(key, value));
+    }
+
+    /**
+     * Write several settings, then publish them as one snapshot change.
+     */
+    public void setAll(Map<String, String> values) {
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            settingsDao.set(e.getKey(), e.getValue());
+        }
+        refresh(true);
+    }
+
+    /**
+     * Watch one key. The returned handle removes the listener when run.
+     */
+    public Runnable addListener(String key, Consumer<String> callback) {
+        Listener listener = new Listener(key, callback);
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Start polling for changes made by other terminals. Safe to call more than once.
+     */
+    public synchronized void startPolling() {
+        if (poller != null) return;
+        poller = DbExecutor.getInstance().scheduleAtFixedRate("settings-poller", () -> {
+            try {
+                refresh(false);
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Settings poll failed", e);
+            }
+        }, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopPolling() {
+        if (poller != null) {
+            poller.cancel(false);
+            poller = null;
+        }
+    }
+
+    private SettingsDao.Snapshot snapshot() {
+        SettingsDao.Snapshot s = snapshot;
+        if (s != null) {
+            CacheStats.getInstance().hit(CACHE_NAME);
+        } else {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = freeze(settingsDao.loadAll());
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * @param force reload even if the version sum is unchanged
+     */
+    private void refresh(boolean force) {
+        Map<String, String> changed;
+        synchronized (this) {
+            SettingsDao.Snapshot old = snapshot;
+            if (!force && old != null && settingsDao.currentVersion() == old.version()) {
+                return;
+            }
+            SettingsDao.Snapshot fresh = freeze(settingsDao.loadAll());
+            snapshot = fresh;
+            if (old == null) return;
+            changed = diff(old.values(), fresh.values());
+        }
+        for (Map.Entry<String, String> e : changed.entrySet()) {
+            for (Listener l : listeners) {
+                if (!l.key().equals(e.getKey())) continue;
+                try {
+                    l.callback().accept(e.getValue());
+                } catch (RuntimeException ex) {
+                    LOG.log(Level.WARNING, "Settings listener for " + e.getKey() + " failed", ex);
+                }
+            }
+        }
+    }
+
+    private static SettingsDao.Snapshot freeze(SettingsDao.Snapshot s) {
+        return new SettingsDao.Snapshot(Map.copyOf(s.values()), s.version());
+    }
+
+    private static Map<String, String> diff(Map<String, String> before, Map<String, String> after) {
+        Map<String, String> changed = new HashMap<>();
+        for (Map.Entry<String, String> e : after.entrySet()) {
+            if (!Objects.equals(before.get(e.getKey()), e.getValue())) {
+                changed.put(e.getKey(), e.getValue());
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                changed.put(key, null);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,357 @@
+package com.javafx.demo.app;
+
+import com.javafx.demo.dao.ProductStockDao;
+import com.javafx.demo.metrics.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * In-memory product x location quantities, mirroring {@code product_stock}.
+ *
+ * Each product has an {@code int[]} row indexed by a per-location slot; per-location and overall
+ * totals and the products held per location are kept alongside, so per-product, per-location and
+ * total queries need no JDBC. The matrix is loaded with one query and afterwards patched by
+ * {@link #apply} as {@code InventoryService} commits stock changes. Changes made on other
+ * terminals are picked up by {@link #refreshIfOlderThan}, which the product log runs in the
+ * background when it shows a product's stock and the API server calls on its product endpoints. Paged stock
+ * tables query {@code product_stock} instead, since they sort by name and seek by keyset.
+ *
+ * Writers bracket their commit and the matching {@link #apply} with {@link #beginCommit} and
+ * {@link #endCommit}. A reload holds off those brackets only while it starts a consistent
+ * snapshot, so every local change is either in the snapshot or applied after it started. The
+ * changes applied after that point are logged while the reload reads and replayed onto the
+ * snapshot before it replaces the matrix, so a reload never drops a movement and never has to
+ * be retried.
+ */
+public final class StockMatrix {
+    private static final Logger LOG = Logger.getLogger(StockMatrix.class.getName());
+    private static final StockMatrix INSTANCE = new StockMatrix();
+    private static final String CACHE_NAME = "stock_matrix";
+
+    /** One non-zero product/location quantity. */
+    public record Cell(int productId, int locationId, int quantity) {}
+
+    private final ProductStockDao stockDao = new ProductStockDao();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Shared by commit brackets, exclusive while a reload starts its snapshot
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    private final Map<Integer, int[]> rows = new HashMap<>();
+    private final Map<Integer, Integer> slotByLocation = new HashMap<>();
+    private final List<Set<Integer>> productsBySlot = new ArrayList<>();
+    private int[] locationBySlot = new int[0];
+    private long[] locationTotals = new long[0];
+    private long grandTotal;
+    private long loadedAtNanos;
+    private boolean loaded;
+    /** Sequence number of the last local change. */
+    private long changes;
+    private int reloadsReading;
+    // Local changes since the oldest running reload started its snapshot, in order
+    private final List<Change> changeLog = new ArrayList<>();
+
+    /** A logged local change; {@code locationId} is 0 when the whole product was removed. */
+    private record Change(long seq, int productId, int locationId, int delta) {}
+
+    private StockMatrix() {}
+
+    public static StockMatrix getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Rebuild from {@code product_stock}, keeping the local changes applied while it was read.
+     */
+    public void reload() {
+        // Sequence number of the last change in the snapshot; -1 until it has started
+        long[] since = {-1};
+        List<Cell> cells;
+        try {
+            cells = stockDao.findAllCells(() -> {
+                commitGate.writeLock().lock();
+                lock.writeLock().lock();
+                try {
+                    reloadsReading++;
+                    since[0] = changes;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }, () -> commitGate.writeLock().unlock());
+        } catch (RuntimeException e) {
+            if (since[0] >= 0) finishReading();
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            rebuildLocked(cells);
+            int replayed = 0;
+            for (Change ch : changeLog) {
+                if (ch.seq() <= since[0]) continue;
+                if (ch.locationId() == 0) {
+                    removeLocked(ch.productId());
+                } else {
+                    addLocked(ch.productId(), ch.locationId(), ch.delta());
+                }
+                replayed++;
+            }
+            if (replayed > 0) LOG.fine("Replayed " + replayed + " local stock change(s) onto the reloaded matrix");
+            loadedAtNanos = System.nanoTime();
+            loaded = true;
+        } finally {
+            finishReadingLocked();
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void refreshIfOlderThan(long maxAgeMillis) {
+        if (isOlderThan(maxAgeMillis)) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            reload();
+        }
+    }
+
+    /**
+     * Whether {@link #refreshIfOlderThan} would reload, e.g. to decide on the FX thread whether
+     * to hand the refresh to a background thread.
+     */
+    public boolean isOlderThan(long maxAgeMillis) {
+        lock.readLock().lock();
+        try {
+            return !loaded || (System.nanoTime() - loadedAtNanos) / 1_000_000 > maxAgeMillis;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether queries can be answered without a first load.
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Call just before committing a change to {@code product_stock}, and {@link #endCommit} in a
+     * {@code finally} once it is committed and applied here, or has failed. Keep the bracket short:
+     * a reload waits for it before starting its snapshot.
+     */
+    public void beginCommit() {
+        commitGate.readLock().lock();
+    }
+
+    public void endCommit() {
+        commitGate.readLock().unlock();
+    }
+
+    /**
+     * Apply a committed change of {@code delta} units at one location.
+     */
+    public void apply(int productId, int locationId, int delta) {
+        lock.writeLock().lock();
+        try {
+            record(productId, locationId, delta);
+            // Not loaded yet: the first load reads the committed state anyway
+            if (!loaded) return;
+            addLocked(productId, locationId, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(int productId) {
+        lock.writeLock().lock();
+        try {
+            record(productId, 0, 0);
+            // Not loaded yet: the first load reads the committed state anyway
+            if (!loaded) return;
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int quantity(int productId, int locationId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return quantityLocked(productId, locationId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int totalForProduct(int productId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] row = rows.get(productId);
+            if (row == null) return 0;
+            int sum = 0;
+            for (int q : row) sum += q;
+            return sum;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long totalForLocation(int locationId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer slot = slotByLocation.get(locationId);
+            return slot == null ? 0 : locationTotals[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long grandTotal() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return grandTotal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Locations holding the product, in no particular order.
+     */
+    public List<Cell> forProduct(int productId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] row = rows.get(productId);
+            if (row == null) return List.of();
+            List<Cell> out = new ArrayList<>(2);
+            for (int slot = 0; slot < row.length; slot++) {
+                if (row[slot] > 0) out.add(new Cell(productId, locationBySlot[slot], row[slot]));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products held at the location, in no particular order.
+     */
+    public List<Cell> forLocation(int locationId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer slot = slotByLocation.get(locationId);
+            if (slot == null) return List.of();
+            Set<Integer> held = productsBySlot.get(slot);
+            List<Cell> out = new ArrayList<>(held.size());
+            for (int productId : held) {
+                out.add(new Cell(productId, locationId, rows.get(productId)[slot]));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded()) {
+            CacheStats.getInstance().hit(CACHE_NAME);
+        } else {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            reload();
+        }
+    }
+
+    private void record(int productId, int locationId, int delta) {
+        changes++;
+        if (reloadsReading > 0) changeLog.add(new Change(changes, productId, locationId, delta));
+    }
+
+    private void finishReading() {
+        lock.writeLock().lock();
+        try {
+            finishReadingLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void finishReadingLocked() {
+        if (--reloadsReading == 0) changeLog.clear();
+    }
+
+    private void removeLocked(int productId) {
+        int[] row = rows.remove(productId);
+        if (row == null) return;
+        for (int slot = 0; slot < row.length; slot++) {
+            locationTotals[slot] -= row[slot];
+            grandTotal -= row[slot];
+            productsBySlot.get(slot).remove(productId);
+        }
+    }
+
+    private void rebuildLocked(List<Cell> cells) {
+        rows.clear();
+        slotByLocation.clear();
+        productsBySlot.clear();
+        locationBySlot = new int[0];
+        locationTotals = new long[0];
+        grandTotal = 0;
+        for (Cell c : cells) {
+            addLocked(c.productId(), c.locationId(), c.quantity());
+        }
+    }
+
+    private int quantityLocked(int productId, int locationId) {
+        int[] row = rows.get(productId);
+        Integer slot = slotByLocation.get(locationId);
+        return row == null || slot == null || slot >= row.length ? 0 : row[slot];
+    }
+
+    private void addLocked(int productId, int locationId, int delta) {
+        int slot = slotFor(locationId);
+        int[] row = rows.get(productId);
+        if (row == null || row.length <= slot) {
+            row = row == null ? new int[locationBySlot.length] : Arrays.copyOf(row, locationBySlot.length);
+            rows.put(productId, row);
+        }
+        // Zero-quantity rows are deleted from product_stock, so never go below zero here either
+        int updated = Math.max(0, row[slot] + delta);
+        int change = updated - row[slot];
+        row[slot] = updated;
+        if (updated > 0) {
+            productsBySlot.get(slot).add(productId);
+        } else {
+            productsBySlot.get(slot).remove(productId);
+        }
+        locationTotals[slot] += change;
+        grandTotal += change;
+    }
+
+    private int slotFor(int locationId) {
+        Integer slot = slotByLocation.get(locationId);
+        if (slot != null) return slot;
+        int s = locationBySlot.length;
+        locationBySlot = Arrays.copyOf(locationBySlot, s + 1);
+        locationBySlot[s] = locationId;
+        locationTotals = Arrays.copyOf(locationTotals, s + 1);
+        productsBySlot.add(new HashSet<>());
+        slotByLocation.put(locationId, s);
+        return s;
+    }
+}
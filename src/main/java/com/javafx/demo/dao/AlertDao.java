@@ -1,5 +1,6 @@
 package com.javafx.demo.dao;
 
+import com.javafx.demo.db.CancelToken;
 import com.javafx.demo.db.Database;
 import com.javafx.demo.model.Alert;
 
@@ -43,6 +44,17 @@ public class AlertDao {
     public List<Alert> findFiltered(Integer productId, String status,
                                     java.time.LocalDate fromDate, java.time.LocalDate toDate,
                                     int limit, int offset) {
+        return findFiltered(productId, status, fromDate, toDate, limit, offset, null);
+    }
+
+    /**
+     * One page of alerts, newest first. The counts for a pager come from {@link #countsFiltered},
+     * which callers run once per set of filters rather than once per page. {@code token} may be
+     * null; cancelling it aborts the query.
+     */
+    public List<Alert> findFiltered(Integer productId, String status,
+                                    java.time.LocalDate fromDate, java.time.LocalDate toDate,
+                                    int limit, int offset, CancelToken token) {
         StringBuilder sb = new StringBuilder();
         sb.append("""
             SELECT id, product_id, log_id, alert_type, message, status, created_at, resolved_at, resolved_by
@@ -50,22 +62,7 @@ public class AlertDao {
             WHERE 1=1
             """);
         java.util.List<Object> params = new java.util.ArrayList<>();
-        if (productId != null) {
-            sb.append(" AND product_id = ?");
-            params.add(productId);
-        }
-        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
-            sb.append(" AND status = ?");
-            params.add(status);
-        }
-        if (fromDate != null) {
-            sb.append(" AND DATE(created_at) >= ?");
-            params.add(java.sql.Date.valueOf(fromDate));
-        }
-        if (toDate != null) {
-            sb.append(" AND DATE(created_at) <= ?");
-            params.add(java.sql.Date.valueOf(toDate));
-        }
+        appendFilters(sb, params, productId, status, fromDate, toDate);
         sb.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
         params.add(limit);
         params.add(offset);
@@ -76,10 +73,13 @@ public class AlertDao {
             for (int i = 0; i < params.size(); i++) {
                 ps.setObject(i + 1, params.get(i));
             }
+            if (token != null) token.register(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     alerts.add(mapRow(rs));
                 }
+            } finally {
+                if (token != null) token.unregister(ps);
             }
         } catch (SQLException e) {
             throw new RuntimeException("findFiltered failed", e);
@@ -87,27 +87,42 @@ public class AlertDao {
         return alerts;
     }
 
+    /**
+     * Alerts matching the filters and how many of those are unresolved.
+     */
+    public record AlertCounts(int total, int unresolved) {}
+
+    /**
+     * Both counts the alerts view shows, in one statement.
+     */
+    public AlertCounts countsFiltered(Integer productId, String status,
+                                      java.time.LocalDate fromDate, java.time.LocalDate toDate) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT COUNT(*) AS total, COALESCE(SUM(status = 'UNRESOLVED'), 0) AS unresolved FROM alerts WHERE 1=1");
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        appendFilters(sb, params, productId, status, fromDate, toDate);
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sb.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new AlertCounts(rs.getInt("total"), rs.getInt("unresolved"));
+                }
+                return new AlertCounts(0, 0);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("countsFiltered failed", e);
+        }
+    }
+
     public int countFiltered(Integer productId, String status,
                              java.time.LocalDate fromDate, java.time.LocalDate toDate) {
         StringBuilder sb = new StringBuilder();
         sb.append("SELECT COUNT(*) AS cnt FROM alerts WHERE 1=1");
         java.util.List<Object> params = new java.util.ArrayList<>();
-        if (productId != null) {
-            sb.append(" AND product_id = ?");
-            params.add(productId);
-        }
-        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
-            sb.append(" AND status = ?");
-            params.add(status);
-        }
-        if (fromDate != null) {
-            sb.append(" AND DATE(created_at) >= ?");
-            params.add(java.sql.Date.valueOf(fromDate));
-        }
-        if (toDate != null) {
-            sb.append(" AND DATE(created_at) <= ?");
-            params.add(java.sql.Date.valueOf(toDate));
-        }
+        appendFilters(sb, params, productId, status, fromDate, toDate);
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sb.toString())) {
             for (int i = 0; i < params.size(); i++) {
@@ -221,6 +236,26 @@ public class AlertDao {
         }
     }
 
+    private static void appendFilters(StringBuilder sb, java.util.List<Object> params, Integer productId, String status,
+                                      java.time.LocalDate fromDate, java.time.LocalDate toDate) {
+        if (productId != null) {
+            sb.append(" AND product_id = ?");
+            params.add(productId);
+        }
+        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
+            sb.append(" AND status = ?");
+            params.add(status);
+        }
+        if (fromDate != null) {
+            sb.append(" AND DATE(created_at) >= ?");
+            params.add(java.sql.Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            sb.append(" AND DATE(created_at) <= ?");
+            params.add(java.sql.Date.valueOf(toDate));
+        }
+    }
+
     private Alert mapRow(ResultSet rs) throws SQLException {
         Integer logId = rs.getObject("log_id", Integer.class);
         Timestamp createdAt = rs.getTimestamp("created_at");
@@ -0,0 +1,234 @@
+package com.javafx.demo.dao;
+
+import com.javafx.demo.db.Database;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public class JobDao {
+
+    public record JobState(String name, String runAt, boolean enabled, LocalDateTime lastScheduledFor,
+                           LocalDateTime lastStartedAt, Long lastDurationMs, String lastStatus, String lastError) {}
+
+    /**
+     * Insert the job definition if it does not exist yet; existing definitions are left untouched.
+     */
+    public void ensureJob(String name, String runAt) {
+        String sql = "INSERT IGNORE INTO scheduled_jobs(name, run_at) VALUES(?, ?)";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setString(2, runAt);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("ensureJob failed", e);
+        }
+    }
+
+    public Optional<JobState> findByName(String name) {
+        String sql = """
+            SELECT name, run_at, enabled, last_scheduled_for, last_started_at, last_duration_ms, last_status, last_error
+            FROM scheduled_jobs
+            WHERE name = ?
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapState(rs));
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("findByName job failed", e);
+        }
+    }
+
+    public void updateRunAt(String name, String runAt) {
+        String sql = "UPDATE scheduled_jobs SET run_at = ? WHERE name = ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, runAt);
+            ps.setString(2, name);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("updateRunAt failed", e);
+        }
+    }
+
+    /**
+     * Record a starting point for a job that has never run, so it does not catch up on history.
+     */
+    public void initializeLastScheduled(String name, LocalDateTime slot) {
+        String sql = "UPDATE scheduled_jobs SET last_scheduled_for = ? WHERE name = ? AND last_scheduled_for IS NULL";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(slot));
+            ps.setString(2, name);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("initializeLastScheduled failed", e);
+        }
+    }
+
+    /**
+     * Take the job's lease row for {@code seconds}. Succeeds only if the lease is free or expired,
+     * including for the previous holder, so a lease kept after a failure also delays its own retry.
+     * Lease expiry uses the database clock so terminals with skewed clocks still agree.
+     */
+    public boolean tryAcquireLease(String name, String owner, int seconds) {
+        String sql = """
+            UPDATE scheduled_jobs
+            SET lease_owner = ?, lease_until = NOW() + INTERVAL ? SECOND
+            WHERE name = ?
+              AND (lease_until IS NULL OR lease_until < NOW())
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, owner);
+            ps.setInt(2, seconds);
+            ps.setString(3, name);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("tryAcquireLease failed", e);
+        }
+    }
+
+    /**
+     * Extend a lease held by {@code owner} to {@code seconds} from now.
+     *
+     * @return false if {@code owner} no longer holds the lease
+     */
+    public boolean renewLease(String name, String owner, int seconds) {
+        String sql = "UPDATE scheduled_jobs SET lease_until = NOW() + INTERVAL ? SECOND WHERE name = ? AND lease_owner = ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, seconds);
+            ps.setString(2, name);
+            ps.setString(3, owner);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("renewLease failed", e);
+        }
+    }
+
+    /**
+     * Record a successful run for {@code slot}, advance the job past it and release the lease.
+     * If {@code owner} had lost the lease the job is left as it is, since another terminal may
+     * be running the slot, and the run is recorded as {@code LEASE_LOST}.
+     *
+     * @return false if the lease had been lost
+     */
+    public boolean completeRun(String name, String owner, LocalDateTime slot, LocalDateTime startedAt, long durationMs) {
+        String update = """
+            UPDATE scheduled_jobs
+            SET last_scheduled_for = GREATEST(COALESCE(last_scheduled_for, ?), ?),
+                last_started_at = ?, last_duration_ms = ?, last_status = 'SUCCESS', last_error = NULL,
+                lease_owner = NULL, lease_until = NULL
+            WHERE name = ? AND lease_owner = ?
+            """;
+        boolean held;
+        try (Connection c = Database.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(update)) {
+                ps.setTimestamp(1, Timestamp.valueOf(slot));
+                ps.setTimestamp(2, Timestamp.valueOf(slot));
+                ps.setTimestamp(3, Timestamp.valueOf(startedAt));
+                ps.setLong(4, durationMs);
+                ps.setString(5, name);
+                ps.setString(6, owner);
+                held = ps.executeUpdate() == 1;
+            }
+            if (held) {
+                insertRun(c, name, slot, startedAt, durationMs, "SUCCESS", owner, null);
+            } else {
+                insertRun(c, name, slot, startedAt, durationMs, "LEASE_LOST", owner,
+                    "Finished after losing the lease; the slot may have run on another terminal");
+            }
+            c.commit();
+            return held;
+        } catch (SQLException e) {
+            throw new RuntimeException("completeRun failed", e);
+        }
+    }
+
+    /**
+     * Record a failed run. The lease is kept for {@code retryAfterSeconds} so no terminal retries
+     * the slot before then.
+     */
+    public void failRun(String name, String owner, LocalDateTime slot, LocalDateTime startedAt, long durationMs,
+                        String error, int retryAfterSeconds) {
+        String update = """
+            UPDATE scheduled_jobs
+            SET last_started_at = ?, last_duration_ms = ?, last_status = 'FAILED', last_error = ?,
+                lease_until = NOW() + INTERVAL ? SECOND
+            WHERE name = ? AND lease_owner = ?
+            """;
+        String trimmed = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        try (Connection c = Database.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(update)) {
+                ps.setTimestamp(1, Timestamp.valueOf(startedAt));
+                ps.setLong(2, durationMs);
+                ps.setString(3, trimmed);
+                ps.setInt(4, retryAfterSeconds);
+                ps.setString(5, name);
+                ps.setString(6, owner);
+                ps.executeUpdate();
+            }
+            insertRun(c, name, slot, startedAt, durationMs, "FAILED", owner, trimmed);
+            c.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("failRun failed", e);
+        }
+    }
+
+    public void releaseLease(String name, String owner) {
+        String sql = "UPDATE scheduled_jobs SET lease_owner = NULL, lease_until = NULL WHERE name = ? AND lease_owner = ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setString(2, owner);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("releaseLease failed", e);
+        }
+    }
+
+    private void insertRun(Connection c, String name, LocalDateTime slot, LocalDateTime startedAt, long durationMs,
+                           String status, String owner, String error) throws SQLException {
+        String sql = """
+            INSERT INTO job_runs(job_name, scheduled_for, started_at, duration_ms, status, owner, error)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setTimestamp(2, Timestamp.valueOf(slot));
+            ps.setTimestamp(3, Timestamp.valueOf(startedAt));
+            ps.setLong(4, durationMs);
+            ps.setString(5, status);
+            ps.setString(6, owner);
+            ps.setString(7, error);
+            ps.executeUpdate();
+        }
+    }
+
+    private JobState mapState(ResultSet rs) throws SQLException {
+        Timestamp lastScheduled = rs.getTimestamp("last_scheduled_for");
+        Timestamp lastStarted = rs.getTimestamp("last_started_at");
+        long duration = rs.getLong("last_duration_ms");
+        Long lastDuration = rs.wasNull() ? null : duration;
+        return new JobState(
+            rs.getString("name"),
+            rs.getString("run_at"),
+            rs.getBoolean("enabled"),
+            lastScheduled != null ? lastScheduled.toLocalDateTime() : null,
+            lastStarted != null ? lastStarted.toLocalDateTime() : null,
+            lastDuration,
+            rs.getString("last_status"),
+            rs.getString("last_error")
+        );
+    }
+}
@@ -58,11 +58,22 @@ public class LocationDao {
         }
     }
 
+    /**
+     * Race-safe: two terminals creating the same name both end up with the single row, since the
+     * INSERT IGNORE is followed by a re-read instead of relying on the generated key.
+     */
     public Location findOrCreateByName(String name) {
-        if (name == null || name.isBlank()) {
-            return findByName("Warehouse A").orElseGet(() -> create("Warehouse A"));
+        String target = (name == null || name.isBlank()) ? "Warehouse A" : name;
+        Optional<Location> existing = findByName(target);
+        if (existing.isPresent()) return existing.get();
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement("INSERT IGNORE INTO locations(name) VALUES(?)")) {
+            ps.setString(1, target);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("findOrCreateByName location failed", e);
         }
-        return findByName(name).orElseGet(() -> create(name));
+        return findByName(target).orElseThrow(() -> new RuntimeException("Failed to create location " + target));
     }
 
     public Location create(String name) {
@@ -1,5 +1,6 @@
 package com.javafx.demo.dao;
 
+import com.javafx.demo.db.CancelToken;
 import com.javafx.demo.db.Database;
 import com.javafx.demo.model.ProductLog;
 
@@ -11,12 +12,23 @@ import java.util.List;
 public class LogDao {
 
     public ProductLog create(int productId, int userId, String actionType, int quantity, String notes) {
+        try (Connection c = Database.getConnection()) {
+            return create(productId, userId, actionType, quantity, notes, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("create log failed", e);
+        }
+    }
+
+    /**
+     * Insert the log row on {@code c}, so it commits or rolls back with the caller's transaction.
+     */
+    public ProductLog create(int productId, int userId, String actionType, int quantity, String notes,
+                             Connection c) throws SQLException {
         String sql = """
             INSERT INTO logs (product_id, user_id, action_type, quantity, notes)
             VALUES (?, ?, ?, ?, ?)
             """;
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, productId);
             ps.setInt(2, userId);
             ps.setString(3, actionType);
@@ -28,23 +40,32 @@ public class LogDao {
                 if (rs.next()) {
                     int id = rs.getInt(1);
                     // Fetch the created log to get the timestamp
-                    return findById(id).orElseThrow();
+                    return findById(id, c).orElseThrow();
                 }
             }
             throw new RuntimeException("Failed to retrieve created log");
-        } catch (SQLException e) {
-            throw new RuntimeException("create log failed", e);
         }
     }
 
     public ProductLog createTransfer(int productId, int userId, int quantity, String notes,
                                      Integer fromLocationId, Integer toLocationId) {
+        try (Connection c = Database.getConnection()) {
+            return createTransfer(productId, userId, quantity, notes, fromLocationId, toLocationId, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("create transfer log failed", e);
+        }
+    }
+
+    /**
+     * Insert the transfer log row on {@code c}, inside the caller's transaction.
+     */
+    public ProductLog createTransfer(int productId, int userId, int quantity, String notes,
+                                     Integer fromLocationId, Integer toLocationId, Connection c) throws SQLException {
         String sql = """
             INSERT INTO logs (product_id, user_id, action_type, quantity, notes, from_location_id, to_location_id)
             VALUES (?, ?, 'TRANSFER', ?, ?, ?, ?)
             """;
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, productId);
             ps.setInt(2, userId);
             ps.setInt(3, quantity);
@@ -55,18 +76,27 @@ public class LogDao {
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) {
                     int id = rs.getInt(1);
-                    return findById(id).orElseThrow();
+                    return findById(id, c).orElseThrow();
                 }
             }
             throw new RuntimeException("Failed to retrieve created transfer log");
-        } catch (SQLException e) {
-            throw new RuntimeException("create transfer log failed", e);
         }
     }
 
     public List<ProductLog> findFiltered(Integer productId, Integer userId, String actionType,
                                          java.time.LocalDate fromDate, java.time.LocalDate toDate,
                                          int limit, int offset) {
+        return findFiltered(productId, userId, actionType, fromDate, toDate, limit, offset, null);
+    }
+
+    /**
+     * One page of logs, newest first. The total for a pager comes from {@link #countFiltered},
+     * which callers run once per set of filters rather than once per page. {@code token} may be
+     * null; cancelling it aborts the query.
+     */
+    public List<ProductLog> findFiltered(Integer productId, Integer userId, String actionType,
+                                         java.time.LocalDate fromDate, java.time.LocalDate toDate,
+                                         int limit, int offset, CancelToken token) {
         StringBuilder sb = new StringBuilder();
         sb.append("""
             SELECT id, product_id, user_id, action_type, quantity, timestamp, notes, from_location_id, to_location_id
@@ -74,26 +104,7 @@ public class LogDao {
             WHERE 1=1
             """);
         java.util.List<Object> params = new java.util.ArrayList<>();
-        if (productId != null) {
-            sb.append(" AND product_id = ?");
-            params.add(productId);
-        }
-        if (userId != null) {
-            sb.append(" AND user_id = ?");
-            params.add(userId);
-        }
-        if (actionType != null && !actionType.isBlank() && !"ALL".equalsIgnoreCase(actionType)) {
-            sb.append(" AND action_type = ?");
-            params.add(actionType);
-        }
-        if (fromDate != null) {
-            sb.append(" AND DATE(timestamp) >= ?");
-            params.add(java.sql.Date.valueOf(fromDate));
-        }
-        if (toDate != null) {
-            sb.append(" AND DATE(timestamp) <= ?");
-            params.add(java.sql.Date.valueOf(toDate));
-        }
+        appendFilters(sb, params, productId, userId, actionType, fromDate, toDate);
         sb.append(" ORDER BY timestamp DESC LIMIT ? OFFSET ?");
         params.add(limit);
         params.add(offset);
@@ -104,10 +115,13 @@ public class LogDao {
             for (int i = 0; i < params.size(); i++) {
                 ps.setObject(i + 1, params.get(i));
             }
+            if (token != null) token.register(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     logs.add(mapRow(rs));
                 }
+            } finally {
+                if (token != null) token.unregister(ps);
             }
         } catch (SQLException e) {
             throw new RuntimeException("findFiltered failed", e);
@@ -120,26 +134,7 @@ public class LogDao {
         StringBuilder sb = new StringBuilder();
         sb.append("SELECT COUNT(*) AS cnt FROM logs WHERE 1=1");
         java.util.List<Object> params = new java.util.ArrayList<>();
-        if (productId != null) {
-            sb.append(" AND product_id = ?");
-            params.add(productId);
-        }
-        if (userId != null) {
-            sb.append(" AND user_id = ?");
-            params.add(userId);
-        }
-        if (actionType != null && !actionType.isBlank() && !"ALL".equalsIgnoreCase(actionType)) {
-            sb.append(" AND action_type = ?");
-            params.add(actionType);
-        }
-        if (fromDate != null) {
-            sb.append(" AND DATE(timestamp) >= ?");
-            params.add(java.sql.Date.valueOf(fromDate));
-        }
-        if (toDate != null) {
-            sb.append(" AND DATE(timestamp) <= ?");
-            params.add(java.sql.Date.valueOf(toDate));
-        }
+        appendFilters(sb, params, productId, userId, actionType, fromDate, toDate);
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sb.toString())) {
             for (int i = 0; i < params.size(); i++) {
@@ -251,14 +246,94 @@ public class LogDao {
         return logs;
     }
 
+    /**
+     * Stream every log with an id above {@code afterId}, in id order, without buffering the
+     * result set in memory. The connection is held until the last row has been handed over.
+     * @return number of rows streamed
+     */
+    public int streamAfterId(int afterId, java.util.function.Consumer<ProductLog> sink) {
+        String sql = """
+            SELECT id, product_id, user_id, action_type, quantity, timestamp, notes, from_location_id, to_location_id
+            FROM logs
+            WHERE id > ?
+            ORDER BY id
+            """;
+        int count = 0;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one at a time instead of reading the whole table
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setInt(1, afterId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("streamAfterId failed", e);
+        }
+        return count;
+    }
+
+    /**
+     * Read up to {@code limit} logs positioned after ({@code afterTimestamp}, {@code afterId}) in
+     * (timestamp, id) order and no newer than {@code upTo}, through a server-side cursor.
+     * Pass a null {@code afterTimestamp} to start from the beginning.
+     * @return number of rows handed to the sink
+     */
+    public int streamByTimestamp(LocalDateTime afterTimestamp, int afterId, LocalDateTime upTo,
+                                 int limit, int fetchSize, java.util.function.Consumer<ProductLog> sink) {
+        StringBuilder sb = new StringBuilder("""
+            SELECT id, product_id, user_id, action_type, quantity, timestamp, notes, from_location_id, to_location_id
+            FROM logs
+            WHERE timestamp <= ?
+            """);
+        if (afterTimestamp != null) {
+            // Range on idx_timestamp, then skip rows already seen at the boundary timestamp
+            sb.append(" AND timestamp >= ? AND (timestamp > ? OR id > ?)");
+        }
+        sb.append(" ORDER BY timestamp, id LIMIT ?");
+        int count = 0;
+        try (Connection c = Database.getCursorConnection();
+             PreparedStatement ps = c.prepareStatement(sb.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            int i = 1;
+            ps.setTimestamp(i++, Timestamp.valueOf(upTo));
+            if (afterTimestamp != null) {
+                Timestamp after = Timestamp.valueOf(afterTimestamp);
+                ps.setTimestamp(i++, after);
+                ps.setTimestamp(i++, after);
+                ps.setInt(i++, afterId);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("streamByTimestamp failed", e);
+        }
+        return count;
+    }
+
     public java.util.Optional<ProductLog> findById(int id) {
+        try (Connection c = Database.getConnection()) {
+            return findById(id, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("findById failed", e);
+        }
+    }
+
+    private java.util.Optional<ProductLog> findById(int id, Connection c) throws SQLException {
         String sql = """
             SELECT id, product_id, user_id, action_type, quantity, timestamp, notes, from_location_id, to_location_id
             FROM logs
             WHERE id = ?
             """;
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -266,8 +341,6 @@ public class LogDao {
                 }
                 return java.util.Optional.empty();
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("findById failed", e);
         }
     }
 
@@ -309,6 +382,31 @@ public class LogDao {
         }
     }
 
+    private static void appendFilters(StringBuilder sb, java.util.List<Object> params,
+                                      Integer productId, Integer userId, String actionType,
+                                      java.time.LocalDate fromDate, java.time.LocalDate toDate) {
+        if (productId != null) {
+            sb.append(" AND product_id = ?");
+            params.add(productId);
+        }
+        if (userId != null) {
+            sb.append(" AND user_id = ?");
+            params.add(userId);
+        }
+        if (actionType != null && !actionType.isBlank() && !"ALL".equalsIgnoreCase(actionType)) {
+            sb.append(" AND action_type = ?");
+            params.add(actionType);
+        }
+        if (fromDate != null) {
+            sb.append(" AND DATE(timestamp) >= ?");
+            params.add(java.sql.Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            sb.append(" AND DATE(timestamp) <= ?");
+            params.add(java.sql.Date.valueOf(toDate));
+        }
+    }
+
     private ProductLog mapRow(ResultSet rs) throws SQLException {
         Timestamp timestamp = rs.getTimestamp("timestamp");
         Integer fromLoc = (Integer) rs.getObject("from_location_id");
@@ -2,6 +2,7 @@ package com.javafx.demo.dao;
 
 import com.javafx.demo.db.Database;
 import com.javafx.demo.model.Product;
+import com.javafx.demo.model.ProductSummary;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -75,6 +76,175 @@ public class ProductDao {
         return products;
     }
 
+    /**
+     * Products ordered by name without their descriptions, for lists and lookups.
+     */
+    public List<ProductSummary> findAllSummaries() {
+        String sql = """
+            SELECT id, name, unit, quantity
+            FROM products
+            ORDER BY name
+            """;
+        List<ProductSummary> products = new ArrayList<>();
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                products.add(mapSummary(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("findAllSummaries failed", e);
+        }
+        return products;
+    }
+
+    /**
+     * Up to {@code limit} summaries after {@code after} in (name, id) order; the first ones when
+     * {@code after} is null. Seeks on {@code idx_products_name}, so the cost does not grow with
+     * how far into the list the page is.
+     */
+    public List<ProductSummary> findSummariesAfter(ProductSummary after, int limit) {
+        String sql = after == null
+            ? "SELECT id, name, unit, quantity FROM products ORDER BY name, id LIMIT ?"
+            : """
+            SELECT id, name, unit, quantity
+            FROM products
+            WHERE name > ? OR (name = ? AND id > ?)
+            ORDER BY name, id
+            LIMIT ?
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            if (after != null) {
+                ps.setString(i++, after.name());
+                ps.setString(i++, after.name());
+                ps.setInt(i++, after.id());
+            }
+            ps.setInt(i, limit);
+            return readSummaries(ps);
+        } catch (SQLException e) {
+            throw new RuntimeException("findSummariesAfter failed", e);
+        }
+    }
+
+    public List<ProductSummary> findSummariesAt(int offset, int limit) {
+        String sql = "SELECT id, name, unit, quantity FROM products ORDER BY name, id LIMIT ? OFFSET ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            ps.setInt(2, offset);
+            return readSummaries(ps);
+        } catch (SQLException e) {
+            throw new RuntimeException("findSummariesAt failed", e);
+        }
+    }
+
+    /**
+     * Index of {@code p} in (name, id) order, or -1 if no product has that id and name any more.
+     * Counts the rows before it on {@code idx_products_name}.
+     */
+    public int positionOfSummary(ProductSummary p) {
+        String sql = """
+            SELECT (SELECT COUNT(*) FROM products WHERE name < ? OR (name = ? AND id < ?)),
+                   EXISTS(SELECT 1 FROM products WHERE id = ? AND name = ?)
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, p.name());
+            ps.setString(2, p.name());
+            ps.setInt(3, p.id());
+            ps.setInt(4, p.id());
+            ps.setString(5, p.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(2) ? rs.getInt(1) : -1;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("positionOfSummary failed", e);
+        }
+    }
+
+    public Optional<ProductSummary> findSummaryById(int id) {
+        String sql = "SELECT id, name, unit, quantity FROM products WHERE id = ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapSummary(rs));
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("findSummaryById failed", e);
+        }
+    }
+
+    /**
+     * Summaries for {@code ids}, in the order of {@code ids}; ids that no longer exist are skipped.
+     */
+    public List<ProductSummary> findSummariesByIds(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        String placeholders = String.join(",", java.util.Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT id, name, unit, quantity FROM products WHERE id IN (" + placeholders + ")";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setInt(i + 1, ids.get(i));
+            }
+            java.util.Map<Integer, ProductSummary> byId = new java.util.HashMap<>();
+            for (ProductSummary p : readSummaries(ps)) {
+                byId.put(p.id(), p);
+            }
+            List<ProductSummary> ordered = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                ProductSummary p = byId.get(id);
+                if (p != null) ordered.add(p);
+            }
+            return ordered;
+        } catch (SQLException e) {
+            throw new RuntimeException("findSummariesByIds failed", e);
+        }
+    }
+
+    /**
+     * Description of one product, or empty if the product does not exist or has none.
+     */
+    public Optional<String> findDescription(int id) {
+        String sql = "SELECT description FROM products WHERE id = ?";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(rs.getString(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("findDescription failed", e);
+        }
+    }
+
+    public int count() {
+        String sql = "SELECT COUNT(*) FROM products";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("count products failed", e);
+        }
+    }
+
+    public boolean isEmpty() {
+        String sql = "SELECT EXISTS(SELECT 1 FROM products)";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return !rs.next() || rs.getInt(1) == 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("isEmpty failed", e);
+        }
+    }
+
     public void update(Product product) {
         String sql = """
             UPDATE products
@@ -143,4 +313,23 @@ public class ProductDao {
             updatedAt != null ? updatedAt.toLocalDateTime() : null
         );
     }
+
+    private List<ProductSummary> readSummaries(PreparedStatement ps) throws SQLException {
+        List<ProductSummary> products = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                products.add(mapSummary(rs));
+            }
+        }
+        return products;
+    }
+
+    private ProductSummary mapSummary(ResultSet rs) throws SQLException {
+        return new ProductSummary(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("unit"),
+            rs.getInt("quantity")
+        );
+    }
 }
@@ -1,5 +1,7 @@
 package com.javafx.demo.dao;
 
+import com.javafx.demo.app.LocationDictionary;
+import com.javafx.demo.app.StockMatrix;
 import com.javafx.demo.db.Database;
 import java.sql.*;
 import java.util.ArrayList;
@@ -7,24 +9,58 @@ import java.util.List;
 
 public class ProductStockDao {
 
-    public record LocationStock(String locationName, int quantity) {}
+    private static final int BACKFILL_CHUNK_IDS = 10_000;
+    // Location names in result rows share the dictionary's instances
+    private final LocationDictionary locations = LocationDictionary.getInstance();
+    // Stock location for a product: its location name, or Warehouse A when blank
+    private static final String STOCK_LOCATION_NAME =
+        "CASE WHEN p.location IS NULL OR TRIM(p.location) = '' THEN 'Warehouse A' ELSE p.location END";
+    private static final String STOCK_ROW_COLUMNS =
+        "SELECT ps.product_id, p.name, p.unit, ps.location_id, l.name AS loc_name, ps.quantity ";
 
-    public record ProductWithQty(int productId, String name, String unit, int quantity) {}
+    /**
+     * Progress through the products id range during a backfill or repair.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long idsDone, long idsTotal);
+    }
 
-    public record ProductAtLocation(int productId, String name, String description, String unit, String locationName, int quantity) {}
+    public record StockRow(int productId, String productName, String unit, int locationId, String locationName, int quantity) {}
 
-    public int getQuantity(int productId, int locationId) {
-        String sql = "SELECT quantity FROM product_stock WHERE product_id = ? AND location_id = ?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, productId);
-            ps.setInt(2, locationId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getInt(1);
-                return 0;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("getQuantity failed", e);
+    /**
+     * Orders for paging stock rows. Each ends with the primary key columns so every row has a
+     * unique position and a page can continue after the last row of the previous one.
+     */
+    public enum StockSort {
+        PRODUCT("p.name", "ps.product_id", "ps.location_id"),
+        LOCATION("l.name", "ps.location_id", "p.name", "ps.product_id"),
+        QUANTITY("ps.quantity", "ps.product_id", "ps.location_id");
+
+        private final String[] columns;
+
+        StockSort(String... columns) {
+            this.columns = columns;
+        }
+
+        private Object[] key(StockRow r) {
+            return switch (this) {
+                case PRODUCT -> new Object[] {r.productName(), r.productId(), r.locationId()};
+                case LOCATION -> new Object[] {r.locationName(), r.locationId(), r.productName(), r.productId()};
+                case QUANTITY -> new Object[] {r.quantity(), r.productId(), r.locationId()};
+            };
+        }
+    }
+
+    /**
+     * Non-zero stock rows, optionally at one location, with a product name containing
+     * {@code nameContains} and/or for the products in {@code productIds}, in {@code sort} order.
+     */
+    public record StockQuery(Integer locationId, String nameContains, List<Integer> productIds,
+                             StockSort sort, boolean descending) {
+
+        public StockQuery(Integer locationId, String nameContains, StockSort sort, boolean descending) {
+            this(locationId, nameContains, null, sort, descending);
         }
     }
 
@@ -67,134 +103,240 @@ public class ProductStockDao {
         }
     }
 
-    public List<LocationStock> findByProduct(int productId) {
-        String sql = """
-            SELECT l.name, ps.quantity
-            FROM product_stock ps
-            JOIN locations l ON l.id = ps.location_id
-            WHERE ps.product_id = ? AND ps.quantity > 0
-            ORDER BY l.name
-            """;
-        List<LocationStock> result = new ArrayList<>();
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, productId);
-            try (ResultSet rs = ps.executeQuery()) {
+    public void cleanupZeroRows(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("DELETE FROM product_stock WHERE quantity <= 0")) {
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Every non-zero stock row as plain ids, for building {@link StockMatrix}.
+     */
+    public List<StockMatrix.Cell> findAllCells() {
+        return findAllCells(() -> {}, () -> {});
+    }
+
+    /**
+     * All non-zero cells as of one consistent snapshot. {@code beforeSnapshot} runs just before the
+     * snapshot starts and {@code afterSnapshot} (always, once the former has run) just after, so the
+     * caller can order its own commits against the snapshot.
+     */
+    public List<StockMatrix.Cell> findAllCells(Runnable beforeSnapshot, Runnable afterSnapshot) {
+        String sql = "SELECT product_id, location_id, quantity FROM product_stock WHERE quantity > 0";
+        List<StockMatrix.Cell> out = new ArrayList<>();
+        try (Connection c = Database.getConnection()) {
+            c.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            c.setAutoCommit(false);
+            beforeSnapshot.run();
+            try (Statement st = c.createStatement()) {
+                st.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT");
+            } finally {
+                afterSnapshot.run();
+            }
+            try (PreparedStatement ps = c.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    result.add(new LocationStock(rs.getString(1), rs.getInt(2)));
+                    out.add(new StockMatrix.Cell(rs.getInt(1), rs.getInt(2), rs.getInt(3)));
                 }
             }
+            c.commit();
         } catch (SQLException e) {
-            throw new RuntimeException("findByProduct stock failed", e);
+            throw new RuntimeException("findAllCells failed", e);
         }
-        return result;
+        return out;
     }
 
-    public List<ProductWithQty> findByLocation(int locationId) {
-        String sql = """
-            SELECT p.id, p.name, p.unit, ps.quantity
-            FROM product_stock ps
-            JOIN products p ON p.id = ps.product_id
-            WHERE ps.location_id = ? AND ps.quantity > 0
-            ORDER BY p.name
-            """;
-        List<ProductWithQty> out = new ArrayList<>();
+    public int countStock(StockQuery q) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) " + stockFrom(q, params);
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, locationId);
+            bind(ps, params);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(new ProductWithQty(
-                        rs.getInt(1),
-                        rs.getString(2),
-                        rs.getString(3),
-                        rs.getInt(4)
-                    ));
-                }
+                return rs.next() ? rs.getInt(1) : 0;
             }
         } catch (SQLException e) {
-            throw new RuntimeException("findByLocation failed", e);
+            throw new RuntimeException("countStock failed", e);
         }
-        return out;
     }
 
-    public void cleanupZeroRows(Connection c) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement("DELETE FROM product_stock WHERE quantity <= 0")) {
-            ps.executeUpdate();
+    /**
+     * Up to {@code limit} rows after {@code after} in the query's order; the first ones when
+     * {@code after} is null.
+     */
+    public List<StockRow> findStockAfter(StockQuery q, StockRow after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(STOCK_ROW_COLUMNS).append(stockFrom(q, params));
+        if (after != null) {
+            sql.append(" AND ").append(keyset(q, after, q.descending() ? " < ?" : " > ?", params));
         }
+        sql.append(orderBy(q)).append(" LIMIT ?");
+        params.add(limit);
+        return queryStockRows(sql.toString(), params, "findStockAfter");
     }
 
-    public List<ProductAtLocation> findAllPerLocation() {
-        String sql = """
-            SELECT p.id, p.name, p.description, p.unit, l.name AS loc_name, ps.quantity
+    /**
+     * Index of {@code row} in the query's order, or -1 if no row with its sort key matches the
+     * query any more (e.g. its quantity changed while sorting by quantity).
+     */
+    public int positionOfStock(StockQuery q, StockRow row) {
+        List<Object> params = new ArrayList<>();
+        String before = keyset(q, row, q.descending() ? " > ?" : " < ?", params);
+        StringBuilder same = new StringBuilder();
+        String[] cols = q.sort().columns;
+        Object[] key = q.sort().key(row);
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) same.append(" AND ");
+            same.append(cols[i]).append(" = ?");
+            params.add(key[i]);
+        }
+        String sql = "SELECT COALESCE(SUM(" + before + "), 0), COALESCE(SUM(" + same + "), 0) "
+            + stockFrom(q, params);
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(2) > 0 ? rs.getInt(1) : -1;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("positionOfStock failed", e);
+        }
+    }
+
+    public List<StockRow> findStockAt(StockQuery q, int offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = STOCK_ROW_COLUMNS + stockFrom(q, params) + orderBy(q) + " LIMIT ? OFFSET ?";
+        params.add(limit);
+        params.add(offset);
+        return queryStockRows(sql, params, "findStockAt");
+    }
+
+    private static String stockFrom(StockQuery q, List<Object> params) {
+        StringBuilder sql = new StringBuilder("""
             FROM product_stock ps
             JOIN products p ON p.id = ps.product_id
             JOIN locations l ON l.id = ps.location_id
-            WHERE ps.quantity > 0
-            ORDER BY p.name, l.name
-            """;
-        List<ProductAtLocation> out = new ArrayList<>();
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                out.add(new ProductAtLocation(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getString("unit"),
-                    rs.getString("loc_name"),
-                    rs.getInt("quantity")
-                ));
+            WHERE ps.quantity > 0""");
+        if (q.locationId() != null) {
+            sql.append(" AND ps.location_id = ?");
+            params.add(q.locationId());
+        }
+        if (q.nameContains() != null && !q.nameContains().isBlank()) {
+            sql.append(" AND p.name LIKE ?");
+            params.add("%" + escapeLike(q.nameContains().trim()) + "%");
+        }
+        if (q.productIds() != null) {
+            if (q.productIds().isEmpty()) {
+                sql.append(" AND FALSE");
+            } else {
+                sql.append(" AND ps.product_id IN (")
+                    .append(String.join(",", java.util.Collections.nCopies(q.productIds().size(), "?")))
+                    .append(')');
+                params.addAll(q.productIds());
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("findAllPerLocation failed", e);
         }
-        return out;
+        return sql.toString();
     }
 
-    public void backfillFromProductsIfEmpty() {
-        String countSql = "SELECT COUNT(*) FROM product_stock";
-        try (Connection c = Database.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(countSql)) {
-            if (rs.next() && rs.getInt(1) > 0) return;
-        } catch (SQLException e) {
-            throw new RuntimeException("backfill count failed", e);
+    /**
+     * Rows on the {@code op} side of {@code row} in the query's order:
+     * {@code (c1 op ?) OR (c1 = ? AND c2 op ?) OR ...}; the optimizer turns this into an index range.
+     */
+    private static String keyset(StockQuery q, StockRow row, String op, List<Object> params) {
+        String[] cols = q.sort().columns;
+        Object[] key = q.sort().key(row);
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) sql.append(" OR ");
+            sql.append('(');
+            for (int j = 0; j < i; j++) {
+                sql.append(cols[j]).append(" = ? AND ");
+                params.add(key[j]);
+            }
+            sql.append(cols[i]).append(op).append(')');
+            params.add(key[i]);
+        }
+        return sql.append(')').toString();
+    }
+
+    private static String orderBy(StockQuery q) {
+        String dir = q.descending() ? " DESC" : "";
+        return " ORDER BY " + String.join(dir + ", ", q.sort().columns) + dir;
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
         }
-        // Map location name -> id
-        java.util.Map<String, Integer> locMap = new java.util.HashMap<>();
-        int warehouseAId = -1;
+    }
+
+    private List<StockRow> queryStockRows(String sql, List<Object> params, String what) {
+        List<StockRow> out = new ArrayList<>();
         try (Connection c = Database.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery("SELECT id, name FROM locations")) {
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String name = rs.getString("name");
-                locMap.put(name, id);
-                if ("Warehouse A".equalsIgnoreCase(name)) warehouseAId = id;
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new StockRow(
+                        rs.getInt(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getInt(4),
+                        locations.intern(rs.getString(5)),
+                        rs.getInt(6)
+                    ));
+                }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("load locations failed", e);
+            throw new RuntimeException(what + " failed", e);
         }
-        String selProducts = "SELECT id, quantity, location FROM products";
-        try (Connection c = Database.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(selProducts)) {
-            while (rs.next()) {
-                int pid = rs.getInt("id");
-                int qty = rs.getInt("quantity");
-                String locName = rs.getString("location");
-                int destLocId = (locName != null && locMap.containsKey(locName)) ? locMap.get(locName)
-                    : (warehouseAId > 0 ? warehouseAId : locMap.values().stream().findFirst().orElseThrow());
-                try (PreparedStatement ps = c.prepareStatement(
-                    "INSERT INTO product_stock(product_id, location_id, quantity) VALUES(?,?,?) " +
-                        "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)")) {
-                    ps.setInt(1, pid);
-                    ps.setInt(2, destLocId);
-                    ps.setInt(3, qty);
+        return out;
+    }
+
+    public void backfillFromProductsIfEmpty() {
+        backfillFromProductsIfEmpty(null);
+    }
+
+    /**
+     * Seed product_stock from products.quantity/location when the table is empty. Products whose
+     * location is not a known location go to Warehouse A, or the first location if that is missing.
+     * Runs as one INSERT ... SELECT per id range instead of one INSERT per product.
+     */
+    public void backfillFromProductsIfEmpty(ProgressListener progress) {
+        try (Connection c = Database.getConnection()) {
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT EXISTS(SELECT 1 FROM product_stock)")) {
+                if (rs.next() && rs.getInt(1) > 0) return;
+            }
+            Integer fallbackId = null;
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery(
+                     "SELECT id FROM locations ORDER BY name = 'Warehouse A' DESC, id LIMIT 1")) {
+                if (rs.next()) fallbackId = rs.getInt(1);
+            }
+            if (fallbackId == null) {
+                throw new RuntimeException("backfill requires at least one location");
+            }
+            String sql = """
+                INSERT INTO product_stock(product_id, location_id, quantity)
+                SELECT p.id, COALESCE(l.id, ?), p.quantity
+                FROM products p
+                LEFT JOIN locations l ON l.name = p.location
+                WHERE p.id BETWEEN ? AND ?
+                ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)
+                """;
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                int fallback = fallbackId;
+                forEachIdRange(c, progress, (lo, hi) -> {
+                    ps.setInt(1, fallback);
+                    ps.setInt(2, lo);
+                    ps.setInt(3, hi);
                     ps.executeUpdate();
-                }
+                });
             }
         } catch (SQLException e) {
             throw new RuntimeException("backfill products to product_stock failed", e);
@@ -202,58 +344,84 @@ public class ProductStockDao {
     }
 
     public void resetAndBackfillFromProducts() {
+        resetAndBackfillFromProducts(null);
+    }
+
+    public void resetAndBackfillFromProducts(ProgressListener progress) {
         try (Connection c = Database.getConnection(); Statement st = c.createStatement()) {
             st.executeUpdate("DELETE FROM product_stock");
         } catch (SQLException e) {
             throw new RuntimeException("reset product_stock failed", e);
         }
-        backfillFromProductsIfEmpty();
+        backfillFromProductsIfEmpty(progress);
     }
 
     public void ensureMissingFromProducts() {
-        List<Integer> missing = new ArrayList<>();
-        String sql = """
-            SELECT p.id
+        ensureMissingFromProducts(null);
+    }
+
+    /**
+     * Give every product without stock rows one row at its products.location (Warehouse A when
+     * blank), creating missing locations first. Two set-based statements replace the per-product
+     * lookups; the insert is chunked by id range so it does not hold locks for the whole table.
+     */
+    public void ensureMissingFromProducts(ProgressListener progress) {
+        String createLocations = """
+            INSERT IGNORE INTO locations(name)
+            SELECT DISTINCT %s
             FROM products p
             LEFT JOIN product_stock ps ON ps.product_id = p.id
             WHERE ps.product_id IS NULL
-            """;
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                missing.add(rs.getInt(1));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("ensureMissingFromProducts scan failed", e);
-        }
-        if (missing.isEmpty()) return;
-
-        LocationDao locationDao = new LocationDao();
+            """.formatted(STOCK_LOCATION_NAME);
+        String insertMissing = """
+            INSERT IGNORE INTO product_stock(product_id, location_id, quantity)
+            SELECT p.id, l.id, p.quantity
+            FROM products p
+            JOIN locations l ON l.name = %s
+            LEFT JOIN product_stock ps ON ps.product_id = p.id
+            WHERE ps.product_id IS NULL AND p.id BETWEEN ? AND ?
+            """.formatted(STOCK_LOCATION_NAME);
         try (Connection c = Database.getConnection()) {
-            for (int pid : missing) {
-                try (PreparedStatement ps = c.prepareStatement("SELECT quantity, location FROM products WHERE id = ?")) {
-                    ps.setInt(1, pid);
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            int qty = rs.getInt("quantity");
-                            String locName = rs.getString("location");
-                            var loc = locationDao.findOrCreateByName(locName);
-                            try (PreparedStatement ins = c.prepareStatement(
-                                "INSERT IGNORE INTO product_stock(product_id, location_id, quantity) VALUES(?,?,?)")) {
-                                ins.setInt(1, pid);
-                                ins.setInt(2, loc.id());
-                                ins.setInt(3, qty);
-                                ins.executeUpdate();
-                            }
-                        }
-                    }
-                }
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate(createLocations);
+            }
+            try (PreparedStatement ps = c.prepareStatement(insertMissing)) {
+                forEachIdRange(c, progress, (lo, hi) -> {
+                    ps.setInt(1, lo);
+                    ps.setInt(2, hi);
+                    ps.executeUpdate();
+                });
             }
         } catch (SQLException e) {
             throw new RuntimeException("ensureMissingFromProducts failed", e);
         }
     }
-}
 
+    /**
+     * Walk the products id range in {@value #BACKFILL_CHUNK_IDS}-id chunks, reporting progress after each.
+     */
+    private void forEachIdRange(Connection c, ProgressListener progress, IdRangeAction action) throws SQLException {
+        int min;
+        int max;
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MIN(id), MAX(id) FROM products")) {
+            if (!rs.next()) return;
+            min = rs.getInt(1);
+            if (rs.wasNull()) return;
+            max = rs.getInt(2);
+        }
+        long total = (long) max - min + 1;
+        for (long lo = min; lo <= max; lo += BACKFILL_CHUNK_IDS) {
+            long hi = Math.min(max, lo + BACKFILL_CHUNK_IDS - 1);
+            action.apply((int) lo, (int) hi);
+            if (progress != null) {
+                progress.onProgress(hi - min + 1, total);
+            }
+        }
+    }
 
+    @FunctionalInterface
+    private interface IdRangeAction {
+        void apply(int lo, int hi) throws SQLException;
+    }
+}
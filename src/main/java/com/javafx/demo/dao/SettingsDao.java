@@ -6,14 +6,23 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class SettingsDao {
 
+    /**
+     * All settings plus the sum of their row versions. Every write bumps one row's version,
+     * so a changed sum means some setting changed.
+     */
+    public record Snapshot(Map<String, String> values, long version) {}
+
     public void set(String key, String value) {
         String sql = """
-            INSERT INTO settings(`key`, `value`)
-            VALUES (?, ?)
-            ON DUPLICATE KEY UPDATE `value` = VALUES(`value`)
+            INSERT INTO settings(`key`, `value`, version)
+            VALUES (?, ?, 1)
+            ON DUPLICATE KEY UPDATE version = version + IF(`value` <=> VALUES(`value`), 0, 1),
+                                    `value` = VALUES(`value`)
             """;
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
@@ -50,7 +59,35 @@ public class SettingsDao {
             return defaultValue;
         }
     }
-}
-
 
+    public Snapshot loadAll() {
+        String sql = "SELECT `key`, `value`, version FROM settings";
+        Map<String, String> values = new HashMap<>();
+        long version = 0;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                values.put(rs.getString("key"), rs.getString("value"));
+                version += rs.getLong("version");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load settings", e);
+        }
+        return new Snapshot(values, version);
+    }
 
+    /**
+     * Cheap change check: the same value as {@link Snapshot#version()} of a fresh {@link #loadAll()}.
+     */
+    public long currentVersion() {
+        String sql = "SELECT COALESCE(SUM(version), 0) FROM settings";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read settings version", e);
+        }
+    }
+}
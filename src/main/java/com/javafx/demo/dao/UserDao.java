@@ -117,6 +117,31 @@ public class UserDao {
         }
     }
 
+    /**
+     * Usernames for {@code ids} in one query; ids that no longer exist are left out.
+     */
+    public java.util.Map<Integer, String> findUsernamesByIds(java.util.Collection<Integer> ids) {
+        java.util.List<Integer> distinct = java.util.List.copyOf(new java.util.LinkedHashSet<>(ids));
+        java.util.Map<Integer, String> names = new java.util.HashMap<>();
+        if (distinct.isEmpty()) return names;
+        String placeholders = String.join(",", java.util.Collections.nCopies(distinct.size(), "?"));
+        String sql = "SELECT id, username FROM users WHERE id IN (" + placeholders + ")";
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < distinct.size(); i++) {
+                ps.setInt(i + 1, distinct.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.put(rs.getInt("id"), rs.getString("username"));
+                }
+            }
+            return names;
+        } catch (SQLException e) {
+            throw new RuntimeException("findUsernamesByIds failed", e);
+        }
+    }
+
     public User createUser(String username, String passwordHash, String roleName) {
         String sql = """
             INSERT INTO users(username, password_hash, role_id)
@@ -0,0 +1,53 @@
+package com.javafx.demo.db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets another thread abort the query a DAO call is running.
+ *
+ * A DAO method that accepts a token registers its statement before executing it and
+ * unregisters it afterwards; {@link #cancel()} then calls {@link Statement#cancel()}, which the
+ * MySQL driver turns into a {@code KILL QUERY} so the server stops work nobody will read. A
+ * statement registered after cancellation fails straight away.
+ *
+ * The driver sends the kill over a new connection and waits for it, so {@link #cancel()} only
+ * marks the token on the calling thread (often the FX thread) and sends the kill from a virtual
+ * thread of its own. It does not take a {@code DbExecutor} permit, which could otherwise wait on
+ * the very query being killed.
+ */
+public final class CancelToken {
+    private Statement statement;
+    private boolean cancelled;
+
+    public synchronized void register(Statement st) throws SQLException {
+        if (cancelled) throw new SQLException("Query cancelled");
+        statement = st;
+    }
+
+    public synchronized void unregister(Statement st) {
+        if (statement == st) statement = null;
+    }
+
+    public void cancel() {
+        Statement st;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            st = statement;
+        }
+        if (st != null) {
+            Thread.ofVirtual().name("query-cancel").start(() -> {
+                try {
+                    st.cancel();
+                } catch (SQLException ignored) {
+                    // the statement finished or its connection closed in the meantime
+                }
+            });
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
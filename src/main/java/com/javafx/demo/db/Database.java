@@ -1,21 +1,36 @@
 package com.javafx.demo.db;
 
+import com.javafx.demo.metrics.QueryScope;
+import com.javafx.demo.metrics.QueryStats;
+
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.Properties;
 
+/**
+ * Connections from {@code db.properties}. Each of {@code db.url}, {@code db.username} and
+ * {@code db.password} can be overridden with a system property of the same name, e.g. to point
+ * benchmarks or tools at a throwaway database.
+ *
+ * Connections are wrapped by {@link InstrumentedConnection}, which times every statement into
+ * {@code QueryStats} and the thread's {@code QueryScope}; {@code -Ddb.instrument=false} turns that
+ * off.
+ */
 public final class Database {
 
     private static final Properties props = new Properties();
+    private static final boolean INSTRUMENT = !"false".equals(System.getProperty("db.instrument"));
 
     static {
         try (InputStream in = Database.class.getResourceAsStream("/db.properties")) {
             if (in == null) throw new IllegalStateException("db.properties not found on classpath");
             props.load(in);
+            for (String key : new String[] {"db.url", "db.username", "db.password"}) {
+                String override = System.getProperty(key);
+                if (override != null) props.setProperty(key, override);
+            }
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize database configuration", e);
@@ -25,39 +40,41 @@ public final class Database {
     private Database() {}
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
+        long t0 = System.nanoTime();
+        Connection c = DriverManager.getConnection(
             props.getProperty("db.url"),
             props.getProperty("db.username"),
             props.getProperty("db.password")
         );
+        return instrument(c, t0);
     }
 
-    public static void migrateIfNeeded() {
-        try (InputStream in = Database.class.getResourceAsStream("/schema.sql")) {
-            if (in == null) return;
-            String sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            try (Connection c = getConnection(); Statement st = c.createStatement()) {
-                for (String stmt : sql.split(";")) {
-                    String s = stmt.trim();
-                    if (!s.isEmpty()) {
-                        try {
-                            st.execute(s);
-                        } catch (SQLException e) {
-                            String msg = e.getMessage() != null ? e.getMessage() : "";
-                            String upper = s.toUpperCase();
-                            if (upper.contains("ALTER TABLE PRODUCTS") && upper.contains("ADD COLUMN") && msg.contains("Duplicate column")) {
-                                // ignore duplicate column errors to allow idempotent upgrades
-                            } else {
-                                throw e;
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Schema migration failed", e);
-        }
+    /**
+     * Connection on which statements with a positive fetch size read through a server-side
+     * cursor, so long scans are fetched in batches instead of buffered whole on the client.
+     */
+    public static Connection getCursorConnection() throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", props.getProperty("db.username"));
+        info.setProperty("password", props.getProperty("db.password"));
+        info.setProperty("useCursorFetch", "true");
+        long t0 = System.nanoTime();
+        return instrument(DriverManager.getConnection(props.getProperty("db.url"), info), t0);
     }
-}
 
+    private static Connection instrument(Connection c, long openStartNanos) {
+        if (!INSTRUMENT) return c;
+        long nanos = System.nanoTime() - openStartNanos;
+        QueryStats.getInstance().recordConnectionWait(nanos);
+        QueryScope.recordConnection(nanos);
+        QueryStats.getInstance().connectionOpened();
+        return InstrumentedConnection.wrap(c);
+    }
 
+    /**
+     * Bring the schema up to date; see {@link MigrationRunner}.
+     */
+    public static void migrateIfNeeded() {
+        new MigrationRunner().migrate();
+    }
+}
@@ -0,0 +1,126 @@
+package com.javafx.demo.db;
+
+import com.javafx.demo.metrics.QueryScope;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs blocking database work on virtual threads, at most {@code db.pool.size} (default 10) at a
+ * time. Independent queries can be fanned out with {@link #supply} and joined with
+ * {@code CompletableFuture.allOf}; a waiting task costs no platform thread.
+ *
+ * {@code db.pool.size} is a concurrency cap, not a connection pool: {@code Database} opens a new
+ * {@code DriverManager} connection per unit of work, and the cap bounds how many tasks run here at
+ * once, and so how many of those connections they hold. It covers view loads
+ * ({@code ReloadCoordinator}), startup steps, the dashboard, the settings poll, the alert check,
+ * {@code JobEngine} ticks and the jobs they run, report rendering, flight recording dumps, API
+ * requests and the counts, pages and row lookups of lazily paged lists. Work that still runs in
+ * FX event handlers, such as saving a movement, is not capped. A task must not wait for another
+ * task submitted here, or a full executor deadlocks.
+ *
+ * Tasks count into the {@link QueryScope} of the thread that submitted them, or the one given.
+ * Periodic work is triggered by one shared timer thread and runs here, skipping a tick while the
+ * previous run is still going.
+ */
+public final class DbExecutor {
+    private static final Logger LOG = Logger.getLogger(DbExecutor.class.getName());
+    private static final DbExecutor INSTANCE = new DbExecutor(Integer.getInteger("db.pool.size", 10));
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("db-", 0).factory());
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "db-timer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Semaphore permits;
+    private final int poolSize;
+
+    private DbExecutor(int poolSize) {
+        this.poolSize = Math.max(1, poolSize);
+        this.permits = new Semaphore(this.poolSize, true);
+    }
+
+    public static DbExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /** The {@code db.pool.size} cap on concurrent tasks. */
+    public int poolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Run {@code work} on a virtual thread once a permit is free.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return supply(QueryScope.current(), work);
+    }
+
+    /**
+     * Like {@link #supply(Supplier)}, counting the statements into {@code scope} (which may be
+     * null), e.g. one from {@link QueryScope#openDetached}.
+     */
+    public <T> CompletableFuture<T> supply(QueryScope scope, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> QueryScope.callIn(scope, () -> {
+            permits.acquireUninterruptibly();
+            try {
+                return work.get();
+            } finally {
+                permits.release();
+            }
+        }), executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run {@code work} on the calling thread once a permit is free, e.g. from a thread that is
+     * already virtual, such as an API request.
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        return withPermit(work);
+    }
+
+    /**
+     * Run {@code work} here every {@code period}, like {@code scheduleAtFixedRate}. Cancel the
+     * returned future to stop.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(String name, Runnable work, long initialDelay, long period, TimeUnit unit) {
+        AtomicBoolean running = new AtomicBoolean();
+        return timer.scheduleAtFixedRate(() -> {
+            if (!running.compareAndSet(false, true)) {
+                LOG.fine(() -> name + " still running; skipping this tick");
+                return;
+            }
+            run(work).whenComplete((v, e) -> {
+                running.set(false);
+                if (e != null) LOG.warning(name + " failed: " + e);
+            });
+        }, initialDelay, period, unit);
+    }
+
+    private <T> T withPermit(Callable<T> work) throws Exception {
+        permits.acquire();
+        try {
+            return work.call();
+        } finally {
+            permits.release();
+        }
+    }
+}
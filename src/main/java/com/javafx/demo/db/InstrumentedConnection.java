@@ -0,0 +1,263 @@
+package com.javafx.demo.db;
+
+import com.javafx.demo.metrics.QueryScope;
+import com.javafx.demo.metrics.QueryStats;
+import com.javafx.demo.metrics.jfr.QueryEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Wraps a JDBC connection so that every statement it creates is timed into {@link QueryStats},
+ * which also counts the connection as open until it is closed.
+ *
+ * A statement is named after the first application frame that is not in this package, normally
+ * the DAO method ({@code LogDao.findFiltered}). Execution time is recorded per name; rows are
+ * counted as the caller reads the result set, or taken from the update count. Statements slower
+ * than {@code db.slowQueryMillis} (default 500) are logged with their SQL and the types of the
+ * bound parameters, never their values.
+ *
+ * Statements and their SQL are also counted into the thread's {@link QueryScope}, if one is open.
+ *
+ * Each statement is also a {@link QueryEvent} for flight recordings, spanning execution and, for
+ * queries, reading the result set. A query's rows and event are reported when its result set is
+ * read to the end or closed, or else when its statement is closed or re-executed or its
+ * connection is closed, since closing those closes the result set without telling it.
+ */
+final class InstrumentedConnection {
+    private static final Logger LOG = Logger.getLogger(InstrumentedConnection.class.getName());
+    private static final long SLOW_NANOS = Long.getLong("db.slowQueryMillis", 500) * 1_000_000;
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String APP_PACKAGE = "com.javafx.demo.";
+    private static final String DB_PACKAGE = "com.javafx.demo.db.";
+
+    private InstrumentedConnection() {}
+
+    static Connection wrap(Connection c) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConnectionHandler(c));
+    }
+
+    /**
+     * {@code Class.method} of the nearest application caller outside this package.
+     */
+    static String callerName() {
+        Optional<String> name = WALKER.walk(frames -> frames
+            .filter(f -> f.getClassName().startsWith(APP_PACKAGE) && !f.getClassName().startsWith(DB_PACKAGE))
+            .findFirst()
+            .map(f -> {
+                String cls = f.getClassName();
+                return cls.substring(cls.lastIndexOf('.') + 1) + "." + f.getMethodName();
+            }));
+        return name.orElse("jdbc");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+        // Statements not closed yet, whose open result sets closing the connection ends
+        private final Set<StatementHandler> statements = new HashSet<>();
+        private boolean closed;
+
+        ConnectionHandler(Connection delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(delegate, method, args);
+            String m = method.getName();
+            if (m.equals("close") && !closed) {
+                closed = true;
+                for (StatementHandler st : List.copyOf(statements)) {
+                    st.resultClosed();
+                }
+                statements.clear();
+                QueryStats.getInstance().connectionClosed();
+            }
+            if (result instanceof Statement st && (m.equals("createStatement") || m.equals("prepareStatement") || m.equals("prepareCall"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = st instanceof CallableStatement ? CallableStatement.class
+                    : st instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                StatementHandler handler = new StatementHandler(st, callerName(), sql, statements);
+                statements.add(handler);
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type}, handler);
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement delegate;
+        private final String name;
+        private final String preparedSql;
+        private final Set<StatementHandler> open;
+        private Class<?>[] paramTypes = new Class<?>[0];
+        private ResultSetHandler result;
+
+        StatementHandler(Statement delegate, String name, String preparedSql, Set<StatementHandler> open) {
+            this.delegate = delegate;
+            this.name = name;
+            this.preparedSql = preparedSql;
+            this.open = open;
+        }
+
+        /** The current result set was closed along with this statement or its connection. */
+        void resultClosed() {
+            if (result != null) {
+                result.report();
+                result = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String m = method.getName();
+            if (m.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                rememberType(index, args[1]);
+                return InstrumentedConnection.invoke(delegate, method, args);
+            }
+            if (m.equals("clearParameters")) {
+                paramTypes = new Class<?>[0];
+            }
+            if (!m.startsWith("execute")) {
+                Object result = InstrumentedConnection.invoke(delegate, method, args);
+                if (m.equals("close")) {
+                    resultClosed();
+                    open.remove(this);
+                }
+                if (result instanceof ResultSet rs && m.equals("getResultSet")) return countingResultSet(rs, null);
+                return result;
+            }
+
+            // Executing again closes the previous result set
+            resultClosed();
+            QueryEvent event = new QueryEvent();
+            event.begin();
+            long t0 = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedConnection.invoke(delegate, method, args);
+            } catch (Throwable t) {
+                QueryScope.recordStatement(sql(args), System.nanoTime() - t0);
+                event.name = name;
+                event.commit();
+                throw t;
+            }
+            long nanos = System.nanoTime() - t0;
+            QueryStats stats = QueryStats.getInstance();
+            stats.recordQuery(name, nanos);
+            String sql = sql(args);
+            QueryScope.recordStatement(sql, nanos);
+            if (nanos >= SLOW_NANOS) {
+                LOG.warning(String.format("Slow query %s took %d ms: %s %s", name, nanos / 1_000_000,
+                    oneLine(sql), describeParams()));
+            }
+            event.name = name;
+            if (result instanceof ResultSet rs) return countingResultSet(rs, event);
+            long rows = 0;
+            if (result instanceof Integer n) rows = n;
+            if (result instanceof Long n) rows = n;
+            if (result instanceof int[] counts) rows = Arrays.stream(counts).filter(c -> c > 0).sum();
+            stats.recordRows(name, rows);
+            event.rows = rows;
+            event.commit();
+            return result;
+        }
+
+        private String sql(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+        }
+
+        private void rememberType(int index, Object value) {
+            if (index < 1 || index > 65_535) return;
+            if (index > paramTypes.length) paramTypes = Arrays.copyOf(paramTypes, Math.max(index, paramTypes.length * 2));
+            paramTypes[index - 1] = value == null ? Void.class : value.getClass();
+        }
+
+        // Parameter values may be personal data or credentials, so only their types are logged
+        private String describeParams() {
+            int n = paramTypes.length;
+            while (n > 0 && paramTypes[n - 1] == null) n--;
+            if (n == 0) return "";
+            StringBuilder sb = new StringBuilder("[params: ");
+            for (int i = 0; i < n; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(paramTypes[i] == null ? "?" : paramTypes[i] == Void.class ? "null" : paramTypes[i].getSimpleName());
+            }
+            return sb.append(']').toString();
+        }
+
+        private ResultSet countingResultSet(ResultSet rs, QueryEvent event) {
+            result = new ResultSetHandler(rs, name, event);
+            return (ResultSet) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, result);
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet delegate;
+        private final String name;
+        private final QueryEvent event;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet delegate, String name, QueryEvent event) {
+            this.delegate = delegate;
+            this.name = name;
+            this.event = event;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(delegate, method, args);
+            String m = method.getName();
+            if (m.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else {
+                    report();
+                }
+            } else if (m.equals("close")) {
+                report();
+            }
+            return result;
+        }
+
+        void report() {
+            if (reported) return;
+            reported = true;
+            QueryStats.getInstance().recordRows(name, rows);
+            if (event != null) {
+                event.rows = rows;
+                event.commit();
+            }
+        }
+    }
+
+    private static String oneLine(String sql) {
+        if (sql == null) return "(batch)";
+        String s = sql.replaceAll("\\s+", " ").trim();
+        return s.length() > 300 ? s.substring(0, 300) + "..." : s;
+    }
+}
@@ -0,0 +1,245 @@
+package com.javafx.demo.db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the numbered scripts under {@code /db/migration} in order and records each one in
+ * {@code schema_version} with a SHA-256 checksum.
+ *
+ * The scripts to run are listed in {@code /db/migration/index.txt}, one {@code V<n>__<name>.sql}
+ * per line. When every listed version is already recorded with the same checksum, startup costs
+ * a single SELECT and no DDL. Otherwise pending scripts are applied under a MySQL named lock so
+ * that terminals starting together do not run them twice.
+ *
+ * Editing a script after it has been applied is an error; add a new version instead.
+ */
+public final class MigrationRunner {
+    private static final Logger LOG = Logger.getLogger(MigrationRunner.class.getName());
+
+    private static final String LOCATION = "/db/migration/";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "factory_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 120;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    public record Migration(int version, String description, String script, String checksum) {}
+
+    public record Result(int appliedCount, int currentVersion, long elapsedMillis) {}
+
+    private final List<Migration> migrations;
+
+    public MigrationRunner() {
+        this(loadFromClasspath());
+    }
+
+    MigrationRunner(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    public List<Migration> migrations() {
+        return migrations;
+    }
+
+    public Result migrate() {
+        long start = System.nanoTime();
+        try (Connection c = Database.getConnection()) {
+            Map<Integer, String> applied = readApplied(c);
+            if (isCurrent(applied)) {
+                return new Result(0, latestVersion(), elapsedMillis(start));
+            }
+            int count = applyPending(c);
+            Result result = new Result(count, latestVersion(), elapsedMillis(start));
+            if (count > 0) {
+                LOG.info(String.format("Applied %d migration(s), schema now at V%d in %d ms",
+                    count, result.currentVersion(), result.elapsedMillis()));
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Schema migration failed", e);
+        }
+    }
+
+    private boolean isCurrent(Map<Integer, String> applied) {
+        verifyChecksums(applied);
+        for (Migration m : migrations) {
+            if (!applied.containsKey(m.version())) return false;
+        }
+        return true;
+    }
+
+    private void verifyChecksums(Map<Integer, String> applied) {
+        for (Migration m : migrations) {
+            String checksum = applied.get(m.version());
+            if (checksum != null && !checksum.equals(m.checksum())) {
+                throw new IllegalStateException("Migration V" + m.version() + " (" + m.description()
+                    + ") was modified after it was applied");
+            }
+        }
+    }
+
+    private int applyPending(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            if (!acquireLock(c)) {
+                throw new SQLException("Timed out waiting for the schema migration lock");
+            }
+            try {
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                      version INT PRIMARY KEY,
+                      description VARCHAR(200) NOT NULL,
+                      checksum CHAR(64) NOT NULL,
+                      applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                      execution_ms BIGINT NOT NULL
+                    )
+                    """);
+                // Another terminal may have migrated while we waited for the lock
+                Map<Integer, String> applied = readApplied(c);
+                verifyChecksums(applied);
+                int count = 0;
+                for (Migration m : migrations) {
+                    if (applied.containsKey(m.version())) continue;
+                    long t0 = System.nanoTime();
+                    for (String sql : SqlScriptSplitter.split(m.script())) {
+                        execute(st, sql);
+                    }
+                    long ms = elapsedMillis(t0);
+                    record(c, m, ms);
+                    LOG.info(String.format("Migration V%d %s applied in %d ms", m.version(), m.description(), ms));
+                    count++;
+                }
+                return count;
+            } finally {
+                releaseLock(c);
+            }
+        }
+    }
+
+    private static void execute(Statement st, String sql) throws SQLException {
+        try {
+            st.execute(sql);
+        } catch (SQLException e) {
+            String upper = sql.toUpperCase();
+            // Databases created before versioned migrations may already have the column
+            if (e.getErrorCode() == ER_DUP_FIELDNAME && upper.contains("ALTER TABLE") && upper.contains("ADD COLUMN")) {
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private static Map<Integer, String> readApplied(Connection c) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_NO_SUCH_TABLE) throw e;
+        }
+        return applied;
+    }
+
+    private static void record(Connection c, Migration m, long ms) throws SQLException {
+        String sql = "INSERT INTO schema_version(version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.description());
+            ps.setString(3, m.checksum());
+            ps.setLong(4, ms);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean acquireLock(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection c) {
+        try (PreparedStatement ps = c.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException ignored) {
+            // the lock is released anyway when the connection closes
+        }
+    }
+
+    private int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    static List<Migration> loadFromClasspath() {
+        List<Migration> list = new ArrayList<>();
+        try (InputStream index = MigrationRunner.class.getResourceAsStream(LOCATION + "index.txt")) {
+            if (index == null) return list;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(index, StandardCharsets.UTF_8));
+            String line;
+            int previous = 0;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                Matcher m = FILE_NAME.matcher(line);
+                if (!m.matches()) {
+                    throw new IllegalStateException("Bad migration file name: " + line);
+                }
+                int version = Integer.parseInt(m.group(1));
+                if (version <= previous) {
+                    throw new IllegalStateException("Migrations must be listed in ascending order: " + line);
+                }
+                previous = version;
+                String script = readResource(LOCATION + line);
+                list.add(new Migration(version, m.group(2), script, checksum(script)));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read migrations", e);
+        }
+        return list;
+    }
+
+    private static String readResource(String path) throws IOException {
+        try (InputStream in = MigrationRunner.class.getResourceAsStream(path)) {
+            if (in == null) throw new IOException("Missing migration " + path);
+            // Normalize line endings so a checkout on Windows has the same checksum
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        }
+    }
+
+    static String checksum(String script) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.javafx.demo.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a MySQL script into single statements.
+ *
+ * Unlike splitting on {@code ;}, this understands quoted strings ({@code '...'} and {@code "..."},
+ * with backslash and doubled-quote escapes), backtick identifiers, {@code --}, {@code #} and
+ * block comments, and {@code DELIMITER} lines for scripts that define routines. Plain comments
+ * are dropped; {@code /*!} version comments are kept because MySQL executes them.
+ */
+public final class SqlScriptSplitter {
+
+    private SqlScriptSplitter() {}
+
+    public static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = ";";
+        int n = script.length();
+        int i = 0;
+        while (i < n) {
+            char c = script.charAt(i);
+
+            // DELIMITER is a client directive, only valid at the start of a statement
+            if ((c == 'D' || c == 'd') && startsWithIgnoreCase(script, i, "DELIMITER")
+                    && i + 9 < n && Character.isWhitespace(script.charAt(i + 9))
+                    && current.toString().isBlank()) {
+                int eol = script.indexOf('\n', i);
+                if (eol < 0) eol = n;
+                String d = script.substring(i + 9, eol).trim();
+                if (!d.isEmpty()) delimiter = d;
+                current.setLength(0);
+                i = eol;
+                continue;
+            }
+
+            if (c == '\'' || c == '"' || c == '`') {
+                i = copyQuoted(script, i, current);
+                continue;
+            }
+            if (c == '-' && i + 1 < n && script.charAt(i + 1) == '-'
+                    && (i + 2 >= n || Character.isWhitespace(script.charAt(i + 2)))) {
+                i = skipToEndOfLine(script, i);
+                continue;
+            }
+            if (c == '#') {
+                i = skipToEndOfLine(script, i);
+                continue;
+            }
+            if (c == '/' && i + 1 < n && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                if (i + 2 < n && script.charAt(i + 2) == '!') {
+                    current.append(script, i, end);
+                } else {
+                    current.append(' ');
+                }
+                i = end;
+                continue;
+            }
+            if (script.startsWith(delimiter, i)) {
+                addStatement(statements, current);
+                i += delimiter.length();
+                continue;
+            }
+            current.append(c);
+            i++;
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static int copyQuoted(String s, int start, StringBuilder out) {
+        char quote = s.charAt(start);
+        int n = s.length();
+        out.append(quote);
+        int i = start + 1;
+        while (i < n) {
+            char c = s.charAt(i);
+            out.append(c);
+            i++;
+            if (c == '\\' && quote != '`' && i < n) {
+                out.append(s.charAt(i));
+                i++;
+            } else if (c == quote) {
+                if (i < n && s.charAt(i) == quote) {
+                    // doubled quote is an escaped quote
+                    out.append(quote);
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unterminated " + quote + " quote starting at offset " + start);
+    }
+
+    private static int skipToEndOfLine(String s, int i) {
+        int eol = s.indexOf('\n', i);
+        return eol < 0 ? s.length() : eol;
+    }
+
+    private static boolean startsWithIgnoreCase(String s, int offset, String prefix) {
+        return s.regionMatches(true, offset, prefix, 0, prefix.length());
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String stmt = current.toString().trim();
+        if (!stmt.isEmpty()) {
+            statements.add(stmt);
+        }
+        current.setLength(0);
+    }
+}
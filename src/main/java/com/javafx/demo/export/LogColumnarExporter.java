@@ -0,0 +1,148 @@
+package com.javafx.demo.export;
+
+import com.javafx.demo.dao.LogDao;
+import com.javafx.demo.service.ReportService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports the {@code logs} table into the columnar format read by {@link LogColumnarReader},
+ * so historical analysis can run against files instead of the production database.
+ *
+ * Incremental mode appends only rows above the highest id already in the file.
+ */
+public class LogColumnarExporter {
+
+    private final LogDao logDao = new LogDao();
+    private final int rowGroupSize;
+
+    public record ExportResult(Path file, long rowsWritten, int rowGroupsWritten, int lastId,
+                               long fileBytes, long elapsedMillis) {}
+
+    public LogColumnarExporter() {
+        this(LogColumnarWriter.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public LogColumnarExporter(int rowGroupSize) {
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public static Path defaultExportFile() {
+        return ReportService.reportsDirectory().resolve("exports").resolve("logs.flc");
+    }
+
+    /**
+     * Rewrite the export from scratch. The new file replaces the old one only once complete.
+     */
+    public ExportResult exportFull(Path file) {
+        long start = System.nanoTime();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean moved = false;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            long rows;
+            LogColumnarWriter written;
+            try (LogColumnarWriter writer = new LogColumnarWriter(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16), true, rowGroupSize)) {
+                rows = streamInto(writer, 0);
+                // Counts are read after the close, which writes the final partial group
+                written = writer;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+            return new ExportResult(file, rows, written.groupsWritten(), written.lastId(), Files.size(file), elapsedMillis(start));
+        } catch (IOException e) {
+            throw new RuntimeException("Log export failed: " + e.getMessage(), e);
+        } finally {
+            if (!moved) deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Append logs newer than the last exported id. Falls back to a full export when the file
+     * does not exist yet. A row group left incomplete by an interrupted run is dropped first.
+     */
+    public ExportResult exportIncremental(Path file) {
+        if (!Files.exists(file)) {
+            return exportFull(file);
+        }
+        long start = System.nanoTime();
+        try {
+            LogColumnarReader.Summary summary = LogColumnarReader.scan(file);
+            if (summary.validLength() == 0) {
+                return exportFull(file);
+            }
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                if (ch.size() > summary.validLength()) {
+                    ch.truncate(summary.validLength());
+                }
+            }
+            long rows;
+            LogColumnarWriter written;
+            try (LogColumnarWriter writer = new LogColumnarWriter(
+                    new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND), 1 << 16),
+                    false, rowGroupSize)) {
+                rows = streamInto(writer, summary.lastId());
+                written = writer;
+            }
+            int lastId = rows > 0 ? written.lastId() : summary.lastId();
+            return new ExportResult(file, rows, written.groupsWritten(), lastId, Files.size(file), elapsedMillis(start));
+        } catch (IOException e) {
+            throw new RuntimeException("Incremental log export failed: " + e.getMessage(), e);
+        }
+    }
+
+    private long streamInto(LogColumnarWriter writer, int afterId) throws IOException {
+        try {
+            return logDao.streamAfterId(afterId, log -> {
+                try {
+                    writer.append(log);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ignored) {
+            // the next full export overwrites it
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Usage: {@code LogColumnarExporter [file] [--full]}. Defaults to an incremental export into
+     * {@code ~/FactoryReports/exports/logs.flc}.
+     */
+    public static void main(String[] args) {
+        Path file = defaultExportFile();
+        boolean full = false;
+        for (String arg : args) {
+            if ("--full".equals(arg)) {
+                full = true;
+            } else {
+                file = Paths.get(arg);
+            }
+        }
+        LogColumnarExporter exporter = new LogColumnarExporter();
+        ExportResult r = full ? exporter.exportFull(file) : exporter.exportIncremental(file);
+        System.out.printf("Exported %d rows in %d row group(s) to %s (last id %d, %d bytes, %d ms)%n",
+            r.rowsWritten(), r.rowGroupsWritten(), r.file(), r.lastId(), r.fileBytes(), r.elapsedMillis());
+    }
+}
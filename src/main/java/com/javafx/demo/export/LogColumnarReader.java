@@ -0,0 +1,217 @@
+package com.javafx.demo.export;
+
+import com.javafx.demo.model.ProductLog;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Reads files produced by {@link LogColumnarWriter} one row group at a time.
+ *
+ * Typical analysis loops over {@link #nextGroup()} and works on the column arrays directly;
+ * {@link #forEach(Consumer)} is a row-oriented convenience on top of that.
+ */
+public final class LogColumnarReader implements Closeable {
+
+    /**
+     * One decoded row group. Location arrays hold 0 where the log has no location.
+     * {@code notes} is null when the reader was opened without notes.
+     */
+    public record RowGroup(int rowCount, int[] ids, long[] epochSeconds, int[] productIds, int[] userIds,
+                           String[] actionTypes, int[] quantities, int[] fromLocationIds, int[] toLocationIds,
+                           String[] notes) {
+
+        public LocalDateTime timestamp(int row) {
+            return LocalDateTime.ofEpochSecond(epochSeconds[row], 0, ZoneOffset.UTC);
+        }
+
+        public ProductLog toProductLog(int row) {
+            return new ProductLog(
+                ids[row],
+                productIds[row],
+                userIds[row],
+                actionTypes[row],
+                quantities[row],
+                timestamp(row),
+                notes != null ? notes[row] : null,
+                fromLocationIds[row] == 0 ? null : fromLocationIds[row],
+                toLocationIds[row] == 0 ? null : toLocationIds[row]
+            );
+        }
+    }
+
+    /**
+     * Result of scanning group headers: how many complete groups exist and where they end.
+     */
+    public record Summary(int rowGroups, long rows, int lastId, long validLength) {}
+
+    private final DataInputStream in;
+    private final boolean includeNotes;
+
+    private LogColumnarReader(InputStream in, boolean includeNotes) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        this.includeNotes = includeNotes;
+        byte[] magic = new byte[LogColumnarWriter.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, LogColumnarWriter.MAGIC)) {
+            throw new IOException("Not a log export file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != LogColumnarWriter.VERSION) {
+            throw new IOException("Unsupported log export version " + version);
+        }
+    }
+
+    public static LogColumnarReader open(Path file) throws IOException {
+        return open(file, true);
+    }
+
+    /**
+     * @param includeNotes false to skip decoding the notes column, which is usually the largest
+     */
+    public static LogColumnarReader open(Path file, boolean includeNotes) throws IOException {
+        return new LogColumnarReader(Files.newInputStream(file), includeNotes);
+    }
+
+    /**
+     * @return the next row group, or null at end of file
+     */
+    public RowGroup nextGroup() throws IOException {
+        int payloadLength;
+        try {
+            payloadLength = in.readInt();
+        } catch (EOFException eof) {
+            return null;
+        }
+        int rowCount = in.readInt();
+        in.readInt(); // firstId
+        in.readInt(); // lastId
+        int crcValue = in.readInt();
+        byte[] payload = new byte[payloadLength];
+        in.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != crcValue) {
+            throw new IOException("Corrupt row group (checksum mismatch)");
+        }
+        return decode(payload, rowCount);
+    }
+
+    public void forEach(Consumer<ProductLog> consumer) throws IOException {
+        RowGroup g;
+        while ((g = nextGroup()) != null) {
+            for (int i = 0; i < g.rowCount(); i++) {
+                consumer.accept(g.toProductLog(i));
+            }
+        }
+    }
+
+    private RowGroup decode(byte[] payload, int n) {
+        VarIntInput p = new VarIntInput(payload, 0, payload.length);
+
+        VarIntInput dictChunk = p.readChunk();
+        String[] dict = new String[dictChunk.readVarInt()];
+        for (int i = 0; i < dict.length; i++) dict[i] = dictChunk.readString().intern();
+
+        int[] ids = new int[n];
+        VarIntInput c = p.readChunk();
+        long id = 0;
+        for (int i = 0; i < n; i++) {
+            id += c.readVarLong();
+            ids[i] = (int) id;
+        }
+
+        long[] ts = new long[n];
+        c = p.readChunk();
+        long t = 0;
+        for (int i = 0; i < n; i++) {
+            t += c.readZigZag();
+            ts[i] = t;
+        }
+
+        int[] productIds = new int[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) productIds[i] = c.readVarInt();
+
+        int[] userIds = new int[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) userIds[i] = c.readVarInt();
+
+        String[] actions = new String[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) actions[i] = dict[c.readVarInt()];
+
+        int[] quantities = new int[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) quantities[i] = (int) c.readZigZag();
+
+        int[] from = new int[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) from[i] = (int) Math.max(0, c.readVarLong() - 1);
+
+        int[] to = new int[n];
+        c = p.readChunk();
+        for (int i = 0; i < n; i++) to[i] = (int) Math.max(0, c.readVarLong() - 1);
+
+        String[] notes = null;
+        if (includeNotes) {
+            notes = new String[n];
+            c = p.readChunk();
+            for (int i = 0; i < n; i++) notes[i] = c.readNullableString();
+        }
+        return new RowGroup(n, ids, ts, productIds, userIds, actions, quantities, from, to, notes);
+    }
+
+    /**
+     * Walk the group headers without decoding payloads. A trailing group cut short by an
+     * interrupted export is excluded from {@link Summary#validLength()}.
+     */
+    public static Summary scan(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = LogColumnarWriter.MAGIC.length + 1;
+            if (size < pos) {
+                return new Summary(0, 0, 0, 0);
+            }
+            ByteBuffer header = ByteBuffer.allocate(LogColumnarWriter.GROUP_HEADER_BYTES);
+            int groups = 0;
+            long rows = 0;
+            int lastId = 0;
+            while (pos + LogColumnarWriter.GROUP_HEADER_BYTES <= size) {
+                header.clear();
+                ch.read(header, pos);
+                header.flip();
+                int payloadLength = header.getInt();
+                int rowCount = header.getInt();
+                header.getInt(); // firstId
+                int groupLastId = header.getInt();
+                long end = pos + LogColumnarWriter.GROUP_HEADER_BYTES + payloadLength;
+                if (payloadLength < 0 || end > size) break;
+                groups++;
+                rows += rowCount;
+                lastId = groupLastId;
+                pos = end;
+            }
+            return new Summary(groups, rows, lastId, pos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,190 @@
+package com.javafx.demo.export;
+
+import com.javafx.demo.model.ProductLog;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes logs into the columnar export format, one row group every {@code rowGroupSize} rows.
+ *
+ * File layout:
+ * <pre>
+ * header    : "FLGC" magic, 1 byte version
+ * row group : int payloadLength, int rowCount, int firstId, int lastId, int crc32(payload)
+ *             payload = length-prefixed column chunks in this order:
+ *               dictionary   varint count, then strings (action types)
+ *               id           varint first id, then varint deltas (ids ascend)
+ *               timestamp    zigzag epoch seconds (UTC wall clock), then zigzag deltas
+ *               product_id   varint
+ *               user_id      varint
+ *               action_type  varint dictionary index
+ *               quantity     zigzag varint
+ *               from_loc     varint, 0 = null, otherwise id + 1
+ *               to_loc       varint, 0 = null, otherwise id + 1
+ *               notes        varint length + 1 (0 = null), then UTF-8 bytes
+ * </pre>
+ * Rows must be appended in ascending id order.
+ */
+public final class LogColumnarWriter implements Closeable {
+    static final byte[] MAGIC = {'F', 'L', 'G', 'C'};
+    static final int VERSION = 1;
+    static final int GROUP_HEADER_BYTES = 20;
+    public static final int DEFAULT_ROW_GROUP_SIZE = 65_536;
+
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+
+    private final VarIntOutput ids;
+    private final VarIntOutput timestamps;
+    private final VarIntOutput productIds;
+    private final VarIntOutput userIds;
+    private final VarIntOutput actions;
+    private final VarIntOutput quantities;
+    private final VarIntOutput fromLocations;
+    private final VarIntOutput toLocations;
+    private final VarIntOutput notes;
+    private final VarIntOutput payload;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryOrder = new ArrayList<>();
+
+    private int rowsInGroup;
+    private int firstId;
+    private int lastId;
+    private long lastEpochSecond;
+    private int groupsWritten;
+    private boolean closed;
+
+    /**
+     * @param out         stream positioned at the end of an existing export, or at the start of a new one
+     * @param writeHeader true when starting a new file
+     */
+    public LogColumnarWriter(OutputStream out, boolean writeHeader, int rowGroupSize) throws IOException {
+        if (rowGroupSize <= 0) throw new IllegalArgumentException("Row group size must be positive");
+        this.out = new DataOutputStream(out);
+        this.rowGroupSize = rowGroupSize;
+        int guess = Math.min(rowGroupSize, 4096) * 2;
+        ids = new VarIntOutput(guess);
+        timestamps = new VarIntOutput(guess);
+        productIds = new VarIntOutput(guess);
+        userIds = new VarIntOutput(guess);
+        actions = new VarIntOutput(guess);
+        quantities = new VarIntOutput(guess);
+        fromLocations = new VarIntOutput(guess);
+        toLocations = new VarIntOutput(guess);
+        notes = new VarIntOutput(guess * 4);
+        payload = new VarIntOutput(guess * 16);
+        if (writeHeader) {
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+    }
+
+    public void append(ProductLog log) throws IOException {
+        long epochSecond = log.timestamp().toEpochSecond(ZoneOffset.UTC);
+        if (rowsInGroup == 0) {
+            firstId = log.id();
+            ids.writeVarLong(log.id());
+            timestamps.writeZigZag(epochSecond);
+        } else {
+            if (log.id() <= lastId) {
+                throw new IllegalArgumentException("Rows must be appended in ascending id order");
+            }
+            ids.writeVarLong((long) log.id() - lastId);
+            timestamps.writeZigZag(epochSecond - lastEpochSecond);
+        }
+        lastId = log.id();
+        lastEpochSecond = epochSecond;
+
+        productIds.writeVarLong(log.productId());
+        userIds.writeVarLong(log.userId());
+        Integer code = dictionary.get(log.actionType());
+        if (code == null) {
+            code = dictionaryOrder.size();
+            dictionary.put(log.actionType(), code);
+            dictionaryOrder.add(log.actionType());
+        }
+        actions.writeVarLong(code);
+        quantities.writeZigZag(log.quantity());
+        fromLocations.writeVarLong(log.fromLocationId() == null ? 0 : log.fromLocationId() + 1L);
+        toLocations.writeVarLong(log.toLocationId() == null ? 0 : log.toLocationId() + 1L);
+        notes.writeNullableString(log.notes());
+
+        if (++rowsInGroup >= rowGroupSize) {
+            flushGroup();
+        }
+    }
+
+    public int groupsWritten() {
+        return groupsWritten;
+    }
+
+    public int lastId() {
+        return lastId;
+    }
+
+    private void flushGroup() throws IOException {
+        if (rowsInGroup == 0) return;
+        payload.reset();
+        VarIntOutput dict = new VarIntOutput(64);
+        dict.writeVarLong(dictionaryOrder.size());
+        for (String s : dictionaryOrder) dict.writeString(s);
+        dict.writeChunkTo(payload);
+        ids.writeChunkTo(payload);
+        timestamps.writeChunkTo(payload);
+        productIds.writeChunkTo(payload);
+        userIds.writeChunkTo(payload);
+        actions.writeChunkTo(payload);
+        quantities.writeChunkTo(payload);
+        fromLocations.writeChunkTo(payload);
+        toLocations.writeChunkTo(payload);
+        notes.writeChunkTo(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payload.size());
+        out.writeInt(payload.size());
+        out.writeInt(rowsInGroup);
+        out.writeInt(firstId);
+        out.writeInt(lastId);
+        out.writeInt((int) crc.getValue());
+        out.write(payload.array(), 0, payload.size());
+        groupsWritten++;
+
+        rowsInGroup = 0;
+        dictionary.clear();
+        dictionaryOrder.clear();
+        ids.reset();
+        timestamps.reset();
+        productIds.reset();
+        userIds.reset();
+        actions.reset();
+        quantities.reset();
+        fromLocations.reset();
+        toLocations.reset();
+        notes.reset();
+    }
+
+    /**
+     * Writes the last partial row group and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushGroup();
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.javafx.demo.export;
+
+import com.javafx.demo.app.SettingsStore;
+import com.javafx.demo.dao.LogDao;
+import com.javafx.demo.dao.SettingsDao;
+import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.service.ReportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+/**
+ * Incremental CSV export of the full log history.
+ *
+ * Logs are read in (timestamp, id) order through a server-side cursor, one bounded keyset query
+ * per batch of up to 5,000 rows, and written to {@code logs-NNNNNN.csv} files. The
+ * throttle sleeps between batches, after the cursor and its connection are released. After each
+ * chunk is on disk the position is saved under the {@code log_export_checkpoint} setting, so the
+ * nightly run appends only new rows and an interrupted run resumes at the last completed chunk.
+ *
+ * Settings:
+ * - {@code log_export_chunk_rows}: rows per CSV file (default 50000)
+ * - {@code log_export_max_rows_per_second}: read throttle, 0 disables it (default 5000)
+ */
+public class LogCsvExportService {
+    private static final Logger LOG = Logger.getLogger(LogCsvExportService.class.getName());
+
+    static final String CHECKPOINT_KEY = "log_export_checkpoint";
+    private static final int DEFAULT_CHUNK_ROWS = 50_000;
+    private static final int DEFAULT_MAX_ROWS_PER_SECOND = 5_000;
+    private static final int FETCH_SIZE = 1_000;
+    private static final int BATCH_ROWS = 5_000;
+    // Rows younger than this are left for the next run, so a transaction that commits late with an
+    // older timestamp is not skipped
+    private static final int SETTLE_SECONDS = 60;
+    private static final String HEADER =
+        "id,timestamp,product_id,user_id,action_type,quantity,from_location_id,to_location_id,notes\n";
+
+    private final LogDao logDao = new LogDao();
+    // The checkpoint is read from the table directly; tuning values come from the cached store
+    private final SettingsDao settingsDao = new SettingsDao();
+    private final SettingsStore settings = SettingsStore.getInstance();
+    private final Path exportDir;
+
+    /**
+     * Position of the last exported row and the sequence number of the next chunk file.
+     */
+    public record Checkpoint(LocalDateTime timestamp, int id, int nextChunk) {
+        static final Checkpoint START = new Checkpoint(null, 0, 1);
+
+        String encode() {
+            return (timestamp != null ? timestamp.toString() : "") + "|" + id + "|" + nextChunk;
+        }
+
+        static Checkpoint parse(String value) {
+            if (value == null || value.isBlank()) return START;
+            String[] parts = value.split("\\|");
+            if (parts.length != 3) return START;
+            try {
+                LocalDateTime ts = parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]);
+                return new Checkpoint(ts, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } catch (RuntimeException e) {
+                return START;
+            }
+        }
+    }
+
+    public record ExportResult(int chunksWritten, long rowsWritten, Checkpoint checkpoint, long elapsedMillis) {}
+
+    public LogCsvExportService() {
+        this(ReportService.reportsDirectory().resolve("exports").resolve("logs-csv"));
+    }
+
+    public LogCsvExportService(Path exportDir) {
+        this.exportDir = exportDir;
+    }
+
+    public Checkpoint currentCheckpoint() {
+        return Checkpoint.parse(settingsDao.get(CHECKPOINT_KEY));
+    }
+
+    /**
+     * Export all settled rows after the saved checkpoint.
+     */
+    public ExportResult exportNewRows() {
+        int chunkRows = Math.max(1, settings.getInt("log_export_chunk_rows", DEFAULT_CHUNK_ROWS));
+        int maxRowsPerSecond = settings.getInt("log_export_max_rows_per_second", DEFAULT_MAX_ROWS_PER_SECOND);
+        return exportNewRows(chunkRows, maxRowsPerSecond);
+    }
+
+    public ExportResult exportNewRows(int chunkRows, int maxRowsPerSecond) {
+        long start = System.nanoTime();
+        Checkpoint cp = currentCheckpoint();
+        LocalDateTime upTo = LocalDateTime.now().minusSeconds(SETTLE_SECONDS);
+        Throttle throttle = new Throttle(maxRowsPerSecond);
+        int chunks = 0;
+        long rows = 0;
+        try {
+            Files.createDirectories(exportDir);
+            while (!Thread.currentThread().isInterrupted()) {
+                ChunkWriter chunk = new ChunkWriter(exportDir, cp.nextChunk());
+                int n = 0;
+                try {
+                    LocalDateTime afterTimestamp = cp.timestamp();
+                    int afterId = cp.id();
+                    while (n < chunkRows) {
+                        int limit = Math.min(BATCH_ROWS, chunkRows - n);
+                        int batch = logDao.streamByTimestamp(afterTimestamp, afterId, upTo, limit, FETCH_SIZE, chunk::write);
+                        n += batch;
+                        if (batch < limit) break;
+                        afterTimestamp = chunk.lastTimestamp;
+                        afterId = chunk.lastId;
+                        throttle.acquire(batch);
+                    }
+                } catch (RuntimeException e) {
+                    chunk.discard();
+                    throw e;
+                }
+                if (n == 0) {
+                    chunk.discard();
+                    break;
+                }
+                chunk.commit();
+                cp = new Checkpoint(chunk.lastTimestamp, chunk.lastId, cp.nextChunk() + 1);
+                settingsDao.set(CHECKPOINT_KEY, cp.encode());
+                chunks++;
+                rows += n;
+                if (n < chunkRows) break;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Log CSV export failed: " + e.getMessage(), e);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (chunks > 0) {
+            LOG.info(String.format("Exported %d log row(s) into %d CSV chunk(s) in %d ms", rows, chunks, elapsedMillis));
+        }
+        return new ExportResult(chunks, rows, cp, elapsedMillis);
+    }
+
+    /**
+     * One chunk file, written to a {@code .part} file and renamed into place when complete.
+     */
+    private static final class ChunkWriter {
+        private final Path target;
+        private final Path part;
+        private BufferedWriter out;
+        private final StringBuilder line = new StringBuilder(128);
+        LocalDateTime lastTimestamp;
+        int lastId;
+
+        ChunkWriter(Path dir, int seq) {
+            this.target = dir.resolve(String.format("logs-%06d.csv", seq));
+            this.part = dir.resolve(target.getFileName() + ".part");
+        }
+
+        void write(ProductLog log) {
+            try {
+                if (out == null) {
+                    out = Files.newBufferedWriter(part, StandardCharsets.UTF_8);
+                    out.write(HEADER);
+                }
+                line.setLength(0);
+                line.append(log.id()).append(',')
+                    .append(log.timestamp()).append(',')
+                    .append(log.productId()).append(',')
+                    .append(log.userId()).append(',')
+                    .append(log.actionType()).append(',')
+                    .append(log.quantity()).append(',')
+                    .append(log.fromLocationId() != null ? log.fromLocationId().toString() : "").append(',')
+                    .append(log.toLocationId() != null ? log.toLocationId().toString() : "").append(',')
+                    .append(ReportService.escape(log.notes())).append('\n');
+                out.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastTimestamp = log.timestamp();
+            lastId = log.id();
+        }
+
+        void commit() throws IOException {
+            out.close();
+            // A chunk rewritten after a crash replaces the earlier partial attempt
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void discard() {
+            try {
+                if (out != null) out.close();
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+                // leftover .part files are overwritten by the next attempt
+            }
+        }
+    }
+
+    /**
+     * Paces reads to at most {@code maxPerSecond} rows so a large catch-up export does not
+     * compete with the floor terminals for database time. Called between batches, never while a
+     * cursor is open.
+     */
+    private static final class Throttle {
+        private final int maxPerSecond;
+        private final long startNanos = System.nanoTime();
+        private long permits;
+
+        Throttle(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        void acquire(int rows) {
+            if (maxPerSecond <= 0) return;
+            permits += rows;
+            long dueNanos = permits * 1_000_000_000L / maxPerSecond;
+            long aheadNanos = dueNanos - (System.nanoTime() - startNanos);
+            if (aheadNanos > 0) {
+                try {
+                    Thread.sleep(aheadNanos / 1_000_000, (int) (aheadNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
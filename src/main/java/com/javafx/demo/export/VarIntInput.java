@@ -0,0 +1,71 @@
+package com.javafx.demo.export;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cursor over a byte array holding varint-encoded values; the counterpart of {@link VarIntOutput}.
+ */
+final class VarIntInput {
+    private final byte[] buf;
+    private int pos;
+    private final int limit;
+
+    VarIntInput(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    long readVarLong() {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            if (pos >= limit) {
+                throw new IllegalStateException("Truncated varint");
+            }
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varint");
+            }
+        }
+    }
+
+    int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    long readZigZag() {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    String readString() {
+        int len = readVarInt();
+        String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+        pos += len;
+        return s;
+    }
+
+    String readNullableString() {
+        int len = readVarInt();
+        if (len == 0) return null;
+        String s = new String(buf, pos, len - 1, StandardCharsets.UTF_8);
+        pos += len - 1;
+        return s;
+    }
+
+    /**
+     * Read a length-prefixed chunk and return a cursor over it, advancing past the chunk.
+     */
+    VarIntInput readChunk() {
+        int len = readVarInt();
+        VarIntInput chunk = new VarIntInput(buf, pos, len);
+        pos += len;
+        return chunk;
+    }
+}
@@ -0,0 +1,209 @@
+package com.javafx.demo.jobs;
+
+import com.javafx.demo.dao.JobDao;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.SchedulerStats;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs daily jobs whose definitions and last-run state are kept in {@code scheduled_jobs}.
+ *
+ * Instead of a fixed 24h period, every tick recomputes each job's due slots from its
+ * {@code run_at} in the local time zone, so DST changes and edited run times take effect on the
+ * next tick. Slots missed while no terminal was running are caught up (the most recent
+ * {@value #MAX_CATCH_UP} only). Before running a slot a terminal must take the job's lease row,
+ * so with several terminals open each slot runs once. The lease lasts {@value #LEASE_SECONDS}
+ * seconds and is renewed every {@value #RENEW_SECONDS} seconds while the job runs, so a long export
+ * keeps it while a terminal that died mid-run frees the job soon. A failed run keeps the lease for
+ * {@value #RETRY_SECONDS} seconds, which delays the retry on every terminal.
+ *
+ * Every run is recorded in {@code job_runs} with its duration and outcome. Ticks run on
+ * {@link DbExecutor}; a tick that fires while the previous one (and the job it runs) is still
+ * going is skipped.
+ */
+public class JobEngine {
+    private static final Logger LOG = Logger.getLogger(JobEngine.class.getName());
+
+    static final int MAX_CATCH_UP = 7;
+    static final int LEASE_SECONDS = 5 * 60;
+    static final int RENEW_SECONDS = 60;
+    static final int RETRY_SECONDS = 5 * 60;
+    private static final int TICK_SECONDS = 30;
+
+    private final JobDao jobDao = new JobDao();
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+    private final ZoneId zone;
+    private ScheduledFuture<?> ticks;
+    private volatile boolean stopped;
+
+    public JobEngine() {
+        this(ZoneId.systemDefault());
+    }
+
+    public JobEngine(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Register a job, creating its {@code scheduled_jobs} row on first use.
+     */
+    public JobEngine register(ScheduledJob job) {
+        jobDao.ensureJob(job.name(), job.defaultRunAt());
+        jobs.put(job.name(), job);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (ticks != null) return;
+        stopped = false;
+        ticks = DbExecutor.getInstance().scheduleAtFixedRate("job-engine",
+            SchedulerStats.getInstance().fixedRate("job-engine", 5, TICK_SECONDS, TimeUnit.SECONDS, this::tick),
+            5, TICK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop scheduling ticks. A tick already running finishes the job it is in and checks no more.
+     */
+    public synchronized void shutdown() {
+        if (ticks != null) {
+            stopped = true;
+            ticks.cancel(false);
+            ticks = null;
+        }
+    }
+
+    /**
+     * Check every registered job once and run whatever is due.
+     */
+    void tick() {
+        for (ScheduledJob job : jobs.values()) {
+            if (stopped) return;
+            try {
+                runDueSlots(job, ZonedDateTime.now(zone));
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Job " + job.name() + " could not be checked", e);
+            }
+        }
+    }
+
+    private void runDueSlots(ScheduledJob job, ZonedDateTime now) {
+        JobDao.JobState state = jobDao.findByName(job.name()).orElse(null);
+        if (state == null || !state.enabled()) return;
+        LocalTime runAt = parseRunAt(state.runAt(), job.defaultRunAt());
+
+        if (state.lastScheduledFor() == null) {
+            // A new job starts from its most recent slot rather than replaying history
+            jobDao.initializeLastScheduled(job.name(), latestSlot(runAt, now));
+            return;
+        }
+
+        List<LocalDateTime> due = dueSlots(runAt, state.lastScheduledFor(), now);
+        if (due.isEmpty()) return;
+        if (due.size() > MAX_CATCH_UP) {
+            LOG.warning(String.format("Job %s missed %d runs; catching up the last %d",
+                job.name(), due.size(), MAX_CATCH_UP));
+            due = due.subList(due.size() - MAX_CATCH_UP, due.size());
+        }
+        for (LocalDateTime slot : due) {
+            if (!runSlot(job, slot)) return;
+        }
+    }
+
+    /**
+     * @return false when the remaining slots should wait for a later tick
+     */
+    private boolean runSlot(ScheduledJob job, LocalDateTime slot) {
+        if (!jobDao.tryAcquireLease(job.name(), owner, LEASE_SECONDS)) {
+            return false;
+        }
+        // Another terminal may have finished this slot between our read and the lease
+        JobDao.JobState current = jobDao.findByName(job.name()).orElse(null);
+        if (current == null || (current.lastScheduledFor() != null && !current.lastScheduledFor().isBefore(slot))) {
+            jobDao.releaseLease(job.name(), owner);
+            return true;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now(zone);
+        long start = System.nanoTime();
+        ScheduledFuture<?> heartbeat = DbExecutor.getInstance().scheduleAtFixedRate("job-lease-" + job.name(),
+            () -> renewLease(job), RENEW_SECONDS, RENEW_SECONDS, TimeUnit.SECONDS);
+        try {
+            job.action().run(slot);
+        } catch (Exception e) {
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            LOG.log(Level.WARNING, String.format("Job %s for %s failed after %d ms; retrying in %d s",
+                job.name(), slot, durationMs, RETRY_SECONDS), e);
+            jobDao.failRun(job.name(), owner, slot, startedAt, durationMs, String.valueOf(e), RETRY_SECONDS);
+            return false;
+        } finally {
+            heartbeat.cancel(false);
+        }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (!jobDao.completeRun(job.name(), owner, slot, startedAt, durationMs)) {
+            LOG.severe(String.format("Job %s for %s finished in %d ms after losing its lease; "
+                + "it may also have run on another terminal", job.name(), slot, durationMs));
+            return false;
+        }
+        LOG.info(String.format("Job %s for %s finished in %d ms", job.name(), slot, durationMs));
+        return true;
+    }
+
+    private void renewLease(ScheduledJob job) {
+        if (!jobDao.renewLease(job.name(), owner, LEASE_SECONDS)) {
+            LOG.severe("Job " + job.name() + " lost its lease while running; another terminal may start it");
+        }
+    }
+
+    /**
+     * The local date-time of the job on {@code date}. A run time inside a DST gap moves forward
+     * by the length of the gap.
+     */
+    LocalDateTime slotOn(LocalDate date, LocalTime runAt) {
+        return ZonedDateTime.of(date, runAt, zone).toLocalDateTime();
+    }
+
+    LocalDateTime latestSlot(LocalTime runAt, ZonedDateTime now) {
+        LocalDateTime today = slotOn(now.toLocalDate(), runAt);
+        return today.isAfter(now.toLocalDateTime()) ? slotOn(now.toLocalDate().minusDays(1), runAt) : today;
+    }
+
+    /**
+     * Slots after {@code after} up to and including {@code now}, oldest first.
+     */
+    List<LocalDateTime> dueSlots(LocalTime runAt, LocalDateTime after, ZonedDateTime now) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime nowLocal = now.toLocalDateTime();
+        LocalDate day = after.toLocalDate();
+        // After a long outage only the last MAX_CATCH_UP days are worth enumerating
+        LocalDate earliest = now.toLocalDate().minusDays(MAX_CATCH_UP);
+        if (day.isBefore(earliest)) day = earliest;
+        for (; !day.isAfter(now.toLocalDate()); day = day.plusDays(1)) {
+            LocalDateTime slot = slotOn(day, runAt);
+            if (slot.isAfter(after) && !slot.isAfter(nowLocal)) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    static LocalTime parseRunAt(String value, String fallback) {
+        String v = value != null && value.matches("^\\d{2}:\\d{2}$") ? value : fallback;
+        String[] parts = v.split(":");
+        return LocalTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+}
@@ -0,0 +1,22 @@
+package com.javafx.demo.jobs;
+
+import java.time.LocalDateTime;
+
+/**
+ * A daily job run by {@link JobEngine}. The run time lives in the {@code scheduled_jobs} table;
+ * {@code defaultRunAt} is only used when the job row is first created.
+ *
+ * @param name         unique job name, the primary key of its {@code scheduled_jobs} row
+ * @param defaultRunAt initial {@code HH:mm} local run time
+ * @param action       work to do for one scheduled slot
+ */
+public record ScheduledJob(String name, String defaultRunAt, Action action) {
+
+    @FunctionalInterface
+    public interface Action {
+        /**
+         * @param slot the local date-time this run was scheduled for; during catch-up it lies in the past
+         */
+        void run(LocalDateTime slot) throws Exception;
+    }
+}
@@ -0,0 +1,54 @@
+package com.javafx.demo.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts of the in-memory caches, by cache name, for the whole process. A miss is a
+ * lookup that had to read the database first.
+ */
+public final class CacheStats {
+    private static final CacheStats INSTANCE = new CacheStats();
+
+    /** Counts for one cache at the time of the call. */
+    public record Entry(long hits, long misses) {
+        public double hitRate() {
+            long n = hits + misses;
+            return n == 0 ? 0 : (double) hits / n;
+        }
+    }
+
+    private static final class Counts {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+
+    private final Map<String, Counts> caches = new ConcurrentHashMap<>();
+
+    private CacheStats() {}
+
+    public static CacheStats getInstance() {
+        return INSTANCE;
+    }
+
+    public void hit(String cache) {
+        counts(cache).hits.increment();
+    }
+
+    public void miss(String cache) {
+        counts(cache).misses.increment();
+    }
+
+    public Map<String, Entry> snapshot() {
+        Map<String, Entry> all = new TreeMap<>();
+        caches.forEach((name, c) -> all.put(name, new Entry(c.hits.sum(), c.misses.sum())));
+        return all;
+    }
+
+    private Counts counts(String cache) {
+        Counts c = caches.get(cache);
+        return c != null ? c : caches.computeIfAbsent(cache, k -> new Counts());
+    }
+}
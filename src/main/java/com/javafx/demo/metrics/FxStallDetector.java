@@ -0,0 +1,182 @@
+package com.javafx.demo.metrics;
+
+import javafx.application.Platform;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Measures how quickly the FX application thread responds. Every {@value #PING_MILLIS} ms a
+ * watchdog thread posts a ping with {@code Platform.runLater} and records how long it took to
+ * run; a response slower than {@code fx.stallMillis} (default 200) counts as a stall. While a
+ * ping is outstanding no new one is posted, so a long freeze is one slow response rather than a
+ * queue of them.
+ *
+ * The watchdog checks the outstanding ping every {@value #CHECK_MILLIS} ms, and once it is over
+ * the threshold takes the FX thread's stack while the thread is still stuck. The stall is logged
+ * and kept (the last {@value #KEEP_STALLS}) with the controller method it happened in, so a
+ * freeze can be traced to the code that caused it, typically a DAO call on the FX thread.
+ */
+public final class FxStallDetector {
+    private static final Logger LOG = Logger.getLogger(FxStallDetector.class.getName());
+    private static final FxStallDetector INSTANCE = new FxStallDetector();
+    private static final long PING_MILLIS = 250;
+    private static final long CHECK_MILLIS = 50;
+    private static final long STALL_MICROS = Long.getLong("fx.stallMillis", 200) * 1_000;
+    private static final int KEEP_STALLS = 50;
+    private static final int MAX_FRAMES = 40;
+    private static final String APP_PACKAGE = "com.javafx.demo.";
+    private static final String OWN_PACKAGE = "com.javafx.demo.metrics.";
+
+    /**
+     * One stall: when it started, how long the FX thread did not respond, the application method
+     * it was in and its stack. {@code stack} is empty when the stall ended before it was sampled.
+     */
+    public record Stall(LocalDateTime at, long durationMicros, String action, String stack) {}
+
+    private record Sample(long postedAt, String action, String stack) {}
+
+    private final LatencyHistogram response = new LatencyHistogram();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder stallMicros = new LongAdder();
+    // nanoTime the outstanding ping was posted at, or 0 when none is outstanding
+    private final AtomicLong postedAt = new AtomicLong();
+    private final AtomicReference<Sample> sample = new AtomicReference<>();
+    private final Deque<Stall> recent = new ArrayDeque<>();
+    private volatile Thread fxThread;
+    private volatile long lastAnsweredAt;
+    private ScheduledExecutorService watchdog;
+
+    private FxStallDetector() {}
+
+    public static FxStallDetector getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start pinging; the FX toolkit must be running.
+     */
+    public synchronized void start() {
+        if (watchdog != null) return;
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-stall-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        watchdog.scheduleWithFixedDelay(this::check, PING_MILLIS, CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    /** Time from posting a ping to the FX thread running it. */
+    public LatencyHistogram responseLatency() {
+        return response;
+    }
+
+    public long stallCount() {
+        return stalls.sum();
+    }
+
+    /** Total response time of the pings that counted as stalls. */
+    public long stallMicros() {
+        return stallMicros.sum();
+    }
+
+    /**
+     * The most recent stalls, newest first.
+     */
+    public List<Stall> recentStalls() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    // Watchdog thread only
+    private void check() {
+        long now = System.nanoTime();
+        long posted = postedAt.get();
+        if (posted == 0) {
+            if (now - lastAnsweredAt >= TimeUnit.MILLISECONDS.toNanos(PING_MILLIS)) ping(now);
+            return;
+        }
+        Thread fx = fxThread;
+        Sample s = sample.get();
+        if (fx != null && (now - posted) / 1_000 >= STALL_MICROS && (s == null || s.postedAt() != posted)) {
+            StackTraceElement[] frames = fx.getStackTrace();
+            sample.set(new Sample(posted, actionOf(frames), render(frames)));
+        }
+    }
+
+    private void ping(long now) {
+        postedAt.set(now);
+        Platform.runLater(() -> {
+            long posted = postedAt.get();
+            long micros = (System.nanoTime() - posted) / 1_000;
+            fxThread = Thread.currentThread();
+            response.recordMicros(micros);
+            if (micros >= STALL_MICROS) recordStall(posted, micros);
+            lastAnsweredAt = System.nanoTime();
+            postedAt.set(0);
+        });
+    }
+
+    private void recordStall(long posted, long micros) {
+        stalls.increment();
+        stallMicros.add(micros);
+        Sample s = sample.getAndSet(null);
+        boolean sampled = s != null && s.postedAt() == posted;
+        String action = sampled ? s.action() : "unknown";
+        String stack = sampled ? s.stack() : "";
+        LocalDateTime at = LocalDateTime.now().minusNanos(micros * 1_000);
+        synchronized (recent) {
+            recent.addFirst(new Stall(at, micros, action, stack));
+            while (recent.size() > KEEP_STALLS) recent.removeLast();
+        }
+        LOG.warning(String.format("FX thread stalled for %d ms in %s%s", micros / 1_000, action,
+            stack.isEmpty() ? "" : "\n" + stack));
+    }
+
+    /**
+     * The innermost controller method on the stack, else the innermost application method.
+     */
+    private static String actionOf(StackTraceElement[] frames) {
+        String firstApp = null;
+        for (StackTraceElement f : frames) {
+            String cls = f.getClassName();
+            if (!cls.startsWith(APP_PACKAGE) || cls.startsWith(OWN_PACKAGE)) continue;
+            String simple = cls.substring(cls.lastIndexOf('.') + 1);
+            int nested = simple.indexOf('$');
+            String owner = nested < 0 ? simple : simple.substring(0, nested);
+            String name = owner + "." + f.getMethodName();
+            if (owner.endsWith("Controller")) return name;
+            if (firstApp == null) firstApp = name;
+        }
+        if (firstApp != null) return firstApp;
+        return frames.length > 0 ? frames[0].getClassName() + "." + frames[0].getMethodName() : "unknown";
+    }
+
+    private static String render(StackTraceElement[] frames) {
+        StringBuilder sb = new StringBuilder();
+        int n = Math.min(frames.length, MAX_FRAMES);
+        for (int i = 0; i < n; i++) {
+            sb.append("    at ").append(frames[i]).append('\n');
+        }
+        if (frames.length > n) sb.append("    ... ").append(frames.length - n).append(" more\n");
+        return sb.toString();
+    }
+}
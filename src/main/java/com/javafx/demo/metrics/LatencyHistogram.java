@@ -0,0 +1,155 @@
+package com.javafx.demo.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in microseconds with log-linear buckets.
+ *
+ * Values below 128 us have a bucket each; above that every power of two is split into 64
+ * buckets, so a reported percentile is within about 1.6% of the recorded value. Values beyond
+ * roughly 12 days land in the last bucket. Recording is a couple of atomic increments and safe
+ * from any number of threads; reading while recording gives a slightly inconsistent but usable
+ * snapshot.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2;
+    private static final int MAX_SHIFT = 34;
+    private static final int BUCKETS = LINEAR_LIMIT + MAX_SHIFT * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos)));
+    }
+
+    public void recordMicros(long micros) {
+        long v = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sumMicros.addAndGet(v);
+        maxMicros.accumulateAndGet(v, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    public double meanMicros() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sumMicros.get() / n;
+    }
+
+    public long sumMicros() {
+        return sumMicros.get();
+    }
+
+    /**
+     * Number of values recorded in buckets that lie wholly at or below {@code micros}; values in
+     * the bucket straddling it are left out, so this undercounts by at most one bucket's width.
+     */
+    public long countAtOrBelow(long micros) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= micros; i++) {
+            n += counts.get(i);
+        }
+        return n;
+    }
+
+    /**
+     * The smallest bucket bound at or below which {@code percentile} percent of the values lie,
+     * e.g. {@code percentileMicros(99.9)}; 0 when nothing was recorded.
+     */
+    public long percentileMicros(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * Add all values recorded in {@code other} to this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        total.addAndGet(other.total.get());
+        sumMicros.addAndGet(other.sumMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sumMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * Counts per power-of-two range, one line each, with a bar scaled to the largest range; empty
+     * leading and trailing ranges are left out.
+     */
+    public String render() {
+        int ranges = MAX_SHIFT + SUB_BITS + 2;
+        long[] perRange = new long[ranges];
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts.get(i);
+            if (c != 0) perRange[rangeOf(upperBound(i))] += c;
+        }
+        int first = 0, last = ranges - 1;
+        while (first < ranges && perRange[first] == 0) first++;
+        while (last > first && perRange[last] == 0) last--;
+        long peak = 1;
+        for (long c : perRange) peak = Math.max(peak, c);
+        StringBuilder sb = new StringBuilder();
+        for (int r = first; r <= last && first < ranges; r++) {
+            long lo = r == 0 ? 0 : 1L << (r - 1);
+            long hi = (1L << r) - 1;
+            int bar = (int) Math.round(40.0 * perRange[r] / peak);
+            sb.append(String.format("%10s - %-10s %10d %s%n", formatMicros(lo), formatMicros(hi), perRange[r], "#".repeat(bar)));
+        }
+        return sb.toString();
+    }
+
+    public static String formatMicros(long micros) {
+        if (micros < 1_000) return micros + "us";
+        if (micros < 1_000_000) return String.format("%.1fms", micros / 1_000.0);
+        return String.format("%.2fs", micros / 1_000_000.0);
+    }
+
+    static int indexOf(long v) {
+        if (v < LINEAR_LIMIT) return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int shift = msb - SUB_BITS;
+        if (shift > MAX_SHIFT) return BUCKETS - 1;
+        return LINEAR_LIMIT + (shift - 1) * SUB_COUNT + (int) ((v >> shift) - SUB_COUNT);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = (index - LINEAR_LIMIT) / SUB_COUNT + 1;
+        long sub = (index - LINEAR_LIMIT) % SUB_COUNT + SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private static int rangeOf(long v) {
+        return v == 0 ? 0 : 64 - Long.numberOfLeadingZeros(v);
+    }
+}
@@ -0,0 +1,156 @@
+package com.javafx.demo.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Serves this terminal's metrics at {@code /metrics} in the Prometheus text format, for scraping
+ * across the terminal fleet. Off unless {@code -Dmetrics.port} is set; listens on the loopback
+ * interface unless {@code -Dmetrics.bind} names another address (e.g. {@code 0.0.0.0}), so
+ * exposing a terminal on the network is a deliberate choice.
+ *
+ * Covers connections, per-query latency, cache hit rates, scheduler lag, FX thread response and
+ * the JVM heap. Metrics are cumulative since start; Prometheus computes rates from them.
+ */
+public final class MetricsServer {
+    private static final Logger LOG = Logger.getLogger(MetricsServer.class.getName());
+    private static final MetricsServer INSTANCE = new MetricsServer();
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private HttpServer server;
+
+    private MetricsServer() {}
+
+    public static MetricsServer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start serving if {@code metrics.port} is set; a no-op otherwise or when already started.
+     */
+    public synchronized void startIfConfigured() {
+        Integer port = Integer.getInteger("metrics.port");
+        if (port == null || server != null) return;
+        String bind = System.getProperty("metrics.bind");
+        try {
+            InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+            server = HttpServer.create(new InetSocketAddress(address, port), 0);
+            server.createContext("/metrics", this::handle);
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-http");
+                t.setDaemon(true);
+                return t;
+            }));
+            server.start();
+            LOG.info(String.format("Metrics at http://%s:%d/metrics", address.getHostAddress(), port));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start metrics server on port " + port, e);
+        }
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * The current metrics page.
+     */
+    public String render() {
+        PrometheusWriter w = new PrometheusWriter();
+        writeDatabase(w);
+        writeCaches(w);
+        writeSchedulers(w);
+        writeFxThread(w);
+        writeJvm(w);
+        return w.toString();
+    }
+
+    private static void writeDatabase(PrometheusWriter w) {
+        QueryStats stats = QueryStats.getInstance();
+        // There is no pool: every DAO call opens its own connection
+        w.family("factory_db_connections_open", "gauge", "Database connections currently open.")
+            .sample("factory_db_connections_open", null, stats.openConnections());
+        w.family("factory_db_connection_open_seconds", "histogram", "Time to open a database connection.")
+            .histogram("factory_db_connection_open_seconds", null, stats.connectionWait());
+        w.family("factory_db_query_seconds", "histogram", "Statement execution time by DAO method.");
+        stats.latencies().forEach((name, h) ->
+            w.histogram("factory_db_query_seconds", PrometheusWriter.label("query", name), h));
+    }
+
+    private static void writeCaches(PrometheusWriter w) {
+        var caches = CacheStats.getInstance().snapshot();
+        w.family("factory_cache_hits_total", "counter", "Cache lookups answered from the cache.");
+        caches.forEach((name, e) -> w.sample("factory_cache_hits_total", PrometheusWriter.label("cache", name), e.hits()));
+        w.family("factory_cache_misses_total", "counter", "Cache lookups that had to load.");
+        caches.forEach((name, e) -> w.sample("factory_cache_misses_total", PrometheusWriter.label("cache", name), e.misses()));
+    }
+
+    private static void writeSchedulers(PrometheusWriter w) {
+        var schedulers = SchedulerStats.getInstance().snapshot();
+        w.family("factory_scheduler_lag_seconds", "histogram", "How late scheduled runs started.");
+        schedulers.forEach((name, s) ->
+            w.histogram("factory_scheduler_lag_seconds", PrometheusWriter.label("scheduler", name), s.lag()));
+        w.family("factory_scheduler_run_seconds", "histogram", "Duration of scheduled runs.");
+        schedulers.forEach((name, s) ->
+            w.histogram("factory_scheduler_run_seconds", PrometheusWriter.label("scheduler", name), s.runTime()));
+    }
+
+    private static void writeFxThread(PrometheusWriter w) {
+        FxStallDetector fx = FxStallDetector.getInstance();
+        w.family("factory_fx_response_seconds", "histogram", "Time for the FX thread to run a posted ping.")
+            .histogram("factory_fx_response_seconds", null, fx.responseLatency());
+        w.family("factory_fx_stalls_total", "counter", "FX thread responses slower than the stall threshold.")
+            .sample("factory_fx_stalls_total", null, fx.stallCount());
+        w.family("factory_fx_stall_seconds_total", "counter", "Total duration of FX thread stalls.")
+            .sample("factory_fx_stall_seconds_total", null, fx.stallMicros() / 1_000_000.0);
+    }
+
+    private static void writeJvm(PrometheusWriter w) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        w.family("jvm_heap_used_bytes", "gauge", "Heap in use.")
+            .sample("jvm_heap_used_bytes", null, heap.getUsed());
+        w.family("jvm_heap_committed_bytes", "gauge", "Heap committed by the JVM.")
+            .sample("jvm_heap_committed_bytes", null, heap.getCommitted());
+        w.family("jvm_heap_max_bytes", "gauge", "Maximum heap size.")
+            .sample("jvm_heap_max_bytes", null, heap.getMax());
+        w.family("jvm_gc_collections_total", "counter", "Garbage collections by collector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            w.sample("jvm_gc_collections_total", PrometheusWriter.label("gc", gc.getName()), Math.max(0, gc.getCollectionCount()));
+        }
+        w.family("jvm_gc_pause_seconds_total", "counter", "Time spent in garbage collection by collector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            w.sample("jvm_gc_pause_seconds_total", PrometheusWriter.label("gc", gc.getName()), Math.max(0, gc.getCollectionTime()) / 1000.0);
+        }
+        w.family("jvm_threads_live", "gauge", "Live threads.")
+            .sample("jvm_threads_live", null, ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.javafx.demo.metrics;
+
+/**
+ * Builds a page in the Prometheus text exposition format. Each metric family is started with
+ * {@link #family} and followed by its samples; durations are written in seconds.
+ */
+final class PrometheusWriter {
+    // Bucket bounds in seconds for latency histograms, in the usual Prometheus spread
+    private static final double[] BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final StringBuilder sb = new StringBuilder(16 * 1024);
+
+    PrometheusWriter family(String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    PrometheusWriter sample(String name, String labels, double value) {
+        sb.append(name);
+        if (labels != null && !labels.isEmpty()) sb.append('{').append(labels).append('}');
+        sb.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Samples of a histogram family for {@code h}, which records microseconds.
+     */
+    PrometheusWriter histogram(String name, String labels, LatencyHistogram h) {
+        String prefix = labels == null || labels.isEmpty() ? "" : labels + ",";
+        for (double le : BUCKETS) {
+            sample(name + "_bucket", prefix + "le=\"" + format(le) + "\"", h.countAtOrBelow(Math.round(le * 1_000_000)));
+        }
+        long count = h.count();
+        sample(name + "_bucket", prefix + "le=\"+Inf\"", count);
+        sample(name + "_sum", labels, h.sumMicros() / 1_000_000.0);
+        sample(name + "_count", labels, count);
+        return this;
+    }
+
+    static String label(String key, String value) {
+        String escaped = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return key + "=\"" + escaped + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    private static String format(double v) {
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+        return Double.toString(v);
+    }
+}
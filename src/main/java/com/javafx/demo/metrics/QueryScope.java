@@ -0,0 +1,227 @@
+package com.javafx.demo.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts the statements, connections and database time of one UI action or screen load on the
+ * current thread, and checks them against a declared statement budget:
+ *
+ * <pre>
+ * return QueryScope.call("Alerts.page", 3, () -&gt; ... DAO calls ...);
+ * </pre>
+ *
+ * On close a scope reports when it ran more statements than its budget, or ran the same SQL more
+ * than {@code db.repeatedQueryLimit} times (default 5), which is almost always a query per table
+ * row that should be one batched query. Scopes are off unless {@code -Ddb.queryBudget} is
+ * {@code warn} (log a warning) or {@code fail} (throw {@link IllegalStateException}, for checking
+ * screens before a release). When off, {@link #open} returns a shared no-op scope.
+ *
+ * Scopes may nest; an inner scope's counts are added to the enclosing one when it closes. A scope
+ * belongs to the thread that opened it. Work that fans out to other threads either runs through
+ * {@code DbExecutor}, which carries the submitting thread's scope into each task, or uses a scope
+ * from {@link #openDetached} that each task joins with {@link #callIn}.
+ */
+public final class QueryScope implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(QueryScope.class.getName());
+    private static final Mode MODE = Mode.parse(System.getProperty("db.queryBudget"));
+    private static final int REPEAT_LIMIT = Integer.getInteger("db.repeatedQueryLimit", 5);
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+    private static final QueryScope DISABLED = new QueryScope("disabled", Integer.MAX_VALUE, null, false);
+
+    public enum Mode {
+        OFF, WARN, FAIL;
+
+        static Mode parse(String value) {
+            if (value == null || value.isBlank()) return OFF;
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LOG.warning("Unknown db.queryBudget '" + value + "'; query scopes disabled");
+                return OFF;
+            }
+        }
+    }
+
+    /** Counts for one scope; {@code repeated} holds the SQL run more than the repeat limit. */
+    public record Summary(String name, int budget, int statements, int connections, long dbMicros,
+                          long connectMicros, Map<String, Integer> repeated) {
+        public boolean overBudget() {
+            return statements > budget;
+        }
+    }
+
+    private final String name;
+    private final int budget;
+    private final QueryScope parent;
+    private final boolean attached;
+    private final Map<String, Integer> bySql = new HashMap<>();
+    private int statements;
+    private int connections;
+    private long dbNanos;
+    private long connectNanos;
+    private boolean closed;
+
+    private QueryScope(String name, int budget, QueryScope parent, boolean attached) {
+        this.name = name;
+        this.budget = budget;
+        this.parent = parent;
+        this.attached = attached;
+    }
+
+    public static Mode mode() {
+        return MODE;
+    }
+
+    /**
+     * Start counting on this thread. {@code statementBudget} is the most statements the action
+     * should need; close the scope with try-with-resources.
+     */
+    public static QueryScope open(String name, int statementBudget) {
+        if (MODE == Mode.OFF) return DISABLED;
+        QueryScope scope = new QueryScope(name, statementBudget, CURRENT.get(), true);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Run {@code work} in a new scope on this thread and close it afterwards. If {@code work}
+     * throws, a budget failure from closing the scope is added to its exception as suppressed.
+     */
+    public static <T> T call(String name, int statementBudget, Supplier<T> work) {
+        QueryScope scope = open(name, statementBudget);
+        T result;
+        try {
+            result = work.get();
+        } catch (RuntimeException | Error e) {
+            try {
+                scope.close();
+            } catch (IllegalStateException budget) {
+                e.addSuppressed(budget);
+            }
+            throw e;
+        }
+        scope.close();
+        return result;
+    }
+
+    /**
+     * A scope not bound to any thread, for an action whose queries all run on other threads;
+     * tasks join it with {@link #callIn} and whoever sees the action finish closes it.
+     */
+    public static QueryScope openDetached(String name, int statementBudget) {
+        if (MODE == Mode.OFF) return DISABLED;
+        return new QueryScope(name, statementBudget, null, false);
+    }
+
+    /**
+     * The scope open on this thread, or null.
+     */
+    public static QueryScope current() {
+        return MODE == Mode.OFF ? null : CURRENT.get();
+    }
+
+    /**
+     * Run {@code work} with this thread's statements counted into {@code scope} (which may be
+     * null), then restore the thread's previous scope. {@code scope} is not closed.
+     */
+    public static <T> T callIn(QueryScope scope, Supplier<T> work) {
+        if (scope == null || scope == DISABLED) return work.get();
+        QueryScope previous = CURRENT.get();
+        CURRENT.set(scope);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Called for every executed statement; a no-op when no scope is open on this thread.
+     */
+    public static void recordStatement(String sql, long nanos) {
+        if (MODE == Mode.OFF) return;
+        QueryScope scope = CURRENT.get();
+        if (scope == null) return;
+        synchronized (scope) {
+            scope.statements++;
+            scope.dbNanos += nanos;
+            scope.bySql.merge(sql == null ? "(batch)" : sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Called for every connection opened; a no-op when no scope is open on this thread.
+     */
+    public static void recordConnection(long nanos) {
+        if (MODE == Mode.OFF) return;
+        QueryScope scope = CURRENT.get();
+        if (scope == null) return;
+        synchronized (scope) {
+            scope.connections++;
+            scope.connectNanos += nanos;
+        }
+    }
+
+    public synchronized Summary summary() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        bySql.entrySet().stream()
+            .filter(e -> e.getValue() > REPEAT_LIMIT)
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .forEach(e -> repeated.put(e.getKey(), e.getValue()));
+        return new Summary(name, budget, statements, connections, dbNanos / 1_000, connectNanos / 1_000, repeated);
+    }
+
+    @Override
+    public void close() {
+        if (this == DISABLED) return;
+        Summary s;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            s = summary();
+            if (parent != null) {
+                synchronized (parent) {
+                    parent.statements += statements;
+                    parent.connections += connections;
+                    parent.dbNanos += dbNanos;
+                    parent.connectNanos += connectNanos;
+                    bySql.forEach((sql, n) -> parent.bySql.merge(sql, n, Integer::sum));
+                }
+            }
+        }
+        if (attached) {
+            if (parent != null) CURRENT.set(parent);
+            else CURRENT.remove();
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (s.overBudget()) {
+            problems.add(String.format("%d statements exceed the budget of %d", s.statements(), s.budget()));
+        }
+        s.repeated().forEach((sql, n) ->
+            problems.add(String.format("same statement run %d times (N+1?): %s", n, oneLine(sql))));
+        String totals = String.format("Query scope %s: %d statements, %d connections, db %s, connect %s",
+            s.name(), s.statements(), s.connections(),
+            LatencyHistogram.formatMicros(s.dbMicros()), LatencyHistogram.formatMicros(s.connectMicros()));
+        if (problems.isEmpty()) {
+            if (LOG.isLoggable(Level.FINE)) LOG.fine(totals);
+            return;
+        }
+        String message = totals + "; " + String.join("; ", problems);
+        if (MODE == Mode.FAIL) throw new IllegalStateException(message);
+        LOG.warning(message);
+    }
+
+    private static String oneLine(String sql) {
+        String s = sql.replaceAll("\\s+", " ").trim();
+        return s.length() > 200 ? s.substring(0, 200) + "..." : s;
+    }
+}
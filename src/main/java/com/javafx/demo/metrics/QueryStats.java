@@ -0,0 +1,105 @@
+package com.javafx.demo.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-query latency and row counts, plus the time spent opening connections, for the whole
+ * process. Fed by {@code InstrumentedConnection}; queries are named after the DAO method that ran
+ * them, e.g. {@code LogDao.findFiltered}.
+ *
+ * Recording into an existing entry does not allocate, so it is cheap enough to leave on.
+ */
+public final class QueryStats {
+    private static final QueryStats INSTANCE = new QueryStats();
+
+    /** Totals for one query name at the time of the call. */
+    public record Entry(String name, long calls, long rows, long totalMicros, double meanMicros,
+                        long p50Micros, long p99Micros, long maxMicros) {}
+
+    private static final class Stat {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+    }
+
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private QueryStats() {}
+
+    public static QueryStats getInstance() {
+        return INSTANCE;
+    }
+
+    public void recordQuery(String name, long nanos) {
+        Stat s = stat(name);
+        long micros = nanos / 1_000;
+        s.latency.recordMicros(micros);
+        s.totalMicros.add(micros);
+    }
+
+    public void recordRows(String name, long rows) {
+        if (rows > 0) stat(name).rows.add(rows);
+    }
+
+    public void recordConnectionWait(long nanos) {
+        connectionWait.recordNanos(nanos);
+    }
+
+    public LatencyHistogram connectionWait() {
+        return connectionWait;
+    }
+
+    public void connectionOpened() {
+        openConnections.incrementAndGet();
+    }
+
+    public void connectionClosed() {
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * Connections opened through {@code Database} that have not been closed yet.
+     */
+    public int openConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Latency histogram of every query name, for exporting; the histograms are live.
+     */
+    public Map<String, LatencyHistogram> latencies() {
+        Map<String, LatencyHistogram> all = new TreeMap<>();
+        stats.forEach((name, s) -> all.put(name, s.latency));
+        return all;
+    }
+
+    /**
+     * The {@code n} queries with the most total time, most first.
+     */
+    public List<Entry> top(int n) {
+        List<Entry> all = new ArrayList<>(stats.size());
+        stats.forEach((name, s) -> all.add(new Entry(name, s.latency.count(), s.rows.sum(), s.totalMicros.sum(),
+            s.latency.meanMicros(), s.latency.percentileMicros(50), s.latency.percentileMicros(99), s.latency.maxMicros())));
+        all.sort(Comparator.comparingLong(Entry::totalMicros).reversed());
+        return all.size() > n ? List.copyOf(all.subList(0, n)) : all;
+    }
+
+    public void reset() {
+        stats.clear();
+        connectionWait.reset();
+    }
+
+    private Stat stat(String name) {
+        Stat s = stats.get(name);
+        return s != null ? s : stats.computeIfAbsent(name, k -> new Stat());
+    }
+}
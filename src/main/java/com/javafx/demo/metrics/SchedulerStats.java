@@ -0,0 +1,60 @@
+package com.javafx.demo.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How late and how long the runs of each background scheduler are. A task is wrapped with
+ * {@link #fixedRate} using the same timing it is scheduled with; each run
+ * then records its lag, the time between when it should have started and when it did, which
+ * grows when the scheduler thread is busy or starved.
+ */
+public final class SchedulerStats {
+    private static final SchedulerStats INSTANCE = new SchedulerStats();
+
+    /** Lag and run time of one scheduler; the histograms are live. */
+    public record Stat(LatencyHistogram lag, LatencyHistogram runTime) {}
+
+    private final Map<String, Stat> schedulers = new ConcurrentHashMap<>();
+
+    private SchedulerStats() {}
+
+    public static SchedulerStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * {@code task} for {@code DbExecutor.scheduleAtFixedRate(name, task, initialDelay, period, unit)},
+     * which skips a tick while the previous run is still going.
+     */
+    public Runnable fixedRate(String scheduler, long initialDelay, long period, TimeUnit unit, Runnable task) {
+        return timed(scheduler, unit.toNanos(initialDelay), unit.toNanos(period), task);
+    }
+
+    public Map<String, Stat> snapshot() {
+        return new TreeMap<>(schedulers);
+    }
+
+    private Runnable timed(String scheduler, long initialDelayNanos, long periodNanos, Runnable task) {
+        Stat stat = schedulers.computeIfAbsent(scheduler,
+            k -> new Stat(new LatencyHistogram(), new LatencyHistogram()));
+        long[] due = {System.nanoTime() + initialDelayNanos};
+        return () -> {
+            long start = System.nanoTime();
+            stat.lag().recordNanos(start - due[0]);
+            try {
+                task.run();
+            } finally {
+                long end = System.nanoTime();
+                stat.runTime().recordNanos(end - start);
+                // DbExecutor skips ticks that fire while a run is still going, so the next
+                // run is due at the first tick after this one ends
+                do {
+                    due[0] += periodNanos;
+                } while (due[0] <= end);
+            }
+        };
+    }
+}
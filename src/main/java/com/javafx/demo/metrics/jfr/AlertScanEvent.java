@@ -0,0 +1,22 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javafx.demo.AlertScan")
+@Label("Overdue Alert Scan")
+@Category({"Factory Inventory", "Alerts"})
+@StackTrace(false)
+public class AlertScanEvent extends Event {
+    @Label("Overdue Hours")
+    public int overdueHours;
+
+    @Label("Check-Outs Scanned")
+    public int checkoutsScanned;
+
+    @Label("Alerts Created")
+    public int alertsCreated;
+}
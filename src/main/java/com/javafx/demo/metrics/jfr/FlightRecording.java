@@ -0,0 +1,102 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Logger;
+
+/**
+ * Continuous flight recording of the JDK's default low-overhead event set plus the application
+ * events in this package, kept on disk for the last {@value #MAX_AGE_MINUTES} minutes (at most
+ * {@value #MAX_SIZE_MB} MB). {@link #dump()} writes it to a file that can be opened in JDK Mission
+ * Control.
+ *
+ * Queries are recorded from {@value #QUERY_THRESHOLD_MILLIS} ms so that chatty screens do not
+ * crowd out the rest; the other application events are always recorded.
+ */
+public final class FlightRecording {
+    private static final Logger LOG = Logger.getLogger(FlightRecording.class.getName());
+    private static final FlightRecording INSTANCE = new FlightRecording();
+    private static final int MAX_AGE_MINUTES = 30;
+    private static final int MAX_SIZE_MB = 100;
+    private static final int QUERY_THRESHOLD_MILLIS = 1;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private Recording recording;
+
+    private FlightRecording() {}
+
+    public static FlightRecording getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Directory that recordings are dumped to.
+     */
+    public static Path recordingsDirectory() {
+        return Paths.get(System.getProperty("user.home"), "FactoryRecordings");
+    }
+
+    /**
+     * Start the continuous recording unless it is running or the JVM has no flight recorder.
+     */
+    public synchronized void start() {
+        if (recording != null) return;
+        if (!FlightRecorder.isAvailable()) {
+            LOG.info("Flight recorder not available; continuous recording disabled");
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("factory-continuous");
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+            r.setMaxSize(MAX_SIZE_MB * 1024L * 1024L);
+            r.enable(InventoryMovementEvent.class);
+            r.enable(QueryEvent.class).withThreshold(Duration.ofMillis(QUERY_THRESHOLD_MILLIS));
+            r.enable(AlertScanEvent.class);
+            r.enable(ReportEvent.class);
+            r.enable(ScreenLoadEvent.class);
+            r.start();
+            recording = r;
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Failed to start flight recording", e);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Write what the continuous recording holds to a new file and return its path.
+     */
+    public synchronized Path dump() {
+        if (recording == null) throw new IllegalStateException("Flight recording is not running");
+        Path dir = recordingsDirectory();
+        Path file = dir.resolve("factory-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        try {
+            Files.createDirectories(dir);
+            recording.dump(file);
+            LOG.info("Flight recording dumped to " + file);
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to dump flight recording: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void stop() {
+        if (recording == null) return;
+        recording.close();
+        recording = null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javafx.demo.InventoryMovement")
+@Label("Inventory Movement")
+@Category({"Factory Inventory", "Inventory"})
+@Description("A check-in, check-out or transfer through InventoryService, including its log insert")
+@StackTrace(false)
+public class InventoryMovementEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Product Id")
+    public int productId;
+
+    @Label("From Location Id")
+    public int fromLocationId;
+
+    @Label("To Location Id")
+    public int toLocationId;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,22 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javafx.demo.Query")
+@Label("Database Query")
+@Category({"Factory Inventory", "Database"})
+@Description("One JDBC statement, from execution until its result set is read or closed")
+@StackTrace(false)
+public class QueryEvent extends Event {
+    @Label("Query")
+    @Description("DAO method that ran the statement")
+    public String name;
+
+    @Label("Rows")
+    public long rows;
+}
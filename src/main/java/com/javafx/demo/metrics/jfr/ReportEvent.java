@@ -0,0 +1,22 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javafx.demo.Report")
+@Label("Report Generation")
+@Category({"Factory Inventory", "Reports"})
+@StackTrace(false)
+public class ReportEvent extends Event {
+    @Label("Format")
+    public String format;
+
+    @Label("Report Date")
+    public String reportDate;
+
+    @Label("Characters")
+    public long characters;
+}
@@ -0,0 +1,18 @@
+package com.javafx.demo.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javafx.demo.ScreenLoad")
+@Label("Screen Load")
+@Category({"Factory Inventory", "UI"})
+@Description("From the start of a controller's initialize() until the first layout pulse with the screen attached")
+@StackTrace(false)
+public class ScreenLoadEvent extends Event {
+    @Label("Screen")
+    public String screen;
+}
@@ -0,0 +1,12 @@
+package com.javafx.demo.model;
+
+/**
+ * The columns of a product that lists, combo boxes and name lookups need. Unlike {@link Product}
+ * it leaves out the description, which is loaded separately when it is shown.
+ */
+public record ProductSummary(
+    int id,
+    String name,
+    String unit,
+    int quantity
+) {}
@@ -19,6 +19,10 @@ public class AuthService {
         userDao.seedRoles();
         // For development: default admin/admin123. In production, prompt or secure differently.
         String defaultAdminUsername = "admin";
+        // Hashing is deliberately slow, so skip it when the admin already exists
+        if (userDao.findByUsername(defaultAdminUsername) != null) {
+            return;
+        }
         String defaultAdminPasswordHash = PasswordHasher.hash("admin123");
         userDao.ensureAdminSeeded(defaultAdminUsername, defaultAdminPasswordHash);
     }
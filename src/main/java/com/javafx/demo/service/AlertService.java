@@ -3,9 +3,10 @@ package com.javafx.demo.service;
 import com.javafx.demo.dao.AlertDao;
 import com.javafx.demo.dao.LogDao;
 import com.javafx.demo.dao.ProductDao;
+import com.javafx.demo.metrics.jfr.AlertScanEvent;
 import com.javafx.demo.model.Alert;
-import com.javafx.demo.model.Product;
 import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.model.ProductSummary;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -27,6 +28,8 @@ public class AlertService {
      * @return Number of new alerts created
      */
     public int checkForOverdueCheckouts(int overdueHours) {
+        AlertScanEvent event = new AlertScanEvent();
+        event.begin();
         List<ProductLog> overdueLogs = logDao.findCheckOutsOlderThan(overdueHours);
         int alertsCreated = 0;
 
@@ -41,8 +44,8 @@ public class AlertService {
                 );
 
             if (!alertExists) {
-                Optional<Product> productOpt = productDao.findById(log.productId());
-                String productName = productOpt.map(Product::name).orElse("Unknown Product");
+                Optional<ProductSummary> productOpt = productDao.findSummaryById(log.productId());
+                String productName = productOpt.map(ProductSummary::name).orElse("Unknown Product");
                 
                 // Calculate how long overdue
                 Duration duration = Duration.between(log.timestamp(), LocalDateTime.now());
@@ -64,6 +67,10 @@ public class AlertService {
             }
         }
 
+        event.overdueHours = overdueHours;
+        event.checkoutsScanned = overdueLogs.size();
+        event.alertsCreated = alertsCreated;
+        event.commit();
         return alertsCreated;
     }
 
@@ -94,6 +101,17 @@ public class AlertService {
         return alertDao.findFiltered(productId, status, fromDate, toDate, limit, offset);
     }
 
+    public java.util.List<Alert> getAlertsFiltered(Integer productId, String status,
+                                                   java.time.LocalDate fromDate, java.time.LocalDate toDate,
+                                                   int limit, int offset, com.javafx.demo.db.CancelToken token) {
+        return alertDao.findFiltered(productId, status, fromDate, toDate, limit, offset, token);
+    }
+
+    public AlertDao.AlertCounts getAlertCounts(Integer productId, String status,
+                                               java.time.LocalDate fromDate, java.time.LocalDate toDate) {
+        return alertDao.countsFiltered(productId, status, fromDate, toDate);
+    }
+
     public int countAlertsFiltered(Integer productId, String status,
                                    java.time.LocalDate fromDate, java.time.LocalDate toDate) {
         return alertDao.countFiltered(productId, status, fromDate, toDate);
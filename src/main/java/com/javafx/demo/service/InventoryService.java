@@ -1,76 +1,192 @@
 package com.javafx.demo.service;
 
+import com.javafx.demo.app.StockMatrix;
 import com.javafx.demo.dao.LogDao;
 import com.javafx.demo.dao.ProductDao;
 import com.javafx.demo.dao.ProductStockDao;
 import com.javafx.demo.db.Database;
+import com.javafx.demo.metrics.jfr.InventoryMovementEvent;
 import com.javafx.demo.model.ProductLog;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class InventoryService {
     private final ProductStockDao stockDao = new ProductStockDao();
     private final LogDao logDao = new LogDao();
     private final ProductDao productDao = new ProductDao();
+    private final StockMatrix stockMatrix = StockMatrix.getInstance();
 
-    public ProductLog checkIn(int productId, int locationId, int userId, int quantity, String notes) {
-        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        try (Connection c = Database.getConnection()) {
-            c.setAutoCommit(false);
-            stockDao.increment(productId, locationId, quantity, c);
-            stockDao.cleanupZeroRows(c);
-            int total = stockDao.sumForProduct(productId, c);
-            productDao.updateQuantity(productId, total, c);
-            c.commit();
-            return logDao.create(productId, userId, "CHECK_IN", quantity, notes);
-        } catch (Exception e) {
-            throw new RuntimeException("checkIn failed", e);
+    /**
+     * A check-in ({@code fromLocationId} 0), check-out ({@code toLocationId} 0) or transfer.
+     */
+    public record Movement(String operation, int productId, int fromLocationId, int toLocationId,
+                           int quantity, String notes) {
+        public Movement {
+            if (fromLocationId == toLocationId) throw new IllegalArgumentException("From and To locations must differ");
+            if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        public static Movement checkIn(int productId, int locationId, int quantity, String notes) {
+            return new Movement("CHECK_IN", productId, 0, locationId, quantity, notes);
+        }
+
+        public static Movement checkOut(int productId, int locationId, int quantity, String notes) {
+            return new Movement("CHECK_OUT", productId, locationId, 0, quantity, notes);
+        }
+
+        public static Movement transfer(int productId, int fromLocationId, int toLocationId, int quantity, String notes) {
+            return new Movement("TRANSFER", productId, fromLocationId, toLocationId, quantity, notes);
         }
     }
 
+    /**
+     * The outcome of one movement of a {@link #moveAll} batch: its log row, or why it was rolled back.
+     */
+    public record MovementResult(ProductLog log, Exception error) {}
+
+    public ProductLog checkIn(int productId, int locationId, int userId, int quantity, String notes) {
+        return move(Movement.checkIn(productId, locationId, quantity, notes), userId);
+    }
+
     public ProductLog checkOut(int productId, int locationId, int userId, int quantity, String notes) {
-        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        return move(Movement.checkOut(productId, locationId, quantity, notes), userId);
+    }
+
+    public ProductLog transfer(int productId, int fromLocationId, int toLocationId, int userId, int quantity, String notes) {
+        return move(Movement.transfer(productId, fromLocationId, toLocationId, quantity, notes), userId);
+    }
+
+    public ProductLog move(Movement m, int userId) {
+        InventoryMovementEvent event = movementEvent(m);
         try (Connection c = Database.getConnection()) {
             c.setAutoCommit(false);
-            int available = stockDao.getQuantityForUpdate(productId, locationId, c);
-            if (available < quantity) {
-                throw new IllegalArgumentException("Insufficient stock at source location. Available: " + available);
-            }
-            stockDao.increment(productId, locationId, -quantity, c);
+            ProductLog log = record(m, userId, c);
             stockDao.cleanupZeroRows(c);
-            int total = stockDao.sumForProduct(productId, c);
-            productDao.updateQuantity(productId, total, c);
-            c.commit();
-            return logDao.create(productId, userId, "CHECK_OUT", quantity, notes);
+            updateTotal(m.productId(), c);
+            commitAndApply(c, () -> apply(m));
+            event.succeeded = true;
+            return log;
         } catch (RuntimeException re) {
             throw re;
         } catch (Exception e) {
-            throw new RuntimeException("checkOut failed", e);
+            throw new RuntimeException(m.operation() + " failed", e);
+        } finally {
+            event.commit();
         }
     }
 
-    public ProductLog transfer(int productId, int fromLocationId, int toLocationId, int userId, int quantity, String notes) {
-        if (fromLocationId == toLocationId) throw new IllegalArgumentException("From and To locations must differ");
-        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+    /**
+     * Runs the movements in order in one transaction, with one zero-row cleanup and one total
+     * update per product at the end. A movement that is rejected (e.g. insufficient stock) or whose
+     * statements fail is rolled back to a savepoint and reported in its result, and the rest still
+     * commit. Anything that ends the transaction itself, such as a deadlock, fails the whole batch.
+     */
+    public List<MovementResult> moveAll(List<Movement> movements, int userId) {
+        List<MovementResult> results = new ArrayList<>(movements.size());
+        List<InventoryMovementEvent> events = new ArrayList<>(movements.size());
+        Set<Integer> productIds = new TreeSet<>();
         try (Connection c = Database.getConnection()) {
             c.setAutoCommit(false);
-            int available = stockDao.getQuantityForUpdate(productId, fromLocationId, c);
-            if (available < quantity) {
-                throw new IllegalArgumentException("Insufficient stock at source location. Available: " + available);
+            for (Movement m : movements) {
+                events.add(movementEvent(m));
+                Savepoint before = c.setSavepoint();
+                try {
+                    results.add(new MovementResult(record(m, userId, c), null));
+                    productIds.add(m.productId());
+                } catch (Exception e) {
+                    rollbackTo(c, before, e);
+                    results.add(new MovementResult(null, e));
+                }
             }
-            stockDao.increment(productId, fromLocationId, -quantity, c);
-            stockDao.increment(productId, toLocationId, quantity, c);
             stockDao.cleanupZeroRows(c);
-            int total = stockDao.sumForProduct(productId, c);
-            productDao.updateQuantity(productId, total, c);
-            c.commit();
-            return logDao.createTransfer(productId, userId, quantity, notes, fromLocationId, toLocationId);
+            // Ascending ids, so concurrent batches lock product rows in the same order
+            for (int productId : productIds) updateTotal(productId, c);
+            commitAndApply(c, () -> {
+                for (int i = 0; i < movements.size(); i++) {
+                    if (results.get(i).error() != null) continue;
+                    apply(movements.get(i));
+                    events.get(i).succeeded = true;
+                }
+            });
+            return results;
         } catch (RuntimeException re) {
             throw re;
         } catch (Exception e) {
-            throw new RuntimeException("transfer failed", e);
+            throw new RuntimeException("moveAll failed", e);
+        } finally {
+            events.forEach(InventoryMovementEvent::commit);
         }
     }
-}
 
+    /**
+     * Locks and checks the source row, moves the stock and inserts the log row, all on {@code c}.
+     */
+    private ProductLog record(Movement m, int userId, Connection c) throws SQLException {
+        if (m.fromLocationId() != 0) {
+            int available = stockDao.getQuantityForUpdate(m.productId(), m.fromLocationId(), c);
+            if (available < m.quantity()) {
+                throw new IllegalArgumentException("Insufficient stock at source location. Available: " + available);
+            }
+            stockDao.increment(m.productId(), m.fromLocationId(), -m.quantity(), c);
+        }
+        if (m.toLocationId() != 0) stockDao.increment(m.productId(), m.toLocationId(), m.quantity(), c);
+        // Logged in the same transaction, so a movement is never committed without its log row
+        if (m.operation().equals("TRANSFER")) {
+            return logDao.createTransfer(m.productId(), userId, m.quantity(), m.notes(),
+                m.fromLocationId(), m.toLocationId(), c);
+        }
+        return logDao.create(m.productId(), userId, m.operation(), m.quantity(), m.notes(), c);
+    }
+
+    private void updateTotal(int productId, Connection c) throws SQLException {
+        productDao.updateQuantity(productId, stockDao.sumForProduct(productId, c), c);
+    }
 
+    private void apply(Movement m) {
+        if (m.fromLocationId() != 0) stockMatrix.apply(m.productId(), m.fromLocationId(), -m.quantity());
+        if (m.toLocationId() != 0) stockMatrix.apply(m.productId(), m.toLocationId(), m.quantity());
+    }
+
+    /**
+     * Undo one failed movement of a batch. If the savepoint is gone the server has already rolled
+     * back the whole transaction, so the batch fails with the movement's error.
+     */
+    private static void rollbackTo(Connection c, Savepoint savepoint, Exception cause) throws Exception {
+        try {
+            c.rollback(savepoint);
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+            throw cause;
+        }
+    }
+
+    /**
+     * Commit and patch the stock matrix as one step relative to a matrix reload.
+     */
+    private void commitAndApply(Connection c, Runnable apply) throws SQLException {
+        stockMatrix.beginCommit();
+        try {
+            c.commit();
+            apply.run();
+        } finally {
+            stockMatrix.endCommit();
+        }
+    }
+
+    private static InventoryMovementEvent movementEvent(Movement m) {
+        InventoryMovementEvent event = new InventoryMovementEvent();
+        event.begin();
+        event.operation = m.operation();
+        event.productId = m.productId();
+        event.fromLocationId = m.fromLocationId();
+        event.toLocationId = m.toLocationId();
+        event.quantity = m.quantity();
+        return event;
+    }
+}
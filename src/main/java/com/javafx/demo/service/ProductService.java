@@ -1,11 +1,18 @@
 package com.javafx.demo.service;
 
+import com.javafx.demo.app.ProductSearchIndex;
+import com.javafx.demo.app.StockMatrix;
 import com.javafx.demo.dao.LogDao;
 import com.javafx.demo.dao.ProductDao;
 import com.javafx.demo.model.Product;
 import com.javafx.demo.model.ProductLog;
+import com.javafx.demo.model.ProductSummary;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class ProductService {
@@ -23,12 +30,12 @@ public class ProductService {
      */
     public ProductLog checkOut(int productId, int userId, int quantity, String notes) {
         // Validate product exists
-        Optional<Product> productOpt = productDao.findById(productId);
+        Optional<ProductSummary> productOpt = productDao.findSummaryById(productId);
         if (productOpt.isEmpty()) {
             throw new IllegalArgumentException("Product not found with ID: " + productId);
         }
 
-        Product product = productOpt.get();
+        ProductSummary product = productOpt.get();
 
         // Validate sufficient quantity
         if (product.quantity() < quantity) {
@@ -57,12 +64,12 @@ public class ProductService {
      */
     public ProductLog checkIn(int productId, int userId, int quantity, String notes) {
         // Validate product exists
-        Optional<Product> productOpt = productDao.findById(productId);
+        Optional<ProductSummary> productOpt = productDao.findSummaryById(productId);
         if (productOpt.isEmpty()) {
             throw new IllegalArgumentException("Product not found with ID: " + productId);
         }
 
-        Product product = productOpt.get();
+        ProductSummary product = productOpt.get();
 
         // Update product quantity
         int newQuantity = product.quantity() + quantity;
@@ -86,15 +93,87 @@ public class ProductService {
         return productDao.findById(id);
     }
 
+    /**
+     * Get all products without descriptions, ordered by name
+     */
+    public List<ProductSummary> getProductSummaries() {
+        return productDao.findAllSummaries();
+    }
+
+    /**
+     * One page of products without descriptions, ordered by name
+     */
+    public List<ProductSummary> getProductSummaries(int offset, int limit) {
+        return productDao.findSummariesAt(offset, limit);
+    }
+
+    /**
+     * Get product without description by ID
+     */
+    public Optional<ProductSummary> getProductSummary(int id) {
+        return productDao.findSummaryById(id);
+    }
+
+    /**
+     * Names of the given products in one query, e.g. for the rows of a table page; ids that no
+     * longer exist are missing from the map
+     */
+    public Map<Integer, String> getProductNames(Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        for (ProductSummary p : productDao.findSummariesByIds(List.copyOf(new LinkedHashSet<>(ids)))) {
+            names.put(p.id(), p.name());
+        }
+        return names;
+    }
+
+    /**
+     * Products whose name matches a query, best match first. Built from the search index and the
+     * stock matrix; loads either of them first if it has not loaded yet.
+     */
+    public List<ProductSummary> searchProducts(String query, int limit) {
+        return searchProducts(query, 0, limit);
+    }
+
+    /**
+     * Like {@link #searchProducts(String, int)}, skipping the {@code offset} best matches.
+     */
+    public List<ProductSummary> searchProducts(String query, int offset, int limit) {
+        StockMatrix stock = StockMatrix.getInstance();
+        int end = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        return ProductSearchIndex.getInstance().search(query, end).stream()
+            .skip(offset)
+            .map(h -> new ProductSummary(h.id(), h.name(), h.unit(), stock.totalForProduct(h.id())))
+            .toList();
+    }
+
+    /**
+     * Like {@link #searchProducts}, but empty until the search index and stock matrix have both
+     * loaded, so it never queries and can be called on the FX thread on every keystroke.
+     */
+    public List<ProductSummary> searchLoadedProducts(String query, int limit) {
+        if (!ProductSearchIndex.getInstance().isLoaded() || !StockMatrix.getInstance().isLoaded()) {
+            return List.of();
+        }
+        return searchProducts(query, limit);
+    }
+
+    /**
+     * Get a product's description, loaded on demand
+     */
+    public String getProductDescription(int id) {
+        return productDao.findDescription(id).orElse("");
+    }
+
     /**
      * Create a new product
      */
     public Product createProduct(String name, String description, int quantity, String location, String unit) {
         Product p = productDao.create(name, description, quantity, location, unit);
+        ProductSearchIndex.getInstance().put(p.id(), p.name(), p.unit());
         // Ensure product_stock has an initial row matching product's location and quantity
         try {
-            com.javafx.demo.dao.LocationDao locationDao = new com.javafx.demo.dao.LocationDao();
-            var loc = locationDao.findOrCreateByName(location);
+            var loc = com.javafx.demo.app.LocationDictionary.getInstance().findOrCreate(location);
+            boolean inserted = false;
             try (java.sql.Connection c = com.javafx.demo.db.Database.getConnection()) {
                 c.setAutoCommit(false);
                 // insert only if missing
@@ -103,9 +182,17 @@ public class ProductService {
                     ps.setInt(1, p.id());
                     ps.setInt(2, loc.id());
                     ps.setInt(3, quantity);
-                    ps.executeUpdate();
+                    inserted = ps.executeUpdate() == 1;
+                }
+                StockMatrix.getInstance().beginCommit();
+                try {
+                    c.commit();
+                    if (inserted) {
+                        StockMatrix.getInstance().apply(p.id(), loc.id(), quantity);
+                    }
+                } finally {
+                    StockMatrix.getInstance().endCommit();
                 }
-                c.commit();
             }
         } catch (Exception ignored) {
             // best-effort; user can always adjust via transfers
@@ -118,6 +205,23 @@ public class ProductService {
      */
     public void updateProduct(Product product) {
         productDao.update(product);
+        ProductSearchIndex.getInstance().put(product.id(), product.name(), product.unit());
+    }
+
+    /**
+     * Delete a product
+     */
+    public void deleteProduct(int id) {
+        StockMatrix stockMatrix = StockMatrix.getInstance();
+        // delete() commits on its own, so the bracket covers the whole statement
+        stockMatrix.beginCommit();
+        try {
+            productDao.delete(id);
+            stockMatrix.removeProduct(id);
+        } finally {
+            stockMatrix.endCommit();
+        }
+        ProductSearchIndex.getInstance().remove(id);
     }
 
     /**
@@ -147,6 +251,12 @@ public class ProductService {
         return logDao.findFiltered(productId, userId, actionType, fromDate, toDate, limit, offset);
     }
 
+    public List<ProductLog> getLogsFiltered(Integer productId, Integer userId, String actionType,
+                                            java.time.LocalDate fromDate, java.time.LocalDate toDate,
+                                            int limit, int offset, com.javafx.demo.db.CancelToken token) {
+        return logDao.findFiltered(productId, userId, actionType, fromDate, toDate, limit, offset, token);
+    }
+
     public int countLogsFiltered(Integer productId, Integer userId, String actionType,
                                  java.time.LocalDate fromDate, java.time.LocalDate toDate) {
         return logDao.countFiltered(productId, userId, actionType, fromDate, toDate);
@@ -158,8 +268,7 @@ public class ProductService {
      * @return number of products created
      */
     public int seedSampleProductsIfEmpty() {
-        var existing = productDao.findAll();
-        if (!existing.isEmpty()) {
+        if (!productDao.isEmpty()) {
             return 0;
         }
 
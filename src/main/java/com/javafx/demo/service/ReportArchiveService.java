@@ -0,0 +1,315 @@
+package com.javafx.demo.service;
+
+import com.javafx.demo.app.SettingsStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Rolls daily CSV reports into monthly zip bundles and applies the retention policy.
+ *
+ * Each bundle {@code reports-YYYY-MM.zip} stores one deflated entry per day, so a single
+ * report can be read back without inflating the rest of the month. A sidecar
+ * {@code reports-YYYY-MM.idx} lists the archived dates with their raw and compressed sizes, so a
+ * lookup finds its entry without scanning the bundle. Every lookup is timed and logged next to
+ * the running average of plain CSV reads.
+ *
+ * Settings:
+ * - {@code report_keep_daily_days}: days a report stays as a plain CSV before archiving (default 7)
+ * - {@code report_retention_months}: months of bundles to keep, counting the current one; 0 keeps
+ *   everything (default 24)
+ */
+public class ReportArchiveService {
+    private static final Logger LOG = Logger.getLogger(ReportArchiveService.class.getName());
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final Pattern DAILY_REPORT = Pattern.compile("report-(\\d{4}-\\d{2}-\\d{2})\\.csv");
+    private static final Pattern BUNDLE = Pattern.compile("reports-(\\d{4}-\\d{2})\\.zip");
+
+    private static final int DEFAULT_KEEP_DAILY_DAYS = 7;
+    private static final int DEFAULT_RETENTION_MONTHS = 24;
+
+    // Shared across instances so bundle and plain CSV lookups can be compared over the process
+    private static final LongAdder plainReads = new LongAdder();
+    private static final LongAdder plainReadNanos = new LongAdder();
+    private static final LongAdder bundleReads = new LongAdder();
+    private static final LongAdder bundleReadNanos = new LongAdder();
+
+    private final SettingsStore settings = SettingsStore.getInstance();
+    private final Path reportsDir;
+
+    public ReportArchiveService() {
+        this(ReportService.reportsDirectory());
+    }
+
+    public ReportArchiveService(Path reportsDir) {
+        this.reportsDir = reportsDir;
+    }
+
+    /**
+     * Outcome of one archival pass. Byte counts only cover the reports archived in this pass.
+     */
+    public record ArchiveResult(int reportsArchived, int bundlesDeleted,
+                                long rawBytes, long archivedBytes, long elapsedMillis) {
+        public long bytesSaved() {
+            return rawBytes - archivedBytes;
+        }
+    }
+
+    /**
+     * One line of a bundle index.
+     */
+    public record IndexEntry(LocalDate date, String entryName, long rawBytes, long compressedBytes) {}
+
+    /**
+     * A report read back by {@link #lookupReport}, with where it came from and how long it took.
+     */
+    public record ReportLookup(String content, boolean fromBundle, long elapsedMicros) {}
+
+    /**
+     * Archive using the retention settings stored in the database.
+     */
+    public ArchiveResult archiveAndApplyRetention() {
+        int keepDays = settings.getInt("report_keep_daily_days", DEFAULT_KEEP_DAILY_DAYS);
+        int retentionMonths = settings.getInt("report_retention_months", DEFAULT_RETENTION_MONTHS);
+        return archiveAndApplyRetention(LocalDate.now(), keepDays, retentionMonths);
+    }
+
+    public ArchiveResult archiveAndApplyRetention(LocalDate today, int keepDailyDays, int retentionMonths) {
+        long start = System.nanoTime();
+        if (!Files.isDirectory(reportsDir)) {
+            return new ArchiveResult(0, 0, 0, 0, 0);
+        }
+        LocalDate cutoff = today.minusDays(Math.max(0, keepDailyDays));
+
+        // Group eligible daily reports by month
+        Map<YearMonth, List<Path>> byMonth = new TreeMap<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(reportsDir, "report-*.csv")) {
+            for (Path p : ds) {
+                Matcher m = DAILY_REPORT.matcher(p.getFileName().toString());
+                if (!m.matches()) continue;
+                LocalDate date = LocalDate.parse(m.group(1));
+                if (date.isBefore(cutoff)) {
+                    byMonth.computeIfAbsent(YearMonth.from(date), k -> new ArrayList<>()).add(p);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan reports directory: " + e.getMessage(), e);
+        }
+
+        int archived = 0;
+        long rawBytes = 0;
+        long archivedBytes = 0;
+        for (var e : byMonth.entrySet()) {
+            YearMonth month = e.getKey();
+            List<Path> files = e.getValue();
+            try {
+                appendToBundle(month, files);
+                Map<String, IndexEntry> index = rebuildIndex(month);
+                for (Path f : files) {
+                    IndexEntry ie = index.get(f.getFileName().toString());
+                    if (ie == null) continue;
+                    rawBytes += ie.rawBytes();
+                    archivedBytes += ie.compressedBytes();
+                    // Only drop the plain CSV once the bundle and index are safely on disk
+                    Files.deleteIfExists(f);
+                    archived++;
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException("Failed to archive reports for " + month + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        int deleted = applyRetention(YearMonth.from(today), retentionMonths);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ArchiveResult result = new ArchiveResult(archived, deleted, rawBytes, archivedBytes, elapsedMillis);
+        if (archived > 0 || deleted > 0) {
+            LOG.info(String.format("Archived %d report(s): %d -> %d bytes (saved %d), deleted %d bundle(s) in %d ms",
+                archived, rawBytes, archivedBytes, result.bytesSaved(), deleted, elapsedMillis));
+        }
+        return result;
+    }
+
+    /**
+     * Read a report for the given date, from the plain CSV if present or else from its monthly bundle.
+     * Only the requested entry is inflated.
+     */
+    public Optional<String> readReport(LocalDate date) {
+        return lookupReport(date).map(ReportLookup::content);
+    }
+
+    /**
+     * Same as {@link #readReport} but also reports the source and lookup time. The time is logged
+     * against the average plain CSV read seen so far.
+     */
+    public Optional<ReportLookup> lookupReport(LocalDate date) {
+        long start = System.nanoTime();
+        String content;
+        boolean fromBundle = false;
+        try {
+            Path plain = reportsDir.resolve(ReportService.reportFileName(date));
+            if (Files.exists(plain)) {
+                content = Files.readString(plain, StandardCharsets.UTF_8);
+            } else {
+                content = readFromBundle(date);
+                fromBundle = true;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read report for " + date + ": " + e.getMessage(), e);
+        }
+        if (content == null) {
+            return Optional.empty();
+        }
+        long nanos = System.nanoTime() - start;
+        (fromBundle ? bundleReads : plainReads).increment();
+        (fromBundle ? bundleReadNanos : plainReadNanos).add(nanos);
+        LOG.info(String.format("Report lookup for %s from %s took %d us (avg plain CSV %s, avg bundle %s)",
+            date, fromBundle ? "bundle" : "plain CSV", nanos / 1_000,
+            averageMicros(plainReadNanos, plainReads), averageMicros(bundleReadNanos, bundleReads)));
+        return Optional.of(new ReportLookup(content, fromBundle, nanos / 1_000));
+    }
+
+    /**
+     * Dates available in the monthly bundle, in ascending order.
+     */
+    public List<IndexEntry> listArchived(YearMonth month) {
+        try {
+            return new ArrayList<>(loadIndex(month).values());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read report index for " + month + ": " + e.getMessage(), e);
+        }
+    }
+
+    private String readFromBundle(LocalDate date) throws IOException {
+        YearMonth month = YearMonth.from(date);
+        Path bundle = bundlePath(month);
+        if (!Files.exists(bundle)) {
+            return null;
+        }
+        IndexEntry ie = loadIndex(month).get(ReportService.reportFileName(date));
+        if (ie == null) {
+            return null;
+        }
+        try (ZipFile zip = new ZipFile(bundle.toFile())) {
+            ZipEntry entry = zip.getEntry(ie.entryName());
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private static String averageMicros(LongAdder nanos, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? "n/a" : (nanos.sum() / n / 1_000) + " us";
+    }
+
+    private void appendToBundle(YearMonth month, List<Path> files) throws IOException {
+        Path bundle = bundlePath(month);
+        URI uri = URI.create("jar:" + bundle.toUri());
+        // zipfs rewrites the archive on close, which lets us append to an existing month
+        try (FileSystem zipFs = FileSystems.newFileSystem(uri, Map.of("create", "true"))) {
+            for (Path f : files) {
+                Path target = zipFs.getPath("/" + f.getFileName().toString());
+                Files.copy(f, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private Map<String, IndexEntry> rebuildIndex(YearMonth month) throws IOException {
+        Map<String, IndexEntry> index = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(bundlePath(month).toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry ze = entries.nextElement();
+                Matcher m = DAILY_REPORT.matcher(ze.getName());
+                if (!m.matches()) continue;
+                index.put(ze.getName(), new IndexEntry(
+                    LocalDate.parse(m.group(1)), ze.getName(), ze.getSize(), ze.getCompressedSize()));
+            }
+        }
+        Path idx = indexPath(month);
+        Path tmp = idx.resolveSibling(idx.getFileName() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write("date,entry,raw_bytes,compressed_bytes\n");
+            for (IndexEntry ie : index.values()) {
+                w.write(ie.date() + "," + ie.entryName() + "," + ie.rawBytes() + "," + ie.compressedBytes() + "\n");
+            }
+        }
+        Files.move(tmp, idx, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index;
+    }
+
+    private Map<String, IndexEntry> loadIndex(YearMonth month) throws IOException {
+        Path idx = indexPath(month);
+        if (!Files.exists(idx)) {
+            // Index lost or never written; recover it from the bundle's central directory
+            return Files.exists(bundlePath(month)) ? rebuildIndex(month) : Map.of();
+        }
+        Map<String, IndexEntry> index = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(idx, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",");
+            if (parts.length != 4 || "date".equals(parts[0])) continue;
+            index.put(parts[1], new IndexEntry(
+                LocalDate.parse(parts[0]), parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+        }
+        return index;
+    }
+
+    private int applyRetention(YearMonth current, int retentionMonths) {
+        if (retentionMonths <= 0) return 0;
+        // The current month counts as one of them
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1);
+        int deleted = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(reportsDir, "reports-*.zip")) {
+            for (Path p : ds) {
+                Matcher m = BUNDLE.matcher(p.getFileName().toString());
+                if (!m.matches()) continue;
+                YearMonth month = YearMonth.parse(m.group(1), MONTH_FORMAT);
+                if (month.isBefore(oldestKept)) {
+                    Files.deleteIfExists(p);
+                    Files.deleteIfExists(indexPath(month));
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to apply report retention: " + e.getMessage(), e);
+        }
+        return deleted;
+    }
+
+    private Path bundlePath(YearMonth month) {
+        return reportsDir.resolve("reports-" + month.format(MONTH_FORMAT) + ".zip");
+    }
+
+    private Path indexPath(YearMonth month) {
+        return reportsDir.resolve("reports-" + month.format(MONTH_FORMAT) + ".idx");
+    }
+}
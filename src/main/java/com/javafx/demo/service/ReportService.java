@@ -2,7 +2,8 @@ package com.javafx.demo.service;
 
 import com.javafx.demo.dao.ProductDao;
 import com.javafx.demo.db.Database;
-import com.javafx.demo.model.Product;
+import com.javafx.demo.metrics.jfr.ReportEvent;
+import com.javafx.demo.model.ProductSummary;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -26,11 +27,20 @@ public class ReportService {
         return generateCsvReportForDate(LocalDate.now());
     }
 
+    /**
+     * Directory that daily CSV reports (and their monthly archives) are written to.
+     */
+    public static Path reportsDirectory() {
+        return Paths.get(System.getProperty("user.home"), "FactoryReports");
+    }
+
+    public static String reportFileName(LocalDate date) {
+        return "report-" + date.format(DATE_FORMAT) + ".csv";
+    }
+
     public Path generateCsvReportForDate(LocalDate date) {
-        String dateStr = date.format(DATE_FORMAT);
-        String home = System.getProperty("user.home");
-        Path dir = Paths.get(home, "FactoryReports");
-        Path file = dir.resolve("report-" + dateStr + ".csv");
+        Path dir = reportsDirectory();
+        Path file = dir.resolve(reportFileName(date));
 
         try {
             Files.createDirectories(dir);
@@ -43,6 +53,28 @@ public class ReportService {
     }
 
     public String buildCsvForDate(LocalDate date) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        String csv = buildCsv(date);
+        event.format = "CSV";
+        event.reportDate = date.toString();
+        event.characters = csv.length();
+        event.commit();
+        return csv;
+    }
+
+    public String buildHtmlForDate(LocalDate date) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        String html = buildHtml(date);
+        event.format = "HTML";
+        event.reportDate = date.toString();
+        event.characters = html.length();
+        event.commit();
+        return html;
+    }
+
+    private String buildCsv(LocalDate date) {
         StringBuilder sb = new StringBuilder();
         String dateStr = date.format(DATE_FORMAT);
         sb.append("Factory Inventory Daily Report,").append(dateStr).append("\n");
@@ -70,9 +102,9 @@ public class ReportService {
                 int ins = insPerProduct.getOrDefault(productId, 0);
                 int outs = outsPerProduct.getOrDefault(productId, 0);
                 int net = ins - outs;
-                var productOpt = productDao.findById(productId);
-                String productName = productOpt.map(Product::name).orElse("Product " + productId);
-                String unit = productOpt.map(Product::unit).orElse("");
+                var productOpt = productDao.findSummaryById(productId);
+                String productName = productOpt.map(ProductSummary::name).orElse("Product " + productId);
+                String unit = productOpt.map(ProductSummary::unit).orElse("");
                 sb.append(productId).append(",")
                   .append(escape(productName)).append(",")
                   .append(escape(unit)).append(",")
@@ -98,7 +130,7 @@ public class ReportService {
                         String type = rs.getString("alert_type");
                         String createdAt = rs.getTimestamp("created_at").toString();
                         String message = rs.getString("message");
-                        String pname = productDao.findById(pid).map(Product::name).orElse("Product " + pid);
+                        String pname = productDao.findSummaryById(pid).map(ProductSummary::name).orElse("Product " + pid);
                         sb.append(alertId).append(",")
                           .append(pid).append(",")
                           .append(escape(pname)).append(",")
@@ -115,7 +147,7 @@ public class ReportService {
         return sb.toString();
     }
 
-    public String buildHtmlForDate(LocalDate date) {
+    private String buildHtml(LocalDate date) {
         String dateStr = date.format(DATE_FORMAT);
         StringBuilder html = new StringBuilder();
         html.append("<!doctype html><html><head><meta charset='utf-8'/>");
@@ -168,9 +200,9 @@ public class ReportService {
                 int ins = insPerProduct.getOrDefault(productId, 0);
                 int outs = outsPerProduct.getOrDefault(productId, 0);
                 int net = ins - outs;
-                var pOpt = productDao.findById(productId);
-                String name = pOpt.map(Product::name).orElse("Product " + productId);
-                String unit = pOpt.map(Product::unit).orElse("");
+                var pOpt = productDao.findSummaryById(productId);
+                String name = pOpt.map(ProductSummary::name).orElse("Product " + productId);
+                String unit = pOpt.map(ProductSummary::unit).orElse("");
                 html.append("<tr>")
                     .append("<td>").append(productId).append("</td>")
                     .append("<td>").append(escapeHtml(name)).append("</td>")
@@ -199,7 +231,7 @@ public class ReportService {
                         String createdAt = rs.getTimestamp("created_at").toLocalDateTime()
                             .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
                         String message = rs.getString("message");
-                        String pname = productDao.findById(pid).map(Product::name).orElse("Product " + pid);
+                        String pname = productDao.findSummaryById(pid).map(ProductSummary::name).orElse("Product " + pid);
                         html.append("<tr>")
                             .append("<td>").append(aid).append("</td>")
                             .append("<td>").append(pid).append("</td>")
@@ -292,7 +324,10 @@ public class ReportService {
         return keys;
     }
 
-    private String escape(String s) {
+    /**
+     * Quote a CSV field if needed. Shared with the log exports so every CSV we write agrees.
+     */
+    public static String escape(String s) {
         if (s == null) return "";
         String v = s.replace("\"", "\"\"");
         if (v.contains(",") || v.contains("\n") || v.contains("\"")) {
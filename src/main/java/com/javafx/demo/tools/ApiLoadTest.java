@@ -0,0 +1,255 @@
+package com.javafx.demo.tools;
+
+import com.javafx.demo.api.Json;
+import com.javafx.demo.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Load test for {@code ApiServer}: N clients post batches of movements as fast as the server
+ * answers and the report gives movements and requests per second with request latency
+ * percentiles.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.javafx.demo.tools.ApiLoadTest \
+ *     -Dexec.args="--url=http://127.0.0.1:8080 --clients=32 --batch=100 --duration=60"
+ * </pre>
+ *
+ * Options ({@code --name=value}): {@code url} (http://127.0.0.1:8080), {@code user} (admin),
+ * {@code password} (admin123), {@code clients} (32), {@code duration} in seconds (30),
+ * {@code warmup} seconds not counted in the report (5), {@code batch} movements per request (50,
+ * 1 posts single movements), {@code checkout-share} (0.3, the rest are check-ins),
+ * {@code products} the number of products to spread movements over (1000) and {@code seed} (1).
+ */
+public final class ApiLoadTest {
+    private static final Logger LOG = Logger.getLogger(ApiLoadTest.class.getName());
+    private static final int PROGRESS_SECONDS = 5;
+
+    record Options(String url, String user, String password, int clients, int durationSeconds, int warmupSeconds,
+                   int batch, double checkoutShare, int products, long seed) {
+
+        static Options parse(String[] args) {
+            Map<String, String> m = new HashMap<>();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --name=value: " + a);
+                m.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+            Options o = new Options(
+                m.getOrDefault("url", "http://127.0.0.1:8080"),
+                m.getOrDefault("user", "admin"),
+                m.getOrDefault("password", "admin123"),
+                Integer.parseInt(m.getOrDefault("clients", "32")),
+                Integer.parseInt(m.getOrDefault("duration", "30")),
+                Integer.parseInt(m.getOrDefault("warmup", "5")),
+                Integer.parseInt(m.getOrDefault("batch", "50")),
+                Double.parseDouble(m.getOrDefault("checkout-share", "0.3")),
+                Integer.parseInt(m.getOrDefault("products", "1000")),
+                Long.parseLong(m.getOrDefault("seed", "1")));
+            if (o.clients < 1 || o.durationSeconds < 1 || o.batch < 1 || o.products < 1) {
+                throw new IllegalArgumentException("Need clients, duration, batch and products >= 1");
+            }
+            return o;
+        }
+    }
+
+    private final Options options;
+    private final HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder();
+    private volatile boolean measuring;
+
+    private String token;
+    private int[] productIds;
+    private int[] locationIds;
+
+    ApiLoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ApiLoadTest(Options.parse(args)).run();
+    }
+
+    void run() throws Exception {
+        prepare();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        measuring = options.warmupSeconds() == 0;
+        CountDownLatch done = new CountDownLatch(options.clients());
+        for (int i = 0; i < options.clients(); i++) {
+            SplittableRandom random = new SplittableRandom(options.seed() * 1_000_003 + i);
+            Thread t = new Thread(() -> {
+                try {
+                    clientLoop(random, deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "api-client-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        LOG.info(String.format("Starting %d clients, %d movements per request: %ds warm-up, %ds measured",
+            options.clients(), options.batch(), options.warmupSeconds(), options.durationSeconds()));
+
+        long measuredSince = start;
+        long lastCount = 0;
+        long lastTick = start;
+        while (true) {
+            long untilMeasuring = measuring ? Long.MAX_VALUE : measureFrom - System.nanoTime();
+            long wait = Math.max(1, Math.min(TimeUnit.SECONDS.toNanos(PROGRESS_SECONDS), untilMeasuring));
+            if (done.await(wait, TimeUnit.NANOSECONDS)) break;
+            long now = System.nanoTime();
+            if (!measuring && now >= measureFrom) {
+                measuring = true;
+                latency.reset();
+                for (LongAdder a : List.of(requests, ok, rejected, conflicts, failed, httpErrors)) a.reset();
+                measuredSince = now;
+                lastCount = 0;
+                lastTick = now;
+                continue;
+            }
+            long c = ok.sum() + rejected.sum() + conflicts.sum() + failed.sum();
+            LOG.info(String.format("%s: %.0f movements/s", measuring ? "measuring" : "warm-up",
+                (c - lastCount) / Math.max(1e-9, (now - lastTick) / 1e9)));
+            lastCount = c;
+            lastTick = now;
+        }
+        printReport(Math.max(1e-9, (System.nanoTime() - measuredSince) / 1e9));
+    }
+
+    private void prepare() throws IOException, InterruptedException {
+        Map<String, Object> login = new LinkedHashMap<>();
+        login.put("username", options.user());
+        login.put("password", options.password());
+        HttpResponse<String> r = send(HttpRequest.newBuilder(uri("/api/login"))
+            .POST(HttpRequest.BodyPublishers.ofString(Json.write(login))));
+        if (r.statusCode() != 200) throw new IllegalStateException("Login failed: " + r.statusCode() + " " + r.body());
+        token = (String) ((Map<?, ?>) Json.parse(r.body())).get("token");
+
+        productIds = ids(getJson("/api/products?limit=" + Math.min(options.products(), 1000)));
+        if (productIds.length == 0) throw new IllegalStateException("No products; run DataGenerator first");
+        locationIds = ids(getJson("/api/locations"));
+        if (locationIds.length == 0) throw new IllegalStateException("No locations");
+    }
+
+    private void clientLoop(SplittableRandom random, long deadline) {
+        while (System.nanoTime() < deadline) {
+            List<Map<String, Object>> movements = new ArrayList<>(options.batch());
+            for (int i = 0; i < options.batch(); i++) movements.add(randomMovement(random));
+            boolean single = options.batch() == 1;
+            String path = single ? "/api/movements" : "/api/movements/batch";
+            String body = Json.write(single ? movements.get(0) : Map.of("movements", movements));
+            long t0 = System.nanoTime();
+            try {
+                HttpResponse<String> r = send(authorized(path).POST(HttpRequest.BodyPublishers.ofString(body)));
+                latency.recordNanos(System.nanoTime() - t0);
+                requests.increment();
+                if (single) {
+                    count(r.statusCode());
+                } else if (r.statusCode() == 200) {
+                    for (Object o : (List<?>) ((Map<?, ?>) Json.parse(r.body())).get("results")) {
+                        Map<?, ?> result = (Map<?, ?>) o;
+                        count(Boolean.TRUE.equals(result.get("ok")) ? 200 : ((Long) result.get("status")).intValue());
+                    }
+                } else if (r.statusCode() == 409) {
+                    // The batch's transaction was rolled back as a whole
+                    for (int i = 0; i < movements.size(); i++) count(409);
+                } else {
+                    httpErrors.increment();
+                    LOG.warning("Batch failed: " + r.statusCode() + " " + r.body());
+                }
+            } catch (IOException e) {
+                httpErrors.increment();
+                LOG.warning("Request failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Map<String, Object> randomMovement(SplittableRandom random) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        boolean checkout = random.nextDouble() < options.checkoutShare();
+        m.put("type", checkout ? "CHECK_OUT" : "CHECK_IN");
+        m.put("productId", productIds[random.nextInt(productIds.length)]);
+        m.put("locationId", locationIds[random.nextInt(locationIds.length)]);
+        m.put("quantity", 1 + random.nextInt(5));
+        m.put("notes", "api load test");
+        return m;
+    }
+
+    private void count(int status) {
+        switch (status) {
+            case 200 -> ok.increment();
+            case 400 -> rejected.increment();
+            case 409 -> conflicts.increment();
+            default -> failed.increment();
+        }
+    }
+
+    private void printReport(double seconds) {
+        long movements = ok.sum() + rejected.sum() + conflicts.sum() + failed.sum();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n=== API load test: %d clients, %d per request, %.0f s measured ===%n",
+            options.clients(), options.batch(), seconds));
+        sb.append(String.format("Movements: %.1f/s (%d: ok %d, rejected %d, conflicts %d, failed %d)%n",
+            movements / seconds, movements, ok.sum(), rejected.sum(), conflicts.sum(), failed.sum()));
+        sb.append(String.format("Requests: %.1f/s (%d, %d transport or HTTP errors)%n",
+            requests.sum() / seconds, requests.sum(), httpErrors.sum()));
+        sb.append(String.format("Request latency: p50 %s, p99 %s, p99.9 %s, max %s%n",
+            LatencyHistogram.formatMicros(latency.percentileMicros(50)),
+            LatencyHistogram.formatMicros(latency.percentileMicros(99)),
+            LatencyHistogram.formatMicros(latency.percentileMicros(99.9)),
+            LatencyHistogram.formatMicros(latency.maxMicros())));
+        sb.append(latency.render());
+        System.out.print(sb);
+    }
+
+    private Object getJson(String path) throws IOException, InterruptedException {
+        HttpResponse<String> r = send(authorized(path).GET());
+        if (r.statusCode() != 200) throw new IllegalStateException(path + ": " + r.statusCode() + " " + r.body());
+        return Json.parse(r.body());
+    }
+
+    private static int[] ids(Object list) {
+        return ((List<?>) list).stream().mapToInt(o -> ((Long) ((Map<?, ?>) o).get("id")).intValue()).toArray();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.url().replaceAll("/+$", "") + path);
+    }
+}
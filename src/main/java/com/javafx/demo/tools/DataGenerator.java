@@ -0,0 +1,508 @@
+package com.javafx.demo.tools;
+
+import com.javafx.demo.db.Database;
+import com.javafx.demo.security.PasswordHasher;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Fills a database with a reproducible, realistically shaped dataset for scale testing.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.javafx.demo.tools.DataGenerator \
+ *     -Ddb.url=jdbc:mysql://127.0.0.1:3306/factory_scale -Dexec.args="--products=20000 --years=3"
+ * </pre>
+ *
+ * Options ({@code --name=value}): {@code products} (10000), {@code locations} (12), {@code users}
+ * (60), {@code years} (2), {@code logs-per-day} (15000), {@code alert-rate} (0.02, share of
+ * check-outs that become overdue), {@code writers} (cores, at most 8), {@code batch} (2000 rows per
+ * INSERT) and {@code seed} (1).
+ *
+ * Product popularity follows a Zipf distribution, so a few products carry most of the movements.
+ * Timestamps cluster at the starts and ends of three shifts, with quiet weekends, and each user
+ * works one shift. Stock enters at the first location, moves along the location chain by
+ * transfers and leaves by check-outs, which never take more than the simulated stock; the final
+ * stock is written to {@code product_stock} and {@code products.quantity}.
+ *
+ * One thread generates rows day by day in time order and hands multi-row INSERT batches to
+ * parallel writers, each on its own connection with foreign key and unique checks off. Ids are
+ * assigned by the generator, so alerts can reference their logs and the run can append to a
+ * database that already has data.
+ */
+public final class DataGenerator {
+    private static final Logger LOG = Logger.getLogger(DataGenerator.class.getName());
+
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final int OVERDUE_HOURS = 2;
+    private static final String[] UNITS = {"pcs", "pcs", "pcs", "box", "kg", "m"};
+    private static final String[] KINDS = {"Bolt", "Nut", "Washer", "Bearing", "Gasket", "Valve", "Sensor",
+        "Cable", "Bracket", "Spring", "Filter", "Fuse", "Relay", "Hose", "Pulley", "Seal"};
+    private static final String[] GRADES = {"Steel", "Brass", "Nylon", "Zinc", "Copper", "Alloy", "Heavy", "Mini"};
+    // Shift start hours and the share of daily movements in each
+    private static final int[] SHIFT_START = {6, 14, 22};
+    private static final double[] SHIFT_SHARE = {0.5, 0.35, 0.15};
+
+    record Options(int products, int locations, int users, int years, int logsPerDay,
+                   double alertRate, int writers, int batch, long seed) {
+
+        static Options parse(String[] args) {
+            Map<String, String> m = new HashMap<>();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --name=value: " + a);
+                m.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+            int cores = Runtime.getRuntime().availableProcessors();
+            Options o = new Options(
+                Integer.parseInt(m.getOrDefault("products", "10000")),
+                Integer.parseInt(m.getOrDefault("locations", "12")),
+                Integer.parseInt(m.getOrDefault("users", "60")),
+                Integer.parseInt(m.getOrDefault("years", "2")),
+                Integer.parseInt(m.getOrDefault("logs-per-day", "15000")),
+                Double.parseDouble(m.getOrDefault("alert-rate", "0.02")),
+                Integer.parseInt(m.getOrDefault("writers", String.valueOf(Math.min(8, cores)))),
+                Integer.parseInt(m.getOrDefault("batch", "2000")),
+                Long.parseLong(m.getOrDefault("seed", "1")));
+            if (o.products < 1 || o.locations < 2 || o.users < 3 || o.years < 1 || o.writers < 1 || o.batch < 1) {
+                throw new IllegalArgumentException("Need products >= 1, locations >= 2, users >= 3, years, writers and batch >= 1");
+            }
+            return o;
+        }
+    }
+
+    record LogRow(long id, int productId, int userId, String action, int quantity, LocalDateTime at,
+                  Integer fromLocationId, Integer toLocationId) {}
+
+    record AlertRow(long logId, int productId, String message, LocalDateTime createdAt,
+                    LocalDateTime resolvedAt, Integer resolvedBy) {}
+
+    /** Floor users by shift, and the supervisors who resolve alerts. */
+    record Crew(int[][] byShift, int[] supervisors) {}
+
+    /** Rows for one multi-row INSERT, written by whichever writer takes it. */
+    private interface Chunk {
+        int write(Connection c) throws SQLException;
+    }
+
+    private static final Chunk END = c -> 0;
+    private static final AtomicInteger WRITER_SEQ = new AtomicInteger();
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final List<Future<?>> running = new ArrayList<>();
+
+    DataGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Database.migrateIfNeeded();
+        new DataGenerator(options).run();
+    }
+
+    void run() throws Exception {
+        long t0 = System.nanoTime();
+        int[] locationChain = createLocations();
+        Crew crew = createUsers();
+        int[] productIds = createProducts();
+        LOG.info(String.format("Reference data ready: %d products, %d locations, %d users",
+            productIds.length, locationChain.length, options.users()));
+
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(options.writers() * 4);
+        ExecutorService writers = Executors.newFixedThreadPool(options.writers(), r -> {
+            Thread t = new Thread(r, "datagen-writer-" + WRITER_SEQ.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < options.writers(); i++) {
+            running.add(writers.submit(() -> drain(queue)));
+        }
+        int[][] stock = new int[productIds.length][locationChain.length];
+        try {
+            generateMovements(queue, productIds, locationChain, crew, stock);
+        } finally {
+            for (int i = 0; i < options.writers(); i++) queue.offer(END, 1, TimeUnit.MINUTES);
+            writers.shutdown();
+        }
+        for (Future<?> f : running) f.get();
+        writeStock(productIds, locationChain, stock);
+
+        long ms = Math.max(1, (System.nanoTime() - t0) / 1_000_000);
+        LOG.info(String.format("Generated %d rows in %d s (%d rows/s)",
+            rowsWritten.get(), ms / 1000, rowsWritten.get() * 1000 / ms));
+    }
+
+    /**
+     * Queue a chunk, failing instead of blocking forever if a writer died.
+     */
+    private void submit(BlockingQueue<Chunk> queue, Chunk chunk) throws Exception {
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            for (Future<?> f : running) {
+                if (f.isDone()) f.get();
+            }
+        }
+    }
+
+    private Void drain(BlockingQueue<Chunk> queue) throws Exception {
+        try (Connection c = Database.getConnection()) {
+            try (Statement st = c.createStatement()) {
+                st.execute("SET foreign_key_checks = 0, unique_checks = 0");
+            }
+            for (Chunk chunk = queue.take(); chunk != END; chunk = queue.take()) {
+                rowsWritten.addAndGet(chunk.write(c));
+            }
+        }
+        return null;
+    }
+
+    // ---- reference data ----
+
+    private int[] createLocations() throws SQLException {
+        List<String> names = new ArrayList<>(List.of("Warehouse A", "Warehouse B", "Storage C"));
+        for (int i = names.size() + 1; i <= options.locations(); i++) {
+            names.add(String.format("Zone %02d", i));
+        }
+        names = names.subList(0, options.locations());
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement("INSERT IGNORE INTO locations(name) VALUES (?)")) {
+            for (String n : names) {
+                ps.setString(1, n);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            Map<String, Integer> ids = new HashMap<>();
+            try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("SELECT id, name FROM locations")) {
+                while (rs.next()) ids.put(rs.getString(2), rs.getInt(1));
+            }
+            // Chain order: receiving first, line-side last
+            return names.stream().mapToInt(ids::get).toArray();
+        }
+    }
+
+    /**
+     * Staff split across the three shifts, plus one supervisor (SECURITY) in every twenty users.
+     */
+    private Crew createUsers() throws SQLException {
+        String hash = PasswordHasher.hash("changeme");
+        try (Connection c = Database.getConnection()) {
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate("INSERT IGNORE INTO roles(name) VALUES ('ADMIN'), ('SECURITY'), ('STAFF')");
+            }
+            String sql = "INSERT IGNORE INTO users(username, password_hash, role_id) SELECT ?, ?, id FROM roles WHERE name = ?";
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (int i = 0; i < options.users(); i++) {
+                    ps.setString(1, String.format("gen_user_%04d", i));
+                    ps.setString(2, hash);
+                    ps.setString(3, i % 20 == 19 ? "SECURITY" : "STAFF");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            List<Integer> staff = new ArrayList<>();
+            List<Integer> supervisors = new ArrayList<>();
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("""
+                     SELECT u.id, r.name FROM users u JOIN roles r ON r.id = u.role_id
+                     WHERE u.username LIKE 'gen\\_user\\_%' ORDER BY u.username
+                     """)) {
+                while (rs.next()) {
+                    (rs.getString(2).equals("SECURITY") ? supervisors : staff).add(rs.getInt(1));
+                }
+            }
+            int[][] byShift = new int[SHIFT_START.length][];
+            for (int s = 0; s < byShift.length; s++) {
+                final int shift = s;
+                byShift[s] = IntStream.range(0, staff.size())
+                    .filter(i -> i % SHIFT_START.length == shift).map(staff::get).toArray();
+            }
+            int[] resolvers = supervisors.isEmpty() ? byShift[0] : supervisors.stream().mapToInt(Integer::intValue).toArray();
+            return new Crew(byShift, resolvers);
+        }
+    }
+
+    private int[] createProducts() throws Exception {
+        long first = nextId("products");
+        int[] ids = new int[options.products()];
+        List<Object[]> rows = new ArrayList<>(options.batch());
+        try (Connection c = Database.getConnection()) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Math.toIntExact(first + i);
+                String name = String.format("%s %s %s-%05d", GRADES[random.nextInt(GRADES.length)],
+                    KINDS[random.nextInt(KINDS.length)], (char) ('A' + random.nextInt(26)), i);
+                rows.add(new Object[] {ids[i], name, "Generated " + name.toLowerCase(), UNITS[random.nextInt(UNITS.length)]});
+                if (rows.size() == options.batch() || i == ids.length - 1) {
+                    insert(c, "products(id, name, description, quantity, location, unit)", "(?, ?, ?, 0, NULL, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        return ids;
+    }
+
+    // ---- movements ----
+
+    private void generateMovements(BlockingQueue<Chunk> queue, int[] productIds, int[] chain,
+                                   Crew crew, int[][] stock) throws Exception {
+        double[] popularity = zipfCumulative(productIds.length);
+        // Popularity rank -> product index, so the busy products are not simply the first created
+        int[] byRank = shuffledRange(productIds.length);
+
+        long nextLogId = nextId("logs");
+        LocalDate today = LocalDate.now();
+        LocalDate day = today.minusYears(options.years());
+        LocalDateTime cutoff = LocalDateTime.now();
+        List<LogRow> logs = new ArrayList<>(options.batch());
+        List<AlertRow> alerts = new ArrayList<>();
+        long total = 0;
+
+        for (; !day.isAfter(today); day = day.plusDays(1)) {
+            LocalDateTime[] times = timestampsFor(day);
+            for (LocalDateTime at : times) {
+                if (at.isAfter(cutoff)) break;
+                int p = byRank[sample(popularity)];
+                int shift = shiftOf(at);
+                int[] onShift = crew.byShift()[shift];
+                int user = onShift[random.nextInt(onShift.length)];
+                LogRow row = movement(nextLogId, productIds[p], stock[p], chain, user, at);
+                nextLogId++;
+                logs.add(row);
+                if ("CHECK_OUT".equals(row.action()) && random.nextDouble() < options.alertRate()) {
+                    alerts.add(overdueAlert(row, crew.supervisors(), cutoff));
+                }
+                if (logs.size() == options.batch()) {
+                    total += logs.size();
+                    submit(queue, logChunk(logs));
+                    logs = new ArrayList<>(options.batch());
+                }
+                if (alerts.size() == options.batch()) {
+                    submit(queue, alertChunk(alerts));
+                    alerts = new ArrayList<>();
+                }
+            }
+            if (day.getDayOfMonth() == 1) {
+                LOG.info(String.format("Generated movements up to %s (%d logs)", day, total + logs.size()));
+            }
+        }
+        if (!logs.isEmpty()) submit(queue, logChunk(logs));
+        if (!alerts.isEmpty()) submit(queue, alertChunk(alerts));
+    }
+
+    /**
+     * One movement of product {@code p}, updating its simulated per-location stock. Check-outs and
+     * transfers that the stock cannot cover turn into check-ins at the first location.
+     */
+    private LogRow movement(long id, int productId, int[] stock, int[] chain, int user, LocalDateTime at) {
+        double roll = random.nextDouble();
+        int qty = 1 + (int) Math.floor(Math.abs(random.nextGaussian()) * 12);
+        if (roll < 0.45) {
+            // Check-out, preferring the line-side end of the chain
+            for (int k = chain.length - 1; k >= 0; k--) {
+                if (stock[k] > 0 && (k == 0 || random.nextDouble() < 0.8)) {
+                    int q = Math.min(qty, stock[k]);
+                    stock[k] -= q;
+                    return new LogRow(id, productId, user, "CHECK_OUT", q, at, chain[k], null);
+                }
+            }
+        } else if (roll < 0.65) {
+            // Transfer one step along the chain
+            int start = random.nextInt(chain.length - 1);
+            for (int i = 0; i < chain.length - 1; i++) {
+                int k = (start + i) % (chain.length - 1);
+                if (stock[k] > 0) {
+                    int q = Math.min(qty, stock[k]);
+                    stock[k] -= q;
+                    stock[k + 1] += q;
+                    return new LogRow(id, productId, user, "TRANSFER", q, at, chain[k], chain[k + 1]);
+                }
+            }
+        }
+        int k = random.nextDouble() < 0.85 ? 0 : random.nextInt(chain.length);
+        int q = qty * (1 + random.nextInt(4));
+        stock[k] += q;
+        return new LogRow(id, productId, user, "CHECK_IN", q, at, null, chain[k]);
+    }
+
+    private AlertRow overdueAlert(LogRow checkout, int[] supervisors, LocalDateTime now) {
+        long hours = OVERDUE_HOURS + random.nextInt(6);
+        LocalDateTime created = checkout.at().plusHours(OVERDUE_HOURS).plusMinutes(random.nextInt(60));
+        if (created.isAfter(now)) created = now;
+        String message = String.format(
+            "Product ID %d has been checked out for %d hours. Quantity: %d. Checked out by user ID: %d",
+            checkout.productId(), hours, checkout.quantity(), checkout.userId());
+        boolean resolved = created.isBefore(now.minusDays(3)) && random.nextDouble() < 0.95;
+        return new AlertRow(checkout.id(), checkout.productId(), message, created,
+            resolved ? created.plusHours(1 + random.nextInt(48)) : null,
+            resolved ? supervisors[random.nextInt(supervisors.length)] : null);
+    }
+
+    /**
+     * Sorted movement times for one day: weekends run at 30%, and within a shift the movements
+     * bunch up around the start and the end.
+     */
+    private LocalDateTime[] timestampsFor(LocalDate day) {
+        boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+        double volume = (weekend ? 0.3 : 1.0) * (0.85 + 0.3 * random.nextDouble());
+        int n = (int) Math.round(options.logsPerDay() * volume);
+        long[] seconds = new long[n];
+        for (int i = 0; i < n; i++) {
+            double r = random.nextDouble();
+            int shift = 0;
+            while (shift < SHIFT_SHARE.length - 1 && r > SHIFT_SHARE[shift]) {
+                r -= SHIFT_SHARE[shift];
+                shift++;
+            }
+            // Beta(0.5, 0.5)-like position within the 8h shift: dense at both ends
+            double u = Math.sin(random.nextDouble() * Math.PI / 2);
+            double pos = random.nextBoolean() ? u * u : 1 - u * u;
+            seconds[i] = SHIFT_START[shift] * 3600L + (long) (pos * 8 * 3600);
+        }
+        Arrays.sort(seconds);
+        LocalDateTime midnight = day.atStartOfDay();
+        LocalDateTime[] out = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) out[i] = midnight.plusSeconds(seconds[i]);
+        return out;
+    }
+
+    private static int shiftOf(LocalDateTime at) {
+        int h = at.getHour();
+        if (h >= SHIFT_START[0] && h < SHIFT_START[1]) return 0;
+        if (h >= SHIFT_START[1] && h < SHIFT_START[2]) return 1;
+        return 2;
+    }
+
+    private static double[] zipfCumulative(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) cdf[i] /= sum;
+        return cdf;
+    }
+
+    private int sample(double[] cdf) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    private int[] shuffledRange(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    // ---- writing ----
+
+    private static Chunk logChunk(List<LogRow> logs) {
+        return c -> {
+            List<Object[]> rows = new ArrayList<>(logs.size());
+            for (LogRow l : logs) {
+                rows.add(new Object[] {l.id(), l.productId(), l.userId(), l.action(), l.quantity(),
+                    Timestamp.valueOf(l.at()), l.fromLocationId(), l.toLocationId()});
+            }
+            return insert(c, "logs(id, product_id, user_id, action_type, quantity, timestamp, from_location_id, to_location_id)",
+                "(?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        };
+    }
+
+    private static Chunk alertChunk(List<AlertRow> alerts) {
+        return c -> {
+            List<Object[]> rows = new ArrayList<>(alerts.size());
+            for (AlertRow a : alerts) {
+                rows.add(new Object[] {a.productId(), a.logId(), a.message(),
+                    a.resolvedAt() == null ? "UNRESOLVED" : "RESOLVED", Timestamp.valueOf(a.createdAt()),
+                    a.resolvedAt() == null ? null : Timestamp.valueOf(a.resolvedAt()), a.resolvedBy()});
+            }
+            return insert(c, "alerts(product_id, log_id, alert_type, message, status, created_at, resolved_at, resolved_by)",
+                "(?, ?, 'OVERDUE_CHECKOUT', ?, ?, ?, ?, ?)", rows);
+        };
+    }
+
+    private static int insert(Connection c, String target, String tuple, List<Object[]> rows) throws SQLException {
+        StringBuilder sql = new StringBuilder(target.length() + rows.size() * (tuple.length() + 1) + 16);
+        sql.append("INSERT INTO ").append(target).append(" VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(tuple);
+        }
+        try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Object[] row : rows) {
+                for (Object v : row) ps.setObject(p++, v);
+            }
+            return ps.executeUpdate();
+        }
+    }
+
+    private void writeStock(int[] productIds, int[] chain, int[][] stock) throws SQLException {
+        try (Connection c = Database.getConnection()) {
+            c.setAutoCommit(false);
+            List<Object[]> rows = new ArrayList<>(options.batch());
+            for (int p = 0; p < productIds.length; p++) {
+                for (int k = 0; k < chain.length; k++) {
+                    if (stock[p][k] == 0) continue;
+                    rows.add(new Object[] {productIds[p], chain[k], stock[p][k]});
+                    if (rows.size() == options.batch()) {
+                        insert(c, "product_stock(product_id, location_id, quantity)", "(?, ?, ?)", rows);
+                        rows.clear();
+                    }
+                }
+            }
+            if (!rows.isEmpty()) insert(c, "product_stock(product_id, location_id, quantity)", "(?, ?, ?)", rows);
+            try (PreparedStatement ps = c.prepareStatement("""
+                UPDATE products p
+                JOIN (SELECT product_id, SUM(quantity) AS total FROM product_stock GROUP BY product_id) s
+                  ON s.product_id = p.id
+                SET p.quantity = s.total
+                WHERE p.id BETWEEN ? AND ?
+                """)) {
+                ps.setInt(1, productIds[0]);
+                ps.setInt(2, productIds[productIds.length - 1]);
+                ps.executeUpdate();
+            }
+            c.commit();
+        }
+    }
+
+    private static long nextId(String table) throws SQLException {
+        try (Connection c = Database.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
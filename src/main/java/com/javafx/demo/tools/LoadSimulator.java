@@ -0,0 +1,433 @@
+package com.javafx.demo.tools;
+
+import com.javafx.demo.app.LocationDictionary;
+import com.javafx.demo.app.StockMatrix;
+import com.javafx.demo.dao.LocationDao.Location;
+import com.javafx.demo.dao.ProductDao;
+import com.javafx.demo.dao.ProductStockDao;
+import com.javafx.demo.dao.UserDao;
+import com.javafx.demo.db.Database;
+import com.javafx.demo.metrics.LatencyHistogram;
+import com.javafx.demo.model.ProductSummary;
+import com.javafx.demo.service.InventoryService;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Headless load test: N simulated floor terminals drive {@link InventoryService} against one
+ * database, the way a shift change does.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.javafx.demo.tools.LoadSimulator \
+ *     -Ddb.url=jdbc:mysql://127.0.0.1:3306/factory_scale -Dexec.args="--terminals=64 --duration=120"
+ * </pre>
+ *
+ * Options ({@code --name=value}): {@code terminals} (32), {@code duration} in seconds (60),
+ * {@code warmup} seconds not counted in the report (5), {@code mix} of
+ * {@code checkin:checkout:transfer} weights (40:40:20), {@code think-ms}, the mean of an
+ * exponential pause between operations (200), {@code hot-products} (20) and {@code hot-share}
+ * (0.8, share of operations on the hot products), {@code retries} on deadlock or lock wait
+ * timeout (3), {@code user} (first user) and {@code seed} (1).
+ *
+ * The report gives throughput and latency percentiles per operation, outcome counts, deadlocks,
+ * lock wait timeouts and retries. It ends with stock invariant checks: every
+ * {@code product_stock} row must equal its starting value plus the successful movements, never be
+ * negative, add up to {@code products.quantity}, and agree with {@link StockMatrix}.
+ */
+public final class LoadSimulator {
+    private static final Logger LOG = Logger.getLogger(LoadSimulator.class.getName());
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int PROGRESS_SECONDS = 5;
+    private static final int MAX_VIOLATIONS_SHOWN = 20;
+
+    enum Op { CHECK_IN, CHECK_OUT, TRANSFER }
+
+    enum Outcome { OK, REJECTED, FAILED }
+
+    record Options(int terminals, int durationSeconds, int warmupSeconds, int[] mix, int thinkMillis,
+                   int hotProducts, double hotShare, int retries, String user, long seed) {
+
+        static Options parse(String[] args) {
+            Map<String, String> m = new HashMap<>();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --name=value: " + a);
+                m.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+            String[] mix = m.getOrDefault("mix", "40:40:20").split(":");
+            if (mix.length != 3) throw new IllegalArgumentException("--mix needs three weights, checkin:checkout:transfer");
+            Options o = new Options(
+                Integer.parseInt(m.getOrDefault("terminals", "32")),
+                Integer.parseInt(m.getOrDefault("duration", "60")),
+                Integer.parseInt(m.getOrDefault("warmup", "5")),
+                new int[] {Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2])},
+                Integer.parseInt(m.getOrDefault("think-ms", "200")),
+                Integer.parseInt(m.getOrDefault("hot-products", "20")),
+                Double.parseDouble(m.getOrDefault("hot-share", "0.8")),
+                Integer.parseInt(m.getOrDefault("retries", "3")),
+                m.get("user"),
+                Long.parseLong(m.getOrDefault("seed", "1")));
+            if (o.terminals < 1 || o.durationSeconds < 1 || o.mix[0] + o.mix[1] + o.mix[2] <= 0) {
+                throw new IllegalArgumentException("Need terminals >= 1, duration >= 1 and a non-zero mix");
+            }
+            return o;
+        }
+    }
+
+    private final Options options;
+    private final InventoryService inventoryService = new InventoryService();
+    private final StockMatrix stockMatrix = StockMatrix.getInstance();
+
+    private final Map<Op, LatencyHistogram> latency = new EnumMap<>(Op.class);
+    private final Map<Op, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Op.class);
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder lockWaitTimeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final AtomicLong completed = new AtomicLong();
+    // key(productId, locationId) -> net change from successful movements
+    private final Map<Long, LongAdder> expectedDelta = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    private int userId;
+    private int[] productIds;
+    private int[] hotProductIds;
+    private int[] locationIds;
+
+    LoadSimulator(Options options) {
+        this.options = options;
+        for (Op op : Op.values()) {
+            latency.put(op, new LatencyHistogram());
+            Map<Outcome, LongAdder> byOutcome = new EnumMap<>(Outcome.class);
+            for (Outcome o : Outcome.values()) byOutcome.put(o, new LongAdder());
+            outcomes.put(op, byOutcome);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Database.migrateIfNeeded();
+        boolean clean = new LoadSimulator(options).run();
+        System.exit(clean ? 0 : 1);
+    }
+
+    /**
+     * Run the simulation and print the report; false if any stock invariant was violated.
+     */
+    boolean run() throws InterruptedException {
+        prepare();
+        Map<Long, Integer> before = stockSnapshot();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        measuring = options.warmupSeconds() == 0;
+        CountDownLatch done = new CountDownLatch(options.terminals());
+        List<Thread> terminals = new ArrayList<>();
+        for (int i = 0; i < options.terminals(); i++) {
+            SplittableRandom random = new SplittableRandom(options.seed() * 1_000_003 + i);
+            Thread t = new Thread(() -> {
+                try {
+                    terminalLoop(random, deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "terminal-" + i);
+            t.setDaemon(true);
+            terminals.add(t);
+        }
+        LOG.info(String.format("Starting %d terminals: %ds warm-up, %ds measured",
+            options.terminals(), options.warmupSeconds(), options.durationSeconds()));
+        terminals.forEach(Thread::start);
+
+        long measuredSince = start;
+        long lastCount = 0;
+        long lastTick = start;
+        while (true) {
+            long untilMeasuring = measuring ? Long.MAX_VALUE : measureFrom - System.nanoTime();
+            long wait = Math.max(1, Math.min(TimeUnit.SECONDS.toNanos(PROGRESS_SECONDS), untilMeasuring));
+            if (done.await(wait, TimeUnit.NANOSECONDS)) break;
+            long now = System.nanoTime();
+            if (!measuring && now >= measureFrom) {
+                // Warm-up over: start the report from here
+                measuring = true;
+                latency.values().forEach(LatencyHistogram::reset);
+                outcomes.values().forEach(m -> m.values().forEach(LongAdder::reset));
+                deadlocks.reset();
+                lockWaitTimeouts.reset();
+                retries.reset();
+                completed.set(0);
+                measuredSince = now;
+                lastCount = 0;
+                lastTick = now;
+                continue;
+            }
+            long c = completed.get();
+            LOG.info(String.format("%s: %.0f ops/s", measuring ? "measuring" : "warm-up",
+                (c - lastCount) / Math.max(1e-9, (now - lastTick) / 1e9)));
+            lastCount = c;
+            lastTick = now;
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - measuredSince) / 1e9);
+
+        printReport(seconds);
+        return checkInvariants(before);
+    }
+
+    private void prepare() {
+        UserDao users = new UserDao();
+        if (options.user() != null) {
+            var u = users.findByUsername(options.user());
+            if (u == null) throw new IllegalArgumentException("No user " + options.user());
+            userId = u.id();
+        } else {
+            userId = users.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("No users in the database")).id();
+        }
+        productIds = new ProductDao().findAllSummaries().stream().mapToInt(ProductSummary::id).toArray();
+        if (productIds.length == 0) throw new IllegalStateException("No products in the database; run DataGenerator first");
+        locationIds = LocationDictionary.getInstance().all().stream().mapToInt(Location::id).toArray();
+        if (locationIds.length < 2) throw new IllegalStateException("Transfers need at least two locations");
+
+        SplittableRandom random = new SplittableRandom(options.seed());
+        int hot = Math.min(options.hotProducts(), productIds.length);
+        int[] shuffled = productIds.clone();
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = t;
+        }
+        hotProductIds = java.util.Arrays.copyOf(shuffled, hot);
+        stockMatrix.reload();
+    }
+
+    private void terminalLoop(SplittableRandom random, long deadline) {
+        int totalWeight = options.mix()[0] + options.mix()[1] + options.mix()[2];
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(totalWeight);
+            Op op = roll < options.mix()[0] ? Op.CHECK_IN
+                : roll < options.mix()[0] + options.mix()[1] ? Op.CHECK_OUT : Op.TRANSFER;
+            int productId = random.nextDouble() < options.hotShare() && hotProductIds.length > 0
+                ? hotProductIds[random.nextInt(hotProductIds.length)]
+                : productIds[random.nextInt(productIds.length)];
+            execute(op, productId, random);
+            completed.incrementAndGet();
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (options.thinkMillis() > 0 && remainingMillis > 0) {
+                long pause = (long) (-Math.log(1 - random.nextDouble()) * options.thinkMillis());
+                try {
+                    Thread.sleep(Math.min(pause, remainingMillis));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void execute(Op op, int productId, SplittableRandom random) {
+        int quantity = 1 + random.nextInt(5);
+        // Pick locations from the in-process matrix, as the terminal screens do
+        List<StockMatrix.Cell> held = stockMatrix.forProduct(productId);
+        int from = held.isEmpty() ? 0 : held.get(random.nextInt(held.size())).locationId();
+        if ((op == Op.CHECK_OUT || op == Op.TRANSFER) && from == 0) {
+            op = Op.CHECK_IN;
+        }
+        int to = locationIds[random.nextInt(locationIds.length)];
+        if (op == Op.TRANSFER && to == from) {
+            to = locationIds[(indexOf(locationIds, to) + 1) % locationIds.length];
+        }
+
+        long t0 = System.nanoTime();
+        Outcome outcome = Outcome.FAILED;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                switch (op) {
+                    case CHECK_IN -> inventoryService.checkIn(productId, to, userId, quantity, "load test");
+                    case CHECK_OUT -> inventoryService.checkOut(productId, from, userId, quantity, "load test");
+                    case TRANSFER -> inventoryService.transfer(productId, from, to, userId, quantity, "load test");
+                }
+                outcome = Outcome.OK;
+                break;
+            } catch (IllegalArgumentException e) {
+                // Not enough stock: a normal answer, not an error
+                outcome = Outcome.REJECTED;
+                break;
+            } catch (RuntimeException e) {
+                int code = lockErrorCode(e);
+                if (code == ER_LOCK_DEADLOCK) deadlocks.increment();
+                if (code == ER_LOCK_WAIT_TIMEOUT) lockWaitTimeouts.increment();
+                if (code == 0 || attempt >= options.retries()) {
+                    if (code == 0) LOG.warning(op + " failed: " + e.getMessage());
+                    break;
+                }
+                retries.increment();
+            }
+        }
+        latency.get(op).recordNanos(System.nanoTime() - t0);
+        outcomes.get(op).get(outcome).increment();
+
+        if (outcome == Outcome.OK) {
+            switch (op) {
+                case CHECK_IN -> expect(productId, to, quantity);
+                case CHECK_OUT -> expect(productId, from, -quantity);
+                case TRANSFER -> {
+                    expect(productId, from, -quantity);
+                    expect(productId, to, quantity);
+                }
+            }
+        }
+    }
+
+    private void expect(int productId, int locationId, int delta) {
+        expectedDelta.computeIfAbsent(key(productId, locationId), k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * The MySQL error code of a deadlock or lock wait timeout in {@code e}'s cause chain, else 0.
+     */
+    private static int lockErrorCode(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException s) {
+                if (s.getErrorCode() == ER_LOCK_DEADLOCK || s.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) return s.getErrorCode();
+                if (s instanceof SQLTransactionRollbackException) return ER_LOCK_DEADLOCK;
+            }
+        }
+        return 0;
+    }
+
+    private void printReport(double seconds) {
+        long total = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n=== Load simulation: %d terminals, %.0f s measured ===%n", options.terminals(), seconds));
+        sb.append(String.format("%-10s %9s %9s %9s %8s %9s %9s %9s %9s%n",
+            "operation", "ok", "rejected", "failed", "ops/s", "p50", "p99", "p99.9", "max"));
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency.get(op);
+            Map<Outcome, LongAdder> o = outcomes.get(op);
+            total += h.count();
+            sb.append(String.format("%-10s %9d %9d %9d %8.1f %9s %9s %9s %9s%n", op,
+                o.get(Outcome.OK).sum(), o.get(Outcome.REJECTED).sum(), o.get(Outcome.FAILED).sum(),
+                h.count() / seconds,
+                LatencyHistogram.formatMicros(h.percentileMicros(50)),
+                LatencyHistogram.formatMicros(h.percentileMicros(99)),
+                LatencyHistogram.formatMicros(h.percentileMicros(99.9)),
+                LatencyHistogram.formatMicros(h.maxMicros())));
+        }
+        sb.append(String.format("Throughput: %.1f ops/s (%d operations)%n", total / seconds, total));
+        sb.append(String.format("Deadlocks: %d, lock wait timeouts: %d, retries: %d%n",
+            deadlocks.sum(), lockWaitTimeouts.sum(), retries.sum()));
+        LatencyHistogram all = new LatencyHistogram();
+        latency.values().forEach(all::add);
+        sb.append(String.format("%nLatency, all operations:%n")).append(all.render());
+        System.out.print(sb);
+    }
+
+    private boolean checkInvariants(Map<Long, Integer> before) {
+        List<String> violations = new ArrayList<>();
+        Map<Long, Integer> after = stockSnapshot();
+        for (Map.Entry<Long, LongAdder> e : expectedDelta.entrySet()) {
+            long k = e.getKey();
+            long expected = before.getOrDefault(k, 0) + e.getValue().sum();
+            int actual = after.getOrDefault(k, 0);
+            if (expected != actual) {
+                violations.add(String.format("product %d at location %d: expected %d, found %d",
+                    productOf(k), locationOf(k), expected, actual));
+            }
+        }
+        // Every terminal has finished, so the matrix should have seen every committed movement
+        for (long k : expectedDelta.keySet()) {
+            int inMatrix = stockMatrix.quantity(productOf(k), locationOf(k));
+            int actual = after.getOrDefault(k, 0);
+            if (inMatrix != actual) {
+                violations.add(String.format("product %d at location %d: matrix has %d, database %d",
+                    productOf(k), locationOf(k), inMatrix, actual));
+            }
+        }
+        violations.addAll(databaseMismatches());
+
+        System.out.printf("%nStock invariants: %s%n", violations.isEmpty() ? "OK" : violations.size() + " violation(s)");
+        violations.stream().limit(MAX_VIOLATIONS_SHOWN).forEach(v -> System.out.println("  " + v));
+        if (violations.size() > MAX_VIOLATIONS_SHOWN) {
+            System.out.printf("  ... and %d more%n", violations.size() - MAX_VIOLATIONS_SHOWN);
+        }
+        return violations.isEmpty();
+    }
+
+    /**
+     * Negative stock rows, and products whose {@code quantity} column differs from the sum of
+     * their stock rows.
+     */
+    private List<String> databaseMismatches() {
+        List<String> out = new ArrayList<>();
+        String negative = "SELECT product_id, location_id, quantity FROM product_stock WHERE quantity < 0";
+        String sql = """
+            SELECT p.id, p.quantity, COALESCE(SUM(ps.quantity), 0) AS stocked
+            FROM products p LEFT JOIN product_stock ps ON ps.product_id = p.id
+            GROUP BY p.id, p.quantity
+            """;
+        try (Connection c = Database.getConnection();
+             Statement st = c.createStatement()) {
+            try (ResultSet rs = st.executeQuery(negative)) {
+                while (rs.next()) {
+                    out.add(String.format("product %d at location %d: negative stock %d", rs.getInt(1), rs.getInt(2), rs.getInt(3)));
+                }
+            }
+            ResultSet rs = st.executeQuery(sql);
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                int quantity = rs.getInt(2);
+                int stocked = rs.getInt(3);
+                if (quantity != stocked) {
+                    out.add(String.format("product %d: products.quantity %d, product_stock total %d", id, quantity, stocked));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Invariant check failed", e);
+        }
+        return out;
+    }
+
+    private static Map<Long, Integer> stockSnapshot() {
+        Map<Long, Integer> out = new HashMap<>();
+        for (StockMatrix.Cell c : new ProductStockDao().findAllCells()) {
+            out.put(key(c.productId(), c.locationId()), c.quantity());
+        }
+        return out;
+    }
+
+    private static long key(int productId, int locationId) {
+        return ((long) productId << 32) | (locationId & 0xFFFFFFFFL);
+    }
+
+    private static int productOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int locationOf(long key) {
+        return (int) key;
+    }
+
+    private static int indexOf(int[] a, int v) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == v) return i;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.javafx.demo.ui;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Runs an action on the FX thread once input has been quiet for a delay; every
+ * {@link #trigger()} before then restarts the wait. Use from the FX thread.
+ */
+public final class Debouncer {
+    private final PauseTransition pause;
+
+    public Debouncer(Duration delay, Runnable action) {
+        pause = new PauseTransition(delay);
+        pause.setOnFinished(e -> action.run());
+    }
+
+    public void trigger() {
+        pause.playFromStart();
+    }
+
+    public void cancel() {
+        pause.stop();
+    }
+}
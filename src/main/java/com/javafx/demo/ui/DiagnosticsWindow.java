@@ -0,0 +1,226 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.FxStallDetector;
+import com.javafx.demo.metrics.LatencyHistogram;
+import com.javafx.demo.metrics.QueryStats;
+import com.javafx.demo.metrics.jfr.FlightRecording;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Admin window with live database statistics: the queries with the most total time since start
+ * (or the last reset) and the time spent opening connections. Refreshes every two seconds while
+ * it is open. A second tab shows how quickly the FX thread responds and the recent stalls, each
+ * with the stack it was sampled in. Also saves the continuous flight recording to a file for
+ * offline analysis.
+ */
+public final class DiagnosticsWindow {
+    private static final DiagnosticsWindow INSTANCE = new DiagnosticsWindow();
+    private static final int TOP_QUERIES = 25;
+    private static final Duration REFRESH = Duration.seconds(2);
+    private static final DateTimeFormatter STALL_TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final QueryStats stats = QueryStats.getInstance();
+    private Stage stage;
+    private TableView<QueryStats.Entry> table;
+    private Label connectionLabel;
+    private TableView<FxStallDetector.Stall> stallTable;
+    private Label fxLabel;
+    private Timeline refresher;
+
+    private DiagnosticsWindow() {}
+
+    public static DiagnosticsWindow getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Show the window over {@code owner}, creating it on first use. A stage's owner cannot change
+     * once it has been shown, so a different owner gets a new window. Must be called on the FX
+     * thread.
+     */
+    public void show(Window owner) {
+        if (stage != null && stage.getOwner() != owner) {
+            stage.hide();
+            stage = null;
+        }
+        if (stage == null) {
+            stage = build(owner);
+        }
+        refresh();
+        refresher.play();
+        stage.show();
+        stage.toFront();
+    }
+
+    private Stage build(Window owner) {
+        table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        TableColumn<QueryStats.Entry, String> name = column("Query", QueryStats.Entry::name);
+        name.setPrefWidth(260);
+        table.getColumns().add(name);
+        table.getColumns().add(column("Calls", e -> String.valueOf(e.calls())));
+        table.getColumns().add(column("Total", e -> LatencyHistogram.formatMicros(e.totalMicros())));
+        table.getColumns().add(column("Mean", e -> LatencyHistogram.formatMicros(Math.round(e.meanMicros()))));
+        table.getColumns().add(column("p50", e -> LatencyHistogram.formatMicros(e.p50Micros())));
+        table.getColumns().add(column("p99", e -> LatencyHistogram.formatMicros(e.p99Micros())));
+        table.getColumns().add(column("Max", e -> LatencyHistogram.formatMicros(e.maxMicros())));
+        table.getColumns().add(column("Rows", e -> String.valueOf(e.rows())));
+
+        connectionLabel = new Label();
+        Button reset = new Button("Reset");
+        reset.setOnAction(e -> {
+            stats.reset();
+            refresh();
+        });
+        Button saveRecording = new Button("Save Flight Recording");
+        saveRecording.setDisable(!FlightRecording.getInstance().isRunning());
+        saveRecording.setOnAction(e -> saveRecording(saveRecording));
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox footer = new HBox(12, connectionLabel, spacer, saveRecording, reset);
+        footer.setPadding(new Insets(8, 0, 0, 0));
+
+        TabPane tabs = new TabPane(new Tab("Queries", table), new Tab("FX Thread", buildFxPane()));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        BorderPane root = new BorderPane(tabs);
+        root.setBottom(footer);
+        root.setPadding(new Insets(12));
+
+        refresher = new Timeline(new KeyFrame(REFRESH, e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+
+        Stage s = new Stage();
+        s.initOwner(owner);
+        s.setTitle("Diagnostics");
+        s.setScene(new Scene(root, 900, 520));
+        s.setOnHidden(e -> refresher.stop());
+        return s;
+    }
+
+    private BorderPane buildFxPane() {
+        stallTable = new TableView<>();
+        stallTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        stallTable.getColumns().add(stallColumn("Time", s -> s.at().format(STALL_TIME)));
+        stallTable.getColumns().add(stallColumn("Duration", s -> LatencyHistogram.formatMicros(s.durationMicros())));
+        TableColumn<FxStallDetector.Stall, String> action = stallColumn("Action", FxStallDetector.Stall::action);
+        action.setPrefWidth(320);
+        stallTable.getColumns().add(action);
+
+        TextArea stack = new TextArea();
+        stack.setEditable(false);
+        stack.setPrefRowCount(10);
+        stack.setStyle("-fx-font-family: monospace;");
+        stallTable.getSelectionModel().selectedItemProperty().addListener((obs, old, stall) ->
+            stack.setText(stall == null ? "" : stall.stack().isEmpty() ? "Stall ended before its stack was sampled" : stall.stack()));
+
+        fxLabel = new Label();
+        BorderPane pane = new BorderPane(new SplitPane(stallTable, stack));
+        ((SplitPane) pane.getCenter()).setOrientation(Orientation.VERTICAL);
+        pane.setTop(fxLabel);
+        BorderPane.setMargin(fxLabel, new Insets(0, 0, 8, 0));
+        return pane;
+    }
+
+    // Dumping copies up to the recording's size limit, so keep it off the FX thread
+    private void saveRecording(Button button) {
+        button.setDisable(true);
+        DbExecutor.getInstance().run(() -> {
+            try {
+                Path file = FlightRecording.getInstance().dump();
+                Platform.runLater(() -> {
+                    button.setDisable(false);
+                    Alert done = new Alert(Alert.AlertType.INFORMATION);
+                    done.initOwner(stage);
+                    done.setTitle("Flight Recording");
+                    done.setHeaderText("Flight recording saved");
+                    done.setContentText("Saved to: " + file);
+                    done.show();
+                });
+            } catch (RuntimeException ex) {
+                Platform.runLater(() -> {
+                    button.setDisable(false);
+                    Alert error = new Alert(Alert.AlertType.ERROR);
+                    error.initOwner(stage);
+                    error.setTitle("Flight Recording");
+                    error.setHeaderText("Failed to save flight recording");
+                    error.setContentText(ex.getMessage());
+                    error.show();
+                });
+            }
+        });
+    }
+
+    private void refresh() {
+        table.setItems(FXCollections.observableArrayList(stats.top(TOP_QUERIES)));
+        refreshFx();
+        LatencyHistogram wait = stats.connectionWait();
+        connectionLabel.setText(String.format("Connections opened: %d, wait p50 %s, p99 %s, max %s",
+            wait.count(),
+            LatencyHistogram.formatMicros(wait.percentileMicros(50)),
+            LatencyHistogram.formatMicros(wait.percentileMicros(99)),
+            LatencyHistogram.formatMicros(wait.maxMicros())));
+    }
+
+    private void refreshFx() {
+        FxStallDetector fx = FxStallDetector.getInstance();
+        LatencyHistogram response = fx.responseLatency();
+        fxLabel.setText(String.format("Pings: %d, response p50 %s, p99 %s, p99.9 %s, max %s; stalls: %d, %s in total",
+            response.count(),
+            LatencyHistogram.formatMicros(response.percentileMicros(50)),
+            LatencyHistogram.formatMicros(response.percentileMicros(99)),
+            LatencyHistogram.formatMicros(response.percentileMicros(99.9)),
+            LatencyHistogram.formatMicros(response.maxMicros()),
+            fx.stallCount(),
+            LatencyHistogram.formatMicros(fx.stallMicros())));
+        // Replacing the items would drop the selection and the stack shown for it
+        List<FxStallDetector.Stall> stalls = fx.recentStalls();
+        if (!stalls.equals(stallTable.getItems())) {
+            FxStallDetector.Stall selected = stallTable.getSelectionModel().getSelectedItem();
+            stallTable.setItems(FXCollections.observableArrayList(stalls));
+            if (selected != null) stallTable.getSelectionModel().select(selected);
+        }
+    }
+
+    private static TableColumn<FxStallDetector.Stall, String> stallColumn(String title, Function<FxStallDetector.Stall, String> value) {
+        TableColumn<FxStallDetector.Stall, String> c = new TableColumn<>(title);
+        c.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(value.apply(cd.getValue())));
+        c.setSortable(false);
+        return c;
+    }
+
+    private static TableColumn<QueryStats.Entry, String> column(String title, Function<QueryStats.Entry, String> value) {
+        TableColumn<QueryStats.Entry, String> c = new TableColumn<>(title);
+        c.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(value.apply(cd.getValue())));
+        c.setSortable(false);
+        return c;
+    }
+}
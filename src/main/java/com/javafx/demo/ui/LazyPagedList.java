@@ -0,0 +1,262 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.CacheStats;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Read-only list that loads its rows from a {@link PageSource} one page at a time, as a
+ * virtualized {@code TableView}, {@code ListView} or {@code ComboBox} asks for them.
+ *
+ * The row count and the pages are read on {@link DbExecutor}, never on the FX thread. The list
+ * starts empty and grows once the count arrives. A row whose page has not arrived yet reads as
+ * the source's {@linkplain PageSource#placeholder placeholder}; when the page arrives its rows
+ * are replaced, so the control redraws them. A page is fetched by keyset after the last row of
+ * the previous page when that page has been seen (the usual case while scrolling), or by offset
+ * when the user jumps ahead. The most recently used pages are kept; older ones are dropped and
+ * re-read if they are needed again, so memory stays bounded however large the source is.
+ *
+ * Rows deleted since the count read as the placeholder too, and a page that comes back short
+ * refreshes the list. {@link #indexOf} of a row outside the cached pages answers -1 and looks the
+ * row's position up on {@link DbExecutor}; once its page arrives the list reports it replaced,
+ * so a control re-selecting its value finds it. Use the list from the FX thread only. {@link #refresh()} re-counts and
+ * clears the cache after the underlying data changed.
+ */
+public final class LazyPagedList<T> extends ObservableListBase<T> {
+    private static final Logger LOG = Logger.getLogger(LazyPagedList.class.getName());
+
+    /**
+     * Rows in a fixed order that has a unique key, so that "rows after this one" is well defined.
+     * All methods but {@link #placeholder} are called on a {@link DbExecutor} thread.
+     */
+    public interface PageSource<T> {
+        int count();
+
+        /** Up to {@code limit} rows following {@code after}, or the first rows when it is null. */
+        List<T> fetchAfter(T after, int limit);
+
+        List<T> fetchAt(int offset, int limit);
+
+        /** Index of {@code row} in this order, or -1 if it is no longer there. */
+        int positionOf(T row);
+
+        /** Stands in for a row that is still loading, or was deleted since the count. */
+        T placeholder();
+
+        /**
+         * The same rows wrapped as {@code R}; {@code unwrap} gives back the row a wrapper was made
+         * from. Rows still loading read as {@code placeholder}.
+         */
+        default <R> PageSource<R> map(Function<T, R> wrap, Function<R, T> unwrap, R placeholder) {
+            PageSource<T> self = this;
+            return new PageSource<>() {
+                @Override
+                public int count() {
+                    return self.count();
+                }
+
+                @Override
+                public List<R> fetchAfter(R after, int limit) {
+                    return self.fetchAfter(after == null ? null : unwrap.apply(after), limit).stream().map(wrap).toList();
+                }
+
+                @Override
+                public List<R> fetchAt(int offset, int limit) {
+                    return self.fetchAt(offset, limit).stream().map(wrap).toList();
+                }
+
+                @Override
+                public int positionOf(R row) {
+                    return self.positionOf(unwrap.apply(row));
+                }
+
+                @Override
+                public R placeholder() {
+                    return placeholder;
+                }
+            };
+        }
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_PAGES = 20;
+    private static final String CACHE_NAME = "table_pages";
+
+    private final PageSource<T> source;
+    private final T placeholder;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    // Last row of each page seen so far, the keyset anchor for the page after it
+    private final Map<Integer, T> lastRowOfPage = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    // Rows whose position is being looked up for indexOf
+    private final Set<T> locating = new HashSet<>();
+    // Bumped by refresh(); loads started before it are dropped when they complete
+    private long generation;
+    private int size;
+
+    public LazyPagedList(PageSource<T> source) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public LazyPagedList(PageSource<T> source, int pageSize, int maxPages) {
+        if (pageSize < 1 || maxPages < 1) throw new IllegalArgumentException("pageSize and maxPages must be positive");
+        this.source = source;
+        this.placeholder = source.placeholder();
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(maxPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        refresh();
+    }
+
+    /**
+     * The row at {@code index}, or the placeholder while its page loads or if it was deleted since
+     * the list was counted.
+     */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        int pageIndex = index / pageSize;
+        List<T> page = pages.get(pageIndex);
+        if (page == null) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+            load(pageIndex);
+            return placeholder;
+        }
+        CacheStats.getInstance().hit(CACHE_NAME);
+        int i = index % pageSize;
+        return i < page.size() ? page.get(i) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isPlaceholder(Object o) {
+        return o == placeholder;
+    }
+
+    /**
+     * Searches the cached pages only. A row that is not cached answers -1; its position is then
+     * asked of the source on {@link DbExecutor}, so that selecting an item costs one query rather
+     * than reading the source up to it, and its page is loaded.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (o == null || o == placeholder) return -1;
+        for (Map.Entry<Integer, List<T>> e : pages.entrySet()) {
+            int i = e.getValue().indexOf(o);
+            if (i >= 0) return e.getKey() * pageSize + i;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            T row = (T) o;
+            locate(row);
+        } catch (ClassCastException e) {
+            // not a row of this list
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Re-count and drop all cached pages; listeners see the whole list replaced once the new count
+     * arrives.
+     */
+    public void refresh() {
+        generation++;
+        pages.clear();
+        lastRowOfPage.clear();
+        loading.clear();
+        locating.clear();
+        submit(source::count, () -> {}, count -> {
+            int oldSize = size;
+            size = count;
+            beginChange();
+            if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, placeholder));
+            if (size > 0) nextAdd(0, size);
+            endChange();
+        });
+    }
+
+    public int cachedPageCount() {
+        return pages.size();
+    }
+
+    private void locate(T row) {
+        if (!locating.add(row)) return;
+        submit(() -> source.positionOf(row), () -> locating.remove(row), i -> {
+            if (i >= 0 && i < size && !pages.containsKey(i / pageSize)) load(i / pageSize);
+        });
+    }
+
+    private void load(int pageIndex) {
+        if (!loading.add(pageIndex)) return;
+        T anchor = pageIndex == 0 ? null : lastRowOfPage.get(pageIndex - 1);
+        Supplier<List<T>> fetch = pageIndex == 0 || anchor != null
+            ? () -> source.fetchAfter(anchor, pageSize)
+            : () -> source.fetchAt(pageIndex * pageSize, pageSize);
+        submit(fetch, () -> loading.remove(pageIndex), rows -> {
+            List<T> page = List.copyOf(rows);
+            pages.put(pageIndex, page);
+            if (!page.isEmpty()) lastRowOfPage.put(pageIndex, page.get(page.size() - 1));
+
+            int from = pageIndex * pageSize;
+            int to = Math.min(from + pageSize, size);
+            if (from < to) {
+                beginChange();
+                nextReplace(from, to, Collections.nCopies(to - from, placeholder));
+                endChange();
+            }
+            // Rows were deleted since the count, so later pages would start at the wrong index
+            if (page.size() < to - from) refresh();
+        });
+    }
+
+    /**
+     * Run {@code query} on {@link DbExecutor}, then {@code done} and, if it succeeded, {@code then}
+     * with its result on the FX thread, unless {@link #refresh()} was called in between.
+     */
+    private <V> void submit(Supplier<V> query, Runnable done, Consumer<V> then) {
+        long started = generation;
+        CompletableFuture<V> result = DbExecutor.getInstance().supply(query);
+        result.whenComplete((v, e) -> Platform.runLater(() -> {
+            if (started != generation) return;
+            done.run();
+            if (e != null) {
+                // Left unloaded; the next get() of one of its rows tries again
+                LOG.warning("Paged list query failed: " + e);
+                return;
+            }
+            then.accept(v);
+        }));
+    }
+}
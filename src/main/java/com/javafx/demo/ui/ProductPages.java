@@ -0,0 +1,129 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.dao.ProductDao;
+import com.javafx.demo.dao.ProductStockDao;
+import com.javafx.demo.dao.ProductStockDao.StockQuery;
+import com.javafx.demo.dao.ProductStockDao.StockRow;
+import com.javafx.demo.dao.ProductStockDao.StockSort;
+import com.javafx.demo.model.ProductSummary;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Page sources over the product catalog for {@link LazyPagedList}, and server-side sorting for
+ * tables backed by one.
+ */
+public final class ProductPages {
+    private static final ProductDao productDao = new ProductDao();
+    private static final ProductStockDao stockDao = new ProductStockDao();
+
+    private ProductPages() {}
+
+    /** Shown in a product combo box for a product that is still loading. */
+    public static final ProductSummary LOADING_SUMMARY = new ProductSummary(0, "Loading\u2026", "", 0);
+    private static final StockRow LOADING_STOCK_ROW = new StockRow(0, "", "", 0, "", 0);
+
+    /**
+     * All products by name, for combo boxes.
+     */
+    public static LazyPagedList.PageSource<ProductSummary> summaries() {
+        return new LazyPagedList.PageSource<>() {
+            @Override
+            public int count() {
+                return productDao.count();
+            }
+
+            @Override
+            public List<ProductSummary> fetchAfter(ProductSummary after, int limit) {
+                return productDao.findSummariesAfter(after, limit);
+            }
+
+            @Override
+            public List<ProductSummary> fetchAt(int offset, int limit) {
+                return productDao.findSummariesAt(offset, limit);
+            }
+
+            @Override
+            public int positionOf(ProductSummary row) {
+                return productDao.positionOfSummary(row);
+            }
+
+            @Override
+            public ProductSummary placeholder() {
+                return LOADING_SUMMARY;
+            }
+        };
+    }
+
+    public static LazyPagedList.PageSource<StockRow> stock(StockQuery query) {
+        return new LazyPagedList.PageSource<>() {
+            @Override
+            public int count() {
+                return stockDao.countStock(query);
+            }
+
+            @Override
+            public List<StockRow> fetchAfter(StockRow after, int limit) {
+                return stockDao.findStockAfter(query, after, limit);
+            }
+
+            @Override
+            public List<StockRow> fetchAt(int offset, int limit) {
+                return stockDao.findStockAt(query, offset, limit);
+            }
+
+            @Override
+            public int positionOf(StockRow row) {
+                return stockDao.positionOfStock(query, row);
+            }
+
+            @Override
+            public StockRow placeholder() {
+                return LOADING_STOCK_ROW;
+            }
+        };
+    }
+
+    /**
+     * Sort {@code table} in the database: clicking one of {@code sortable}'s columns calls
+     * {@code reload} with its order instead of sorting the (partly loaded) items in memory.
+     * Other columns are made unsortable. With no sort column the order is {@code defaultSort}.
+     */
+    public static <R> void serverSort(TableView<R> table, Map<TableColumn<R, ?>, StockSort> sortable,
+                                      StockSort defaultSort, BiConsumer<StockSort, Boolean> reload) {
+        for (TableColumn<R, ?> column : table.getColumns()) {
+            column.setSortable(sortable.containsKey(column));
+        }
+        SortState current = new SortState(defaultSort);
+        table.setSortPolicy(t -> {
+            StockSort sort = defaultSort;
+            boolean descending = false;
+            if (!t.getSortOrder().isEmpty()) {
+                TableColumn<R, ?> first = t.getSortOrder().get(0);
+                sort = sortable.getOrDefault(first, defaultSort);
+                descending = first.getSortType() == TableColumn.SortType.DESCENDING;
+            }
+            // Replacing the items asks for a sort again; only reload when the order changed
+            if (sort != current.sort || descending != current.descending) {
+                current.sort = sort;
+                current.descending = descending;
+                reload.accept(sort, descending);
+            }
+            return true;
+        });
+    }
+
+    /** The order a server-sorted table was last loaded in. */
+    private static final class SortState {
+        StockSort sort;
+        boolean descending;
+
+        SortState(StockSort sort) {
+            this.sort = sort;
+        }
+    }
+}
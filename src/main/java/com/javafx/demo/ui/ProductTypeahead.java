@@ -0,0 +1,126 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.app.ProductSearchIndex;
+import com.javafx.demo.app.StockMatrix;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.model.ProductSummary;
+import com.javafx.demo.service.ProductService;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+
+import java.util.List;
+
+/**
+ * Makes a product {@link ComboBox} editable with typeahead.
+ *
+ * With an empty editor the drop-down pages through the whole catalog ({@link LazyPagedList});
+ * typing, once the keys have been quiet for {@link #DEBOUNCE}, replaces it with the best
+ * {@link #MAX_MATCHES} matches from the product search index.
+ *
+ * The index and the stock matrix are refreshed on {@link DbExecutor} when the combo box is set up;
+ * until they have loaded, typing finds nothing, and the matches are looked up again once they have.
+ * Typing itself never queries the database.
+ */
+public final class ProductTypeahead {
+    public static final Duration DEBOUNCE = Duration.millis(150);
+    public static final int MAX_MATCHES = 20;
+    // Products added or renamed on other terminals show up once the index is this old
+    public static final long INDEX_MAX_AGE_MILLIS = 60_000;
+    private static final long STOCK_MAX_AGE_MILLIS = 30_000;
+
+    private final ComboBox<ProductSummary> combo;
+    private final ProductService productService = new ProductService();
+    private final LazyPagedList<ProductSummary> catalog = new LazyPagedList<>(ProductPages.summaries());
+    private final Debouncer debouncer = new Debouncer(DEBOUNCE, this::updateMatches);
+    private String lastQuery = "";
+
+    private ProductTypeahead(ComboBox<ProductSummary> combo) {
+        this.combo = combo;
+    }
+
+    public static ProductTypeahead install(ComboBox<ProductSummary> combo) {
+        ProductTypeahead typeahead = new ProductTypeahead(combo);
+        typeahead.attach();
+        return typeahead;
+    }
+
+    /**
+     * Re-read the catalog after products or quantities changed, and drop the current matches.
+     */
+    public void refresh() {
+        catalog.refresh();
+        lastQuery = "";
+        combo.setItems(catalog);
+    }
+
+    private void attach() {
+        ProductSearchIndex index = ProductSearchIndex.getInstance();
+        StockMatrix stock = StockMatrix.getInstance();
+        if (index.isOlderThan(INDEX_MAX_AGE_MILLIS) || !stock.isLoaded()) {
+            DbExecutor.getInstance().run(() -> {
+                index.refreshIfOlderThan(INDEX_MAX_AGE_MILLIS);
+                stock.refreshIfOlderThan(STOCK_MAX_AGE_MILLIS);
+            }).whenComplete((v, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    return;
+                }
+                // Anything typed meanwhile matched nothing; look it up again
+                lastQuery = "";
+                updateMatches();
+            }));
+        }
+        combo.setEditable(true);
+        combo.setItems(catalog);
+        combo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(ProductSummary p) {
+                return p == null ? "" : p.name();
+            }
+
+            @Override
+            public ProductSummary fromString(String text) {
+                if (text == null || text.isBlank()) return null;
+                ProductSummary current = combo.getValue();
+                if (current != null && current.name().equals(text)) return current;
+                // Typed and committed without picking: take the best match
+                List<ProductSummary> best = productService.searchLoadedProducts(text, 1);
+                return best.isEmpty() ? null : best.get(0);
+            }
+        });
+        combo.getEditor().textProperty().addListener((obs, o, n) -> debouncer.trigger());
+        // A catalog row still loading cannot be picked
+        combo.valueProperty().addListener((obs, o, n) -> {
+            if (catalog.isPlaceholder(n)) combo.setValue(o);
+        });
+    }
+
+    private void updateMatches() {
+        TextField editor = combo.getEditor();
+        String text = editor.getText() == null ? "" : editor.getText().trim();
+        ProductSummary current = combo.getValue();
+        // Text set by picking an item, or unchanged since the last search
+        if (text.equals(lastQuery) || (current != null && current.name().equals(text))) return;
+        lastQuery = text;
+
+        int caret = editor.getCaretPosition();
+        String typed = editor.getText();
+        if (text.isEmpty()) {
+            combo.setItems(catalog);
+        } else {
+            combo.setItems(FXCollections.observableArrayList(productService.searchLoadedProducts(text, MAX_MATCHES)));
+        }
+        // Replacing the items can clear the selection and with it the editor
+        if (!typed.equals(editor.getText())) {
+            editor.setText(typed);
+            editor.positionCaret(caret);
+        }
+        if (!text.isEmpty() && editor.isFocused() && !combo.getItems().isEmpty()) {
+            combo.show();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.db.CancelToken;
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.metrics.CacheStats;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads one page of a filtered view on {@link DbExecutor} on behalf of a controller.
+ *
+ * A controller describes what it wants to show as a key (filters plus page number) and calls
+ * {@link #request}. Requests are debounced, so a burst of filter tweaks or page clicks runs one
+ * query for the last of them. Starting a load cancels any load for another key that is still
+ * running, through {@link CancelToken}, and results for a key that is no longer wanted are
+ * dropped. After a page is shown the keys returned by the prefetch function, typically the
+ * neighbouring pages, are loaded into a small cache so stepping to them needs no query.
+ * {@link #invalidate} starts a new generation: loads begun before it are cancelled and their
+ * results are neither shown nor cached.
+ *
+ * Loaders can share a value between keys with {@link #memo}, typically the row count of a set of
+ * filters, which every page of those filters needs but only the first has to query.
+ *
+ * All methods but {@link #memo} must be called on the FX thread; the result and error callbacks
+ * run there too.
+ */
+public final class ReloadCoordinator<K, R> {
+    public static final Duration DEFAULT_DEBOUNCE = Duration.millis(200);
+    private static final int CACHE_SIZE = 8;
+    private static final long CACHE_TTL_MILLIS = 15_000;
+    private static final String CACHE_NAME = "view_pages";
+
+    @FunctionalInterface
+    public interface Loader<K, R> {
+        R load(K key, CancelToken token) throws Exception;
+    }
+
+    private record Cached<R>(R value, long loadedAtNanos) {}
+
+    private record InFlight<R>(CancelToken token, CompletableFuture<R> future, long generation) {}
+
+    private record Memo(Object value, long generation, long loadedAtNanos) {}
+
+    private final Loader<K, R> loader;
+    private final Consumer<R> onResult;
+    private final Consumer<Throwable> onError;
+    private final Debouncer debouncer;
+    private final Map<K, Cached<R>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Cached<R>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final Map<K, InFlight<R>> inFlight = new HashMap<>();
+    // Written by loaders on DbExecutor threads
+    private final Map<Object, Memo> memos = new ConcurrentHashMap<>();
+    private BiFunction<K, R, List<K>> prefetch = (key, result) -> List.of();
+    private K pending;
+    private K current;
+    // Read by loaders in memo()
+    private volatile long generation;
+
+    public ReloadCoordinator(Loader<K, R> loader, Consumer<R> onResult, Consumer<Throwable> onError) {
+        this(DEFAULT_DEBOUNCE, loader, onResult, onError);
+    }
+
+    public ReloadCoordinator(Duration debounce, Loader<K, R> loader, Consumer<R> onResult, Consumer<Throwable> onError) {
+        this.loader = loader;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.debouncer = new Debouncer(debounce, this::firePending);
+    }
+
+    /**
+     * Keys to load ahead after {@code key} has been shown with {@code result}.
+     */
+    public ReloadCoordinator<K, R> prefetching(BiFunction<K, R, List<K>> neighbours) {
+        this.prefetch = neighbours;
+        return this;
+    }
+
+    /**
+     * Show {@code key}: at once if it is cached, otherwise once requests have paused.
+     */
+    public void request(K key) {
+        Cached<R> hit = fresh(key);
+        if (hit == null) {
+            CacheStats.getInstance().miss(CACHE_NAME);
+        } else {
+            CacheStats.getInstance().hit(CACHE_NAME);
+            debouncer.cancel();
+            pending = null;
+            cancelAllBut(key);
+            show(key, hit.value());
+            return;
+        }
+        pending = key;
+        debouncer.trigger();
+    }
+
+    /**
+     * Load {@code key} now, bypassing the debounce and the cache, e.g. after the user changed data.
+     */
+    public void reloadNow(K key) {
+        debouncer.cancel();
+        pending = null;
+        discard();
+        start(key);
+    }
+
+    /**
+     * The value {@code compute} gives for {@code shareKey}, computed once and reused by later loads
+     * until it is as old as a cached page or {@link #invalidate} is called. For use inside the
+     * loader, e.g. with the filters without the page number as {@code shareKey}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T memo(Object shareKey, Supplier<T> compute) {
+        long gen = generation;
+        Memo m = memos.get(shareKey);
+        if (m != null && m.generation() == gen
+                && (System.nanoTime() - m.loadedAtNanos()) / 1_000_000 <= CACHE_TTL_MILLIS) {
+            return (T) m.value();
+        }
+        T value = compute.get();
+        // A value read before an invalidate may predate the change that caused it
+        if (generation == gen) memos.put(shareKey, new Memo(value, gen, System.nanoTime()));
+        return value;
+    }
+
+    /**
+     * Forget cached pages and cancel running loads, which may have read data from before a
+     * change; the next request for any key queries again. A load for the key on screen is
+     * started again.
+     */
+    public void invalidate() {
+        boolean reloadCurrent = current != null && inFlight.containsKey(current);
+        discard();
+        if (reloadCurrent && pending == null) start(current);
+    }
+
+    /**
+     * Cancel pending and running loads, e.g. when the view is closed.
+     */
+    public void shutdown() {
+        debouncer.cancel();
+        pending = null;
+        current = null;
+        cancelAllBut(null);
+    }
+
+    /**
+     * {@link #shutdown} once {@code node} leaves the window: its scene root is replaced, or its
+     * scene is taken off the stage. Call from the controller's {@code initialize} with any node
+     * of the view.
+     */
+    public ReloadCoordinator<K, R> shutdownWhenRemoved(Node node) {
+        ChangeListener<Window> windowGone = (obs, old, window) -> {
+            if (window == null) shutdown();
+        };
+        if (node.getScene() != null) node.getScene().windowProperty().addListener(windowGone);
+        node.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (oldScene != null) oldScene.windowProperty().removeListener(windowGone);
+            if (scene == null) {
+                shutdown();
+            } else {
+                scene.windowProperty().addListener(windowGone);
+            }
+        });
+        return this;
+    }
+
+    private void discard() {
+        generation++;
+        cache.clear();
+        memos.clear();
+        cancelAllBut(null);
+    }
+
+    private void firePending() {
+        K key = pending;
+        pending = null;
+        if (key != null) start(key);
+    }
+
+    private void start(K key) {
+        current = key;
+        cancelAllBut(key);
+        InFlight<R> f = inFlight.get(key);
+        if (f == null) f = launch(key);
+        InFlight<R> load = f;
+        CancelToken token = f.token();
+        f.future().whenComplete((result, error) -> Platform.runLater(() -> {
+            if (!key.equals(current) || load.generation() != generation) return;
+            if (error == null) {
+                show(key, result);
+            } else if (!token.isCancelled()) {
+                onError.accept(error.getCause() != null ? error.getCause() : error);
+            }
+        }));
+    }
+
+    private InFlight<R> launch(K key) {
+        CancelToken token = new CancelToken();
+        CompletableFuture<R> future = DbExecutor.getInstance().supply(() -> {
+            try {
+                return loader.load(key, token);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        InFlight<R> f = new InFlight<>(token, future, generation);
+        inFlight.put(key, f);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            inFlight.remove(key, f);
+            if (error == null && !token.isCancelled() && f.generation() == generation) {
+                cache.put(key, new Cached<>(result, System.nanoTime()));
+            }
+        }));
+        return f;
+    }
+
+    private void show(K key, R result) {
+        current = key;
+        onResult.accept(result);
+        for (K next : prefetch.apply(key, result)) {
+            if (fresh(next) == null && !inFlight.containsKey(next)) {
+                launch(next);
+            }
+        }
+    }
+
+    private void cancelAllBut(K keep) {
+        inFlight.entrySet().removeIf(e -> {
+            if (e.getKey().equals(keep)) return false;
+            e.getValue().token().cancel();
+            return true;
+        });
+    }
+
+    private Cached<R> fresh(K key) {
+        Cached<R> c = cache.get(key);
+        if (c == null) return null;
+        if ((System.nanoTime() - c.loadedAtNanos()) / 1_000_000 > CACHE_TTL_MILLIS) {
+            cache.remove(key);
+            return null;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,167 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.db.DbExecutor;
+import com.javafx.demo.service.ReportService;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.print.PageLayout;
+import javafx.print.PageOrientation;
+import javafx.print.Paper;
+import javafx.print.Printer;
+import javafx.print.PrinterJob;
+import javafx.scene.web.WebEngine;
+import javafx.scene.web.WebView;
+import javafx.stage.Window;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Print pipeline for the daily HTML report.
+ *
+ * The HTML is built on {@link DbExecutor}, loaded into a single reused {@link WebView}
+ * and printed through {@link WebEngine#print(PrinterJob)}, which lays the document out
+ * across as many pages as it needs (table headers repeat per page via the report CSS).
+ * Each phase is timed and logged.
+ */
+public final class ReportPrinter {
+    private static final Logger LOG = Logger.getLogger(ReportPrinter.class.getName());
+    private static final ReportPrinter INSTANCE = new ReportPrinter();
+
+    private final ReportService reportService = new ReportService();
+
+    // Created lazily on the FX thread and reused for every print
+    private WebView webView;
+    private boolean busy;
+
+    public record PhaseTimings(long buildMillis, long loadMillis, long printMillis) {}
+
+    private ReportPrinter() {}
+
+    public static ReportPrinter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Create the WebView ahead of time so the first print does not pay for WebKit start-up.
+     * Must be called on the FX thread.
+     */
+    public void warmUp() {
+        engine();
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    /**
+     * Build, lay out and print the report for the given date. Must be called on the FX thread;
+     * callbacks are delivered on the FX thread.
+     *
+     * @param onDone  called once the pipeline has finished, whether or not anything was printed
+     * @param onError called if building, loading or printing fails
+     */
+    public void print(LocalDate date, Window owner, Runnable onDone, Consumer<Throwable> onError) {
+        if (busy) return;
+        busy = true;
+        long buildStart = System.nanoTime();
+        Task<String> build = new Task<>() {
+            @Override
+            protected String call() {
+                return reportService.buildHtmlForDate(date);
+            }
+        };
+        build.setOnSucceeded(e -> {
+            long buildNanos = System.nanoTime() - buildStart;
+            loadAndPrint(date, build.getValue(), owner, buildNanos, onDone, onError);
+        });
+        build.setOnFailed(e -> finish(onDone, onError, build.getException()));
+        DbExecutor.getInstance().run(build);
+    }
+
+    private void loadAndPrint(LocalDate date, String html, Window owner, long buildNanos,
+                              Runnable onDone, Consumer<Throwable> onError) {
+        WebEngine engine = engine();
+        long loadStart = System.nanoTime();
+        ChangeListener<Worker.State> listener = new ChangeListener<>() {
+            @Override
+            public void changed(javafx.beans.value.ObservableValue<? extends Worker.State> obs,
+                                Worker.State oldState, Worker.State newState) {
+                // CANCELLED is ignored: loadContent cancels any warm-up load still in flight
+                if (newState != Worker.State.SUCCEEDED && newState != Worker.State.FAILED) {
+                    return;
+                }
+                engine.getLoadWorker().stateProperty().removeListener(this);
+                if (newState != Worker.State.SUCCEEDED) {
+                    finish(onDone, onError, new IllegalStateException("Report layout failed: " + newState));
+                    return;
+                }
+                long loadNanos = System.nanoTime() - loadStart;
+                try {
+                    long printNanos = printLoaded(engine, owner);
+                    PhaseTimings t = new PhaseTimings(buildNanos / 1_000_000, loadNanos / 1_000_000,
+                        printNanos / 1_000_000);
+                    LOG.info(String.format("Report print for %s: build %d ms, load %d ms, print %d ms",
+                        date, t.buildMillis(), t.loadMillis(), t.printMillis()));
+                    finish(onDone, onError, null);
+                } catch (Exception ex) {
+                    finish(onDone, onError, ex);
+                }
+            }
+        };
+        engine.getLoadWorker().stateProperty().addListener(listener);
+        engine.loadContent(html, "text/html");
+    }
+
+    /**
+     * @return nanoseconds spent printing, excluding time the user spends in the print dialog
+     */
+    private long printLoaded(WebEngine engine, Window owner) {
+        PrinterJob job = PrinterJob.createPrinterJob();
+        if (job == null) {
+            throw new IllegalStateException("No printer available");
+        }
+        try {
+            Printer printer = job.getPrinter() != null ? job.getPrinter() : Printer.getDefaultPrinter();
+            if (printer != null) {
+                PageLayout layout = printer.createPageLayout(Paper.A4, PageOrientation.LANDSCAPE, 10, 10, 10, 10);
+                job.getJobSettings().setPageLayout(layout);
+            }
+        } catch (Exception ignored) {}
+        if (!job.showPrintDialog(owner)) {
+            job.cancelJob();
+            return 0;
+        }
+        long printStart = System.nanoTime();
+        // WebEngine.print paginates the document instead of snapshotting one tall node
+        engine.print(job);
+        job.endJob();
+        return System.nanoTime() - printStart;
+    }
+
+    private void finish(Runnable onDone, Consumer<Throwable> onError, Throwable error) {
+        busy = false;
+        if (error != null && onError != null) {
+            onError.accept(error);
+        }
+        if (onDone != null) {
+            onDone.run();
+        }
+    }
+
+    private WebEngine engine() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("ReportPrinter must be used on the FX application thread");
+        }
+        if (webView == null) {
+            webView = new WebView();
+            webView.setContextMenuEnabled(false);
+            webView.setPrefWidth(800);
+            webView.getEngine().loadContent("<html><body></body></html>", "text/html");
+        }
+        return webView.getEngine();
+    }
+}
@@ -0,0 +1,49 @@
+package com.javafx.demo.ui;
+
+import com.javafx.demo.metrics.jfr.ScreenLoadEvent;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+/**
+ * Times screen loads as {@link ScreenLoadEvent}s. A controller calls {@link #begin} first thing in
+ * {@code initialize()} with any node of its view; the event ends at the first layout pulse after
+ * that node is attached to a scene, i.e. the frame in which the screen is first drawn.
+ */
+public final class ScreenLoads {
+
+    private ScreenLoads() {}
+
+    public static void begin(String screen, Node node) {
+        ScreenLoadEvent event = new ScreenLoadEvent();
+        if (!event.isEnabled() || node == null) return;
+        event.begin();
+        event.screen = screen;
+        if (node.getScene() != null) {
+            commitAfterNextPulse(node.getScene(), event);
+            return;
+        }
+        node.sceneProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(javafx.beans.value.ObservableValue<? extends Scene> obs, Scene old, Scene scene) {
+                if (scene == null) return;
+                node.sceneProperty().removeListener(this);
+                commitAfterNextPulse(scene, event);
+            }
+        });
+    }
+
+    private static void commitAfterNextPulse(Scene scene, ScreenLoadEvent event) {
+        Runnable[] listener = new Runnable[1];
+        boolean[] done = new boolean[1];
+        listener[0] = () -> {
+            if (done[0]) return;
+            done[0] = true;
+            event.commit();
+            // Not removed in place: the scene is iterating its listeners
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+}
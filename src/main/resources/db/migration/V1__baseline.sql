@@ -162,4 +162,3 @@ DEALLOCATE PREPARE alter_fk_to_stmt;
 
 -- Seed default locations idempotently
 INSERT IGNORE INTO locations(name) VALUES ('Warehouse A'), ('Warehouse B'), ('Storage C');
-
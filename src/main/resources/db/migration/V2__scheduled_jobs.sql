@@ -0,0 +1,25 @@
+-- Scheduled jobs: persisted definitions, last-run state and a lease row per job
+CREATE TABLE IF NOT EXISTS scheduled_jobs (
+  name VARCHAR(64) PRIMARY KEY,
+  run_at CHAR(5) NOT NULL,
+  enabled TINYINT(1) NOT NULL DEFAULT 1,
+  last_scheduled_for DATETIME NULL,
+  last_started_at DATETIME NULL,
+  last_duration_ms BIGINT NULL,
+  last_status VARCHAR(16) NULL,
+  last_error VARCHAR(1000) NULL,
+  lease_owner VARCHAR(128) NULL,
+  lease_until DATETIME NULL
+);
+
+CREATE TABLE IF NOT EXISTS job_runs (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  job_name VARCHAR(64) NOT NULL,
+  scheduled_for DATETIME NOT NULL,
+  started_at DATETIME NOT NULL,
+  duration_ms BIGINT NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  owner VARCHAR(128) NOT NULL,
+  error VARCHAR(1000) NULL,
+  INDEX idx_job_runs_job (job_name, scheduled_for)
+);
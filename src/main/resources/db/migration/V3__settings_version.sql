@@ -0,0 +1,13 @@
+-- Add settings.version if missing (bumped on every changed write, polled by SettingsStore)
+-- Conditional because databases upgraded before versioned migrations may already have it
+SET @settings_version_exists := (
+  SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'settings' AND COLUMN_NAME = 'version'
+);
+SET @alter_settings_version := IF(@settings_version_exists = 0,
+  'ALTER TABLE settings ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+  'DO 0'
+);
+PREPARE alter_settings_version_stmt FROM @alter_settings_version;
+EXECUTE alter_settings_version_stmt;
+DEALLOCATE PREPARE alter_settings_version_stmt;
@@ -0,0 +1,2 @@
+-- Keyset paging of product lists seeks on (name, id)
+CREATE INDEX idx_products_name ON products (name, id);
@@ -0,0 +1,124 @@
+package com.javafx.demo.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs with {@code -Ddb.queryBudget=fail} (set by surefire), so closing a scope over its budget
+ * throws.
+ */
+class QueryScopeTest {
+    private static final String PAGE_SQL = "SELECT id, name FROM products WHERE id = ?";
+
+    @BeforeAll
+    static void failMode() {
+        assertEquals(QueryScope.Mode.FAIL, QueryScope.mode(), "surefire should set -Ddb.queryBudget=fail");
+    }
+
+    @AfterEach
+    void noScopeLeftOpen() {
+        assertNull(QueryScope.current());
+    }
+
+    @Test
+    void overBudgetThrowsOnClose() {
+        QueryScope scope = QueryScope.open("Test.overBudget", 2);
+        statements(3);
+        IllegalStateException e = assertThrows(IllegalStateException.class, scope::close);
+        assertTrue(e.getMessage().contains("3 statements exceed the budget of 2"), e.getMessage());
+    }
+
+    @Test
+    void withinBudgetPasses() {
+        try (QueryScope scope = QueryScope.open("Test.withinBudget", 2)) {
+            statements(2);
+            QueryScope.recordConnection(1_000);
+            QueryScope.Summary s = scope.summary();
+            assertEquals(2, s.statements());
+            assertEquals(1, s.connections());
+            assertTrue(s.repeated().isEmpty());
+        }
+    }
+
+    @Test
+    void repeatedStatementIsReported() {
+        QueryScope scope = QueryScope.open("Test.repeated", 100);
+        for (int i = 0; i < 6; i++) QueryScope.recordStatement(PAGE_SQL, 1_000);
+        QueryScope.recordStatement("SELECT COUNT(*) FROM products", 1_000);
+
+        assertEquals(java.util.Map.of(PAGE_SQL, 6), scope.summary().repeated());
+        IllegalStateException e = assertThrows(IllegalStateException.class, scope::close);
+        assertTrue(e.getMessage().contains("same statement run 6 times"), e.getMessage());
+    }
+
+    @Test
+    void statementsUpToTheRepeatLimitAreNotReported() {
+        try (QueryScope scope = QueryScope.open("Test.repeatLimit", 100)) {
+            for (int i = 0; i < 5; i++) QueryScope.recordStatement(PAGE_SQL, 1_000);
+            assertTrue(scope.summary().repeated().isEmpty());
+        }
+    }
+
+    @Test
+    void nestedScopeRollsUpIntoParent() {
+        try (QueryScope outer = QueryScope.open("Test.outer", 10)) {
+            statements(1);
+            QueryScope inner = QueryScope.open("Test.inner", 10);
+            assertSame(inner, QueryScope.current());
+            statements(2);
+            QueryScope.recordConnection(2_000);
+            inner.close();
+
+            assertSame(outer, QueryScope.current());
+            statements(1);
+            assertEquals(2, inner.summary().statements());
+            QueryScope.Summary s = outer.summary();
+            assertEquals(4, s.statements());
+            assertEquals(1, s.connections());
+        }
+    }
+
+    @Test
+    void nestedOverBudgetFailsOnlyTheInnerScope() {
+        try (QueryScope outer = QueryScope.open("Test.outer", 10)) {
+            QueryScope inner = QueryScope.open("Test.inner", 1);
+            statements(2);
+            assertThrows(IllegalStateException.class, inner::close);
+            assertSame(outer, QueryScope.current());
+            assertEquals(2, outer.summary().statements());
+        }
+    }
+
+    @Test
+    void callClosesTheScope() {
+        assertEquals("ok", QueryScope.call("Test.call", 1, () -> {
+            statements(1);
+            return "ok";
+        }));
+        assertThrows(IllegalStateException.class, () -> QueryScope.call("Test.call", 1, () -> {
+            statements(2);
+            return "too many";
+        }));
+    }
+
+    @Test
+    void callKeepsTheWorkFailureAndSuppressesTheBudgetFailure() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> QueryScope.call("Test.call", 1, () -> {
+            statements(2);
+            throw new RuntimeException("query failed");
+        }));
+        assertEquals("query failed", e.getMessage());
+        assertEquals(1, e.getSuppressed().length);
+    }
+
+    private static void statements(int n) {
+        for (int i = 0; i < n; i++) QueryScope.recordStatement("SELECT " + i, 1_000);
+    }
+}